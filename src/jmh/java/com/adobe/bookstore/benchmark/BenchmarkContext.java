@@ -0,0 +1,93 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.BookstoreApplication;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.BookStockRepository;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the application without the web layer so the benchmarks measure the services against the real database.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param properties {@code key=value} pairs, which take precedence over {@code application.properties}.
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        return builder().web(WebApplicationType.NONE).run(toArgs(properties));
+    }
+
+    /**
+     * Adds the given latency to every connection taken from the pool, as a remote database would.
+     */
+    static ApplicationContextInitializer<ConfigurableApplicationContext> databaseLatency(long latencyMs) {
+        return context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || latencyMs <= 0) {
+                    return bean;
+                }
+                return Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("getConnection")) {
+                                Thread.sleep(latencyMs);
+                            }
+                            try {
+                                return method.invoke(dataSource, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        });
+    }
+
+    static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(BookstoreApplication.class);
+    }
+
+    /**
+     * Turns {@code key=value} pairs into command-line arguments. Unless overridden, SQL is not echoed, the sample
+     * books are not loaded and the web server, if any, listens on a random port, available as
+     * {@code local.server.port}.
+     */
+    static String[] toArgs(String... properties) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.jpa.show-sql", "false");
+        args.put("spring.sql.init.mode", "never");
+        args.put("server.port", "0");
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            args.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+        return args.entrySet().stream()
+                .map(arg -> "--" + arg.getKey() + "=" + arg.getValue())
+                .toArray(String[]::new);
+    }
+
+    static List<String> seedBooks(ConfigurableApplicationContext context, int count, int quantity) {
+        List<BookStock> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(BookStock.builder().id(UUID.randomUUID().toString()).name("Book " + i).quantity(quantity).build());
+        }
+        context.getBean(BookStockRepository.class).saveAll(books);
+        return books.stream().map(BookStock::getId).toList();
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.BulkOrderDO;
+import com.adobe.bookstore.DO.BulkOrderResultDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.service.IBookOrderService;
+import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IBulkOrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders created per second on a single thread, one by one as {@code POST /orders/create} does, or in bulks as
+ * {@code POST /orders/bulk} does. Every order has three lines over a catalog of a hundred books.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkOrderBenchmark {
+
+    private static final int BULK_SIZE = 500;
+    private static final int BOOKS = 100;
+    private static final int LINES_PER_ORDER = 3;
+
+    private ConfigurableApplicationContext context;
+    private IBookStockService bookStockService;
+    private IBookOrderService bookOrderService;
+    private IBulkOrderService bulkOrderService;
+    private List<BulkOrderDO> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookStockService = context.getBean(IBookStockService.class);
+        bookOrderService = context.getBean(IBookOrderService.class);
+        bulkOrderService = context.getBean(IBulkOrderService.class);
+
+        List<String> bookIds = BenchmarkContext.seedBooks(context, BOOKS, Integer.MAX_VALUE);
+        orders = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            List<OrderItemDO> items = new ArrayList<>(LINES_PER_ORDER);
+            for (int j = 0; j < LINES_PER_ORDER; j++) {
+                items.add(OrderItemDO.builder().bookId(bookIds.get((i + j) % BOOKS)).quantity(1).build());
+            }
+            orders.add(BulkOrderDO.builder().reference(String.valueOf(i)).items(items).build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public String singleOrders() {
+        String orderId = null;
+        for (BulkOrderDO order : orders) {
+            bookStockService.reserveStock(order.getItems());
+            orderId = bookOrderService.createOrder(order.getItems());
+        }
+        return orderId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<BulkOrderResultDO> bulkOrders() {
+        return bulkOrderService.createOrders(orders);
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.repository.StockSnapshotRepository;
+import com.adobe.bookstore.service.IStockSnapshotService;
+import com.adobe.bookstore.utils.Csv;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to fill an empty {@code book_stock} table with the catalog, which is most of the startup time of a large
+ * catalog:
+ * <ul>
+ *     <li>{@code importSql}: one {@code INSERT} statement per book, as Hibernate runs {@code import.sql}.</li>
+ *     <li>{@code csvRead}: a single {@code CSVREAD} statement, as {@code bookstore.stock.seed-file} does.</li>
+ *     <li>{@code batchedImport}: the CSV import of {@code POST /books_stock/snapshot}, in JDBC batches.</li>
+ * </ul>
+ * The 5M books catalog needs more memory than the default, as in
+ * {@code -Djmh.args="CatalogLoadBenchmark -p books=5000000 -jvmArgsAppend -Xmx4g"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CatalogLoadBenchmark {
+
+    @Param({"1000000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private StockSnapshotRepository stockSnapshotRepository;
+    private IStockSnapshotService stockSnapshotService;
+    private Path sqlFile;
+    private Path csvFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        stockSnapshotRepository = context.getBean(StockSnapshotRepository.class);
+        stockSnapshotService = context.getBean(IStockSnapshotService.class);
+
+        Path directory = Files.createDirectories(Path.of("target", "catalog-benchmark"));
+        sqlFile = directory.resolve("catalog-" + books + ".sql");
+        csvFile = directory.resolve("catalog-" + books + ".csv");
+        // Sorted by ID, as the stock export writes them
+        String[] ids = new String[books];
+        for (int i = 0; i < books; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+        Arrays.sort(ids);
+
+        try (BufferedWriter sql = Files.newBufferedWriter(sqlFile); BufferedWriter csv = Files.newBufferedWriter(csvFile)) {
+            csv.write("id,name,quantity");
+            csv.newLine();
+            for (int i = 0; i < books; i++) {
+                String id = ids[i];
+                sql.write("INSERT INTO book_stock (id, name, quantity) VALUES ('" + id + "', 'Book " + i + "', " +
+                        (i % 100) + ");");
+                sql.newLine();
+                csv.write(Csv.formatLine(id, "Book " + i, i % 100));
+                csv.newLine();
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        jdbcTemplate.execute("TRUNCATE TABLE book_stock");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long importSql() throws IOException, SQLException {
+        long rows = 0;
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement();
+             BufferedReader reader = Files.newBufferedReader(sqlFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rows += statement.executeUpdate(line);
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public int csvRead() {
+        return stockSnapshotRepository.loadCsvFile(csvFile.toAbsolutePath().toString(), true);
+    }
+
+    @Benchmark
+    public long batchedImport() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(csvFile)) {
+            return stockSnapshotService.importStock(inputStream, false).getChanged();
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.adobe.bookstore.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to get over HTTP the stock of every book shown on a catalog page: one {@code GET /books_stock/{bookId}} per
+ * book, or a single {@code GET /books_stock/?ids=...}. Every invocation shows a different page of the catalog, so
+ * both the cached and the uncached reads are part of the measure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogPageBenchmark {
+
+    private static final int PAGES = 50;
+
+    @Param({"100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private List<List<String>> pages;
+    private int nextPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.builder()
+                .web(WebApplicationType.SERVLET)
+                .run(BenchmarkContext.toArgs());
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/books_stock/";
+        httpClient = HttpClient.newHttpClient();
+
+        List<String> bookIds = new ArrayList<>(BenchmarkContext.seedBooks(context, PAGES * pageSize, 10));
+        Collections.shuffle(bookIds);
+        pages = new ArrayList<>(PAGES);
+        for (int i = 0; i < PAGES; i++) {
+            pages.add(bookIds.subList(i * pageSize, (i + 1) * pageSize));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int singleCalls() throws IOException, InterruptedException {
+        int found = 0;
+        for (String bookId : nextPage()) {
+            if (get(baseUrl + bookId) == 200) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int multiGet() throws IOException, InterruptedException {
+        return get(baseUrl + "?ids=" + String.join(",", nextPage()));
+    }
+
+    private List<String> nextPage() {
+        nextPage = (nextPage + 1) % PAGES;
+        return pages.get(nextPage);
+    }
+
+    private int get(String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.utils.Csv;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to restart the application with a catalog of {@code books} books in the {@code prod} profile:
+ * <ul>
+ *     <li>{@code memory}: an in-memory database, which starts empty, so the catalog is seeded from the CSV file on
+ *     every startup.</li>
+ *     <li>{@code file}: the file database of the profile, seeded on the first startup only.</li>
+ * </ul>
+ * The schema is created by the migrations in both cases, so only the database storage differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DatabaseStartupBenchmark {
+
+    @Param({"memory", "file"})
+    private String database;
+
+    @Param({"100000"})
+    private int books;
+
+    private Path seedFile;
+    private Path databaseDirectory;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("bookstore.log.dir", "target/benchmark-logs");
+        Path directory = Files.createDirectories(Path.of("target", "database-benchmark"));
+        seedFile = directory.resolve("catalog-" + books + ".csv");
+        databaseDirectory = directory.resolve("startup-" + System.nanoTime());
+        try (BufferedWriter csv = Files.newBufferedWriter(seedFile)) {
+            csv.write("id,name,quantity");
+            csv.newLine();
+            for (int i = 0; i < books; i++) {
+                csv.write(Csv.formatLine(UUID.randomUUID().toString(), "Book " + i, i % 100));
+                csv.newLine();
+            }
+        }
+
+        // First startup, which creates the file database and seeds it
+        start().close();
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext startup() {
+        context = start();
+        return context;
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return BenchmarkContext.start(databaseProperties(database, databaseDirectory,
+                "bookstore.stock.seed-file=" + seedFile.toAbsolutePath()));
+    }
+
+    /**
+     * The {@code prod} profile with its file database in the given directory, or with an in-memory database instead.
+     */
+    static String[] databaseProperties(String database, Path databaseDirectory, String... properties) {
+        String[] args = new String[properties.length + 2];
+        args[0] = "spring.profiles.active=prod";
+        args[1] = switch (database) {
+            case "memory" -> "spring.datasource.url=jdbc:h2:mem:bookstore";
+            case "file" -> "bookstore.db.dir=" + databaseDirectory.toAbsolutePath();
+            default -> throw new IllegalArgumentException("Unknown database " + database);
+        };
+        System.arraycopy(properties, 0, args, 2, properties.length);
+        return args;
+    }
+
+}
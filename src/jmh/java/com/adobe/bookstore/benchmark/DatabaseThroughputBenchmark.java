@@ -0,0 +1,57 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.resource.BookOrderResource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Orders created per millisecond through {@link BookOrderResource} by concurrent clients in the {@code prod} profile,
+ * with an in-memory database ({@code memory}) and with the file database of the profile ({@code file}). The
+ * measurement runs long enough for the file database to write its changes to disk several times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(1)
+public class DatabaseThroughputBenchmark {
+
+    private static final int BOOKS = 1000;
+
+    @Param({"memory", "file"})
+    private String database;
+
+    private ConfigurableApplicationContext context;
+    private BookOrderResource bookOrderResource;
+    private List<String> bookIds;
+    private final AtomicInteger nextBook = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("bookstore.log.dir", "target/benchmark-logs");
+        context = BenchmarkContext.start(DatabaseStartupBenchmark.databaseProperties(database,
+                Path.of("target", "database-benchmark", "throughput-" + System.nanoTime())));
+        bookOrderResource = context.getBean(BookOrderResource.class);
+        bookIds = BenchmarkContext.seedBooks(context, BOOKS, Integer.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createOrder() {
+        String bookId = bookIds.get(Math.floorMod(nextBook.getAndIncrement(), BOOKS));
+        return bookOrderResource.createOrder(List.of(OrderItemDO.builder().bookId(bookId).quantity(1).build()), null);
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.BookStockRepository;
+import com.adobe.bookstore.service.IBookStockService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads reserving one unit of the same book, with and without write coalescing. Besides the throughput, the
+ * number of committed transactions per reservation is printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class HotBookReservationBenchmark {
+
+    private static final String HOT_BOOK_ID = "hot-book-0000";
+
+    @Param({"false", "true"})
+    private boolean coalescing;
+
+    private ConfigurableApplicationContext context;
+    private IBookStockService bookStockService;
+    private Statistics statistics;
+    private List<OrderItemDO> order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("bookstore.stock.coalescing.enabled=" + coalescing,
+                "spring.jpa.properties.hibernate.generate_statistics=true");
+        bookStockService = context.getBean(IBookStockService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        context.getBean(BookStockRepository.class).save(BookStock.builder()
+                .id(HOT_BOOK_ID).name("Hot book").quantity(Integer.MAX_VALUE).build());
+        order = List.of(OrderItemDO.builder().bookId(HOT_BOOK_ID).quantity(1).build());
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        int reserved = Integer.MAX_VALUE - context.getBean(BookStockRepository.class)
+                .findById(HOT_BOOK_ID).orElseThrow().getQuantity();
+        System.out.printf("coalescing=%s: %d reservations, %d committed transactions%n", coalescing, reserved,
+                statistics.getSuccessfulTransactionCount());
+        context.close();
+    }
+
+    @Benchmark
+    public void reserve() {
+        bookStockService.reserveStock(order);
+    }
+
+}
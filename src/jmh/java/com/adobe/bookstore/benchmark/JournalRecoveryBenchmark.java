@@ -0,0 +1,96 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.journal.JournaledOrder;
+import com.adobe.bookstore.journal.OrderJournal;
+import com.adobe.bookstore.service.impl.JournalingBookOrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to recover from a crash: replaying a journal of {@code orders} orders of three lines each that were
+ * acknowledged but never stored, as done on startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JournalRecoveryBenchmark {
+
+    private static final Path JOURNAL_DIR = Path.of("target", "benchmark-journal", "live");
+    private static final Path CRASHED_DIR = Path.of("target", "benchmark-journal", "crashed");
+    /** Appends wait for the disk, so the journal is written by many threads sharing each force. */
+    private static final int WRITERS = 64;
+
+    @Param({"10000", "100000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private JournalingBookOrderService journalingBookOrderService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        OrderJournal.deleteAll(JOURNAL_DIR);
+        OrderJournal.deleteAll(CRASHED_DIR);
+        context = BenchmarkContext.start("bookstore.orders.journal.enabled=true",
+                "bookstore.orders.journal.dir=" + JOURNAL_DIR);
+        journalingBookOrderService = context.getBean(JournalingBookOrderService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        try (OrderJournal journal = new OrderJournal(CRASHED_DIR, 64 * 1024 * 1024, (segment, written) -> { })) {
+            List<Future<?>> appends = new ArrayList<>(orders);
+            for (int i = 0; i < orders; i++) {
+                JournaledOrder order = new JournaledOrder(UUID.randomUUID().toString(), Instant.now(), List.of(
+                        item(UUID.randomUUID().toString()), item(UUID.randomUUID().toString()),
+                        item(UUID.randomUUID().toString())));
+                appends.add(writers.submit(() -> {
+                    journal.append(order);
+                    return null;
+                }));
+            }
+            for (Future<?> append : appends) {
+                append.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void deleteOrders() {
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM book_order");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        OrderJournal.deleteAll(CRASHED_DIR);
+    }
+
+    @Benchmark
+    public long replay() throws IOException {
+        return journalingBookOrderService.replay(CRASHED_DIR);
+    }
+
+    private static OrderItemDO item(String bookId) {
+        return OrderItemDO.builder().bookId(bookId).quantity(1).build();
+    }
+
+}
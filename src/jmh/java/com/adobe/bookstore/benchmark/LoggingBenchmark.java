@@ -0,0 +1,82 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.resource.BookOrderResource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency of creating an order through {@link BookOrderResource} from concurrent clients depending on the logging:
+ * <ul>
+ *     <li>{@code sync}: the default configuration, with the synchronous file appender and the SQL echo. The echo
+ *     is written to a discarded stream so the console does not take part in the measure.</li>
+ *     <li>{@code async}: only the logging of the {@code prod} profile, with asynchronous loggers, a rolling file and
+ *     no SQL echo.</li>
+ *     <li>{@code prod}: the whole {@code prod} profile, which also changes the connection pool and the schema
+ *     creation.</li>
+ *     <li>{@code off}: no application log and no SQL echo.</li>
+ * </ul>
+ * The resource is called in process: with the JDK HTTP client, the delayed ACKs of the loopback connection would
+ * hide the difference.
+ * <p>
+ * With more threads than cores the latency is bimodal: a call either runs through in well under a millisecond or is
+ * preempted for tens of them. The median sits close to the knee, so a few percent more preempted calls move it by
+ * several times from one run to the next: compare the average and the upper percentiles instead. Several forks keep
+ * the scheduling of a single JVM from deciding the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(3)
+public class LoggingBenchmark {
+
+    private static final int BOOKS = 1000;
+
+    @Param({"sync", "async", "prod", "off"})
+    private String logging;
+
+    private ConfigurableApplicationContext context;
+    private BookOrderResource bookOrderResource;
+    private List<String> bookIds;
+    private final AtomicInteger nextBook = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("bookstore.log.dir", "target/benchmark-logs");
+        context = switch (logging) {
+            case "sync" -> {
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                yield BenchmarkContext.start("spring.jpa.show-sql=true");
+            }
+            // The in-memory database of the other modes instead of the file database of the profile
+            case "prod" -> BenchmarkContext.start("spring.profiles.active=prod",
+                    "spring.datasource.url=jdbc:h2:mem:bookstore");
+            case "async" -> BenchmarkContext.start("logging.config=classpath:log4j2-prod.properties");
+            case "off" -> BenchmarkContext.start("logging.level.com.adobe.bookstore=OFF");
+            default -> throw new IllegalArgumentException("Unknown logging mode " + logging);
+        };
+        bookOrderResource = context.getBean(BookOrderResource.class);
+        bookIds = BenchmarkContext.seedBooks(context, BOOKS, Integer.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createOrder() {
+        String bookId = bookIds.get(Math.floorMod(nextBook.getAndIncrement(), BOOKS));
+        return bookOrderResource.createOrder(List.of(OrderItemDO.builder().bookId(bookId).quantity(1).build()), null);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.journal.OrderJournal;
+import com.adobe.bookstore.resource.BookOrderResource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency of accepting an order through {@link BookOrderResource} from concurrent clients, with the order stored in
+ * the database before replying ({@code journal=false}) or only appended to the order journal and stored in the
+ * background ({@code journal=true}). The percentiles of the sample time are the ones to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class OrderAcceptBenchmark {
+
+    private static final int BOOKS = 1000;
+    private static final Path JOURNAL_DIR = Path.of("target", "benchmark-journal", "accept");
+
+    @Param({"false", "true"})
+    private boolean journal;
+
+    private ConfigurableApplicationContext context;
+    private BookOrderResource bookOrderResource;
+    private List<String> bookIds;
+    private final AtomicInteger nextBook = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        OrderJournal.deleteAll(JOURNAL_DIR);
+        context = BenchmarkContext.start("bookstore.orders.journal.enabled=" + journal,
+                "bookstore.orders.journal.dir=" + JOURNAL_DIR);
+        bookOrderResource = context.getBean(BookOrderResource.class);
+        bookIds = BenchmarkContext.seedBooks(context, BOOKS, Integer.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createOrder() {
+        String bookId = bookIds.get(Math.floorMod(nextBook.getAndIncrement(), BOOKS));
+        return bookOrderResource.createOrder(List.of(OrderItemDO.builder().bookId(bookId).quantity(1).build()), null);
+    }
+
+}
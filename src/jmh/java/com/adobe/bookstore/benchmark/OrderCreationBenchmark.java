@@ -0,0 +1,48 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.service.IBookOrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of persisting an order, by number of lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderCreationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private IBookOrderService bookOrderService;
+    private List<OrderItemDO> order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookOrderService = context.getBean(IBookOrderService.class);
+        order = BenchmarkContext.seedBooks(context, cartSize, 10).stream()
+                .map(bookId -> OrderItemDO.builder().bookId(bookId).quantity(1).build())
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String createOrder() {
+        return bookOrderService.createOrder(order);
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading and writing the JSON body of {@code POST /orders/create}, by number of lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderJsonBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int cartSize;
+
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private List<OrderItemDO> order;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        reader = objectMapper.readerFor(new TypeReference<List<OrderItemDO>>() {});
+        writer = objectMapper.writerFor(new TypeReference<List<OrderItemDO>>() {});
+
+        order = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            order.add(OrderItemDO.builder().bookId(UUID.randomUUID().toString()).quantity(i % 5 + 1).build());
+        }
+        json = writer.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public List<OrderItemDO> deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(order);
+    }
+
+}
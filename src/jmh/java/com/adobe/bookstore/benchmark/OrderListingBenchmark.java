@@ -0,0 +1,91 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.model.BookOrderItem;
+import com.adobe.bookstore.projection.OrderSummaryProjection;
+import com.adobe.bookstore.repository.BookOrderRepository;
+import com.adobe.bookstore.service.IBookOrderService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of listing every order by size of the order table, building the map that {@code GET /orders/} returns and
+ * streaming the orders from the database, against reading the units sold from the order projection and rebuilding
+ * it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderListingBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 4;
+
+    @Param({"1000", "10000", "100000"})
+    private int orderTableSize;
+
+    private ConfigurableApplicationContext context;
+    private IBookOrderService bookOrderService;
+    private OrderSummaryProjection orderSummaryProjection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookOrderService = context.getBean(IBookOrderService.class);
+
+        orderSummaryProjection = context.getBean(OrderSummaryProjection.class);
+
+        context.getBean(BookOrderRepository.class).persistAll(createRows());
+        orderSummaryProjection.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getOrders(Blackhole blackhole) {
+        bookOrderService.getOrders().forEach((orderId, items) -> blackhole.consume(items));
+    }
+
+    @Benchmark
+    public void streamOrders(Blackhole blackhole) {
+        bookOrderService.streamOrders((orderId, items) -> blackhole.consume(items));
+    }
+
+    @Benchmark
+    public Map<String, Long> getUnitsSold() {
+        return bookOrderService.getUnitsSoldByBookId();
+    }
+
+    @Benchmark
+    public void rebuildProjection() {
+        orderSummaryProjection.rebuild();
+    }
+
+    private List<BookOrderItem> createRows() {
+        List<BookOrderItem> rows = new ArrayList<>(orderTableSize);
+        String orderId = null;
+        for (int i = 0; i < orderTableSize; i++) {
+            if (i % ITEMS_PER_ORDER == 0) {
+                orderId = UUID.randomUUID().toString();
+            }
+            rows.add(BookOrderItem.builder()
+                    .orderId(orderId)
+                    .bookId(UUID.randomUUID().toString())
+                    .quantity(1)
+                    .build());
+        }
+        return rows;
+    }
+
+}
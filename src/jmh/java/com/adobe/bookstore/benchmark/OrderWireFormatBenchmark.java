@@ -0,0 +1,60 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.utils.BinaryOrders;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing the body of {@code POST /orders/create} in JSON and in the {@link BinaryOrders} format, by number
+ * of lines. The size of each body is printed on setup, as the bytes on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderWireFormatBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int cartSize;
+
+    @Param({"json", "binary"})
+    private String format;
+
+    private ObjectReader reader;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        reader = objectMapper.readerFor(new TypeReference<List<OrderItemDO>>() {});
+
+        List<OrderItemDO> order = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            order.add(OrderItemDO.builder().bookId(UUID.randomUUID().toString()).quantity(i % 5 + 1).build());
+        }
+        body = switch (format) {
+            case "json" -> objectMapper.writeValueAsBytes(order);
+            case "binary" -> BinaryOrders.writeOrder(order);
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        System.out.println("Bytes on the wire for " + cartSize + " lines in " + format + ": " + body.length);
+    }
+
+    @Benchmark
+    public List<OrderItemDO> parse() throws IOException {
+        return format.equals("json") ? reader.readValue(body) : BinaryOrders.readOrder(ByteBuffer.wrap(body));
+    }
+
+}
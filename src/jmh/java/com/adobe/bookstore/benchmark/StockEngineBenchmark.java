@@ -0,0 +1,73 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.impl.InMemoryBookStockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock checks and reservations of orders of three random books from a catalog of 10,000, with the JPA-backed
+ * stock service and with the {@code in-memory-stock} profile. Reservations of the in-memory engine wait for its
+ * change log to be forced to disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class StockEngineBenchmark {
+
+    private static final int BOOKS = 10_000;
+    private static final int LINES = 3;
+
+    @Param({"jpa", "in-memory"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+    private IBookStockService bookStockService;
+    private List<String> bookIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = engine.equals("in-memory")
+                ? BenchmarkContext.start("spring.profiles.active=" + InMemoryBookStockService.PROFILE,
+                        "bookstore.stock.in-memory.log-dir=target/stock-engine-benchmark")
+                : BenchmarkContext.start();
+        bookStockService = context.getBean(IBookStockService.class);
+        bookIds = BenchmarkContext.seedBooks(context, BOOKS, Integer.MAX_VALUE);
+        // The in-memory engine loads the books added after startup on first use
+        bookStockService.getStockByIds(bookIds);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderItemDO> check() {
+        return bookStockService.findItemsWithoutEnoughStock(randomOrder());
+    }
+
+    @Benchmark
+    public void reserve() {
+        bookStockService.reserveStock(randomOrder());
+    }
+
+    private List<OrderItemDO> randomOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        OrderItemDO[] order = new OrderItemDO[LINES];
+        for (int i = 0; i < LINES; i++) {
+            order[i] = OrderItemDO.builder().bookId(bookIds.get(random.nextInt(BOOKS))).quantity(1).build();
+        }
+        return List.of(order);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.impl.BookStockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (p99 included) of {@code GET /books_stock/{bookId}} lookups with and without the stock cache,
+ * with several threads polling the same catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class StockLookupBenchmark {
+
+    @Param({"1000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private IBookStockService cachedStockService;
+    private BookStockService uncachedStockService;
+    private List<String> bookIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("bookstore.stock.cache.time-to-live=1m");
+        cachedStockService = context.getBean(IBookStockService.class);
+        uncachedStockService = context.getBean(BookStockService.class);
+        bookIds = BenchmarkContext.seedBooks(context, catalogSize, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<BookStock> uncached() {
+        return uncachedStockService.getStockById(randomBookId());
+    }
+
+    @Benchmark
+    public Optional<BookStock> cached() {
+        return cachedStockService.getStockById(randomBookId());
+    }
+
+    private String randomBookId() {
+        return bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+    }
+
+}
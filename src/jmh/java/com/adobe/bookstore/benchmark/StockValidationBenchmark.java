@@ -0,0 +1,58 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.service.impl.BookStockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares validating an order with one lookup per line against the batched lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockValidationBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private BookStockService bookStockService;
+    private List<OrderItemDO> order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookStockService = context.getBean(BookStockService.class);
+        order = BenchmarkContext.seedBooks(context, cartSize, 10).stream()
+                .map(bookId -> OrderItemDO.builder().bookId(bookId).quantity(1).build())
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean perLine() {
+        return order.stream()
+                .allMatch(orderItem -> bookStockService.getStockById(orderItem.getBookId())
+                        .map(BookStock::getQuantity)
+                        .filter(quantityStock -> quantityStock >= orderItem.getQuantity())
+                        .isPresent());
+    }
+
+    @Benchmark
+    public boolean batched() {
+        return bookStockService.existsEnoughQuantityInStock(order);
+    }
+
+}
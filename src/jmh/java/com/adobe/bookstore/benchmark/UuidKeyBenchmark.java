@@ -0,0 +1,109 @@
+package com.adobe.bookstore.benchmark;
+
+import com.adobe.bookstore.utils.Log;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary key lookups on a copy of {@code book_stock} with its ID stored as {@code VARCHAR}, as it used to be, and
+ * as a native 16 byte {@code UUID}, as it is now, in an in-memory database as the application runs.
+ * <p>
+ * The setup also logs the size of that table and of a copy of {@code order_item}, whose primary key and book ID index
+ * are both made of IDs, with each key type. An in-memory database does not report a reliable size, so both are built
+ * again in H2 file databases in {@code target}, compacted, and measured on disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class UuidKeyBenchmark {
+
+    @Param({"VARCHAR(255)", "UUID"})
+    private String keyType;
+
+    @Param({"1000000"})
+    private int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private List<Object> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        Path directory = Files.createDirectories(Path.of("target", "uuid-key-benchmark"));
+        Log.info("Books with " + keyType + " keys: {} bytes, order lines: {} bytes.",
+                compactedSize(directory.resolve("stock"), this::createStock),
+                compactedSize(directory.resolve("order-items"), this::createOrderItems));
+
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:uuid-keys", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            createStock(statement);
+        }
+        ids = jdbcTemplate.queryForList("SELECT id FROM stock_keys", Object.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public Integer lookup() {
+        Object id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return jdbcTemplate.queryForObject("SELECT quantity FROM stock_keys WHERE id = ?", Integer.class, id);
+    }
+
+    private void createStock(Statement statement) throws SQLException {
+        statement.execute("CREATE TABLE stock_keys (id " + keyType + " PRIMARY KEY, name VARCHAR(255), " +
+                "quantity INT, version BIGINT)");
+        statement.execute("INSERT INTO stock_keys SELECT RANDOM_UUID(), 'Book ' || X, MOD(X, 100), 0 " +
+                "FROM SYSTEM_RANGE(1, " + rows + ")");
+    }
+
+    private void createOrderItems(Statement statement) throws SQLException {
+        statement.execute("CREATE TABLE order_item_keys (order_id " + keyType + ", book_id " + keyType + ", " +
+                "quantity INT, PRIMARY KEY (order_id, book_id))");
+        statement.execute("CREATE INDEX idx_order_item_keys_book_id ON order_item_keys (book_id)");
+        statement.execute("INSERT INTO order_item_keys SELECT RANDOM_UUID(), RANDOM_UUID(), 1 " +
+                "FROM SYSTEM_RANGE(1, " + rows + ")");
+    }
+
+    /**
+     * Creates a file database with the given tables, compacts it and deletes it.
+     *
+     * @return the size of the compacted file.
+     */
+    private long compactedSize(Path database, TableCreator tableCreator) throws IOException, SQLException {
+        Path file = Path.of(database + ".mv.db");
+        Files.deleteIfExists(file);
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:" + database.toAbsolutePath(), "sa", "");
+             Statement statement = connection.createStatement()) {
+            tableCreator.create(statement);
+            statement.execute("SHUTDOWN COMPACT");
+        }
+        long size = Files.size(file);
+        Files.delete(file);
+        return size;
+    }
+
+    private interface TableCreator {
+        void create(Statement statement) throws SQLException;
+    }
+
+}
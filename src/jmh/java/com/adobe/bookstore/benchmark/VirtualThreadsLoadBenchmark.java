@@ -0,0 +1,60 @@
+package com.adobe.bookstore.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many concurrent clients reading orders over HTTP while every database connection takes {@code dbLatencyMs}, served
+ * by a small Tomcat pool of platform threads or by virtual threads. The virtual threads mode needs Java 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Threads(64)
+@Fork(1)
+public class VirtualThreadsLoadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"20"})
+    private long dbLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.builder()
+                .web(WebApplicationType.SERVLET)
+                .initializers(BenchmarkContext.databaseLatency(dbLatencyMs))
+                .run(BenchmarkContext.toArgs("bookstore.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=16", "server.tomcat.accept-count=1000"));
+        int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+
+        httpClient = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/orders/?limit=10")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getOrdersPage() throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+}
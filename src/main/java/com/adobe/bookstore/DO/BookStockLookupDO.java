@@ -0,0 +1,16 @@
+package com.adobe.bookstore.DO;
+
+import com.adobe.bookstore.model.BookStock;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BookStockLookupDO {
+    /** Stock of the books found, in the order they were requested. */
+    private List<BookStock> books;
+    /** Requested IDs with no book. */
+    private List<String> missingIds;
+}
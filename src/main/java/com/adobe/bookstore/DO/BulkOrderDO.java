@@ -0,0 +1,16 @@
+package com.adobe.bookstore.DO;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Data
+@Builder
+@Jacksonized
+public class BulkOrderDO {
+    /** Identifier of the order on the caller side, returned with its result. */
+    private String reference;
+    private List<OrderItemDO> items;
+}
@@ -0,0 +1,15 @@
+package com.adobe.bookstore.DO;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkOrderResultDO {
+    private String reference;
+    private boolean accepted;
+    /** ID of the created order, only when it has been accepted. */
+    private String orderId;
+    /** Why the order has been rejected, only when it has not been accepted. */
+    private String reason;
+}
@@ -0,0 +1,17 @@
+package com.adobe.bookstore.DO;
+
+import com.adobe.bookstore.model.OrderStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+public class OrderDO {
+    private String orderId;
+    private Instant createdAt;
+    private OrderStatus status;
+    private List<OrderItemDO> items;
+}
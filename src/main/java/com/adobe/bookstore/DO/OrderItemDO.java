@@ -2,9 +2,11 @@ package com.adobe.bookstore.DO;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 @Data
 @Builder
+@Jacksonized
 public class OrderItemDO {
     private String bookId;
     private Integer quantity;
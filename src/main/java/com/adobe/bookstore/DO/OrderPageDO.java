@@ -0,0 +1,18 @@
+package com.adobe.bookstore.DO;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class OrderPageDO {
+    private Map<String, List<OrderItemDO>> orders;
+    /**
+     * Value to pass as {@code after} to read the next page, or {@code null} on the last page: the last order ID of
+     * the page, prefixed with {@code archived-} once the page has reached the archived orders.
+     */
+    private String nextCursor;
+}
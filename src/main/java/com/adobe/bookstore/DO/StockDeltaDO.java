@@ -0,0 +1,15 @@
+package com.adobe.bookstore.DO;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+@Data
+@Builder
+@Jacksonized
+public class StockDeltaDO {
+    private String bookId;
+    private Integer quantity;
+    /** Version of the stock this quantity belongs to. A delta with a lower version than one already seen is stale. */
+    private Long version;
+}
@@ -0,0 +1,15 @@
+package com.adobe.bookstore.DO;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class StockImportResultDO {
+    /** Lines read, the header excluded. */
+    private long read;
+    /** Books inserted or whose stock changed. */
+    private long changed;
+    /** Lines skipped because they could not be parsed. */
+    private long invalid;
+}
@@ -0,0 +1,71 @@
+package com.adobe.bookstore.cache;
+
+import com.adobe.bookstore.event.StockChangedEvent;
+import com.adobe.bookstore.model.BookStock;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of the stock of each book. Entries are invalidated once a change to the book commits and,
+ * whatever happens, expire after the configured time, which is the maximum staleness a read can observe.
+ * Hits, misses and evictions are published as the {@code cache.*} metrics tagged with {@code cache=bookStock}.
+ */
+@Component
+public class BookStockCache {
+
+    private final Cache<String, BookStock> cache;
+
+    public BookStockCache(@Value("${bookstore.stock.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${bookstore.stock.cache.time-to-live:5s}") Duration timeToLive,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "bookStock");
+    }
+
+    /**
+     * Returns the cached stock of the book, loading it on a miss. Books that do not exist are not cached, so they
+     * become visible as soon as they are created.
+     */
+    public Optional<BookStock> get(String bookId, Function<String, Optional<BookStock>> loader) {
+        return Optional.ofNullable(cache.get(bookId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * Returns the cached stock of the books, loading all the missing ones with a single call to the loader. As in
+     * {@link #get(String, Function)}, books that do not exist are not cached.
+     */
+    public Map<String, BookStock> getAll(Collection<String> bookIds,
+                                         Function<Collection<String>, Map<String, BookStock>> loader) {
+        return cache.getAll(bookIds, missingIds -> loader.apply(List.copyOf(missingIds)));
+    }
+
+    public Optional<BookStock> getIfPresent(String bookId) {
+        return Optional.ofNullable(cache.getIfPresent(bookId));
+    }
+
+    public void invalidate(Iterable<String> bookIds) {
+        cache.invalidateAll(bookIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        invalidate(event.getBookIds());
+    }
+
+}
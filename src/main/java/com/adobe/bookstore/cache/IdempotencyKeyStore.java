@@ -0,0 +1,88 @@
+package com.adobe.bookstore.cache;
+
+import com.adobe.bookstore.exception.IdempotencyKeyReusedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process store of the responses given to requests sent with an {@code Idempotency-Key}. The first
+ * request with a key runs and the ones that arrive while it is running wait for its response instead of running
+ * again. Successful responses are kept until they expire, so later retries get them back without running again;
+ * unsuccessful ones are forgotten as soon as they are given, so a retry can succeed.
+ * <p>
+ * Keys are only deduplicated within this instance. Replays are counted by the
+ * {@code bookstore.idempotency.replays} metric.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private final Cache<String, Execution> cache;
+    private final Counter replays;
+
+    public IdempotencyKeyStore(@Value("${bookstore.idempotency.maximum-size:100000}") long maximumSize,
+                               @Value("${bookstore.idempotency.time-to-live:24h}") Duration timeToLive,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotencyKeys");
+        this.replays = Counter.builder("bookstore.idempotency.replays")
+                .description("Requests answered with the response given to a previous request with the same key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the request, unless another one with the same key has already run or is running, in which case its
+     * response is returned.
+     *
+     * @param request identifies what the key is used for: a key can only be used again for an equal request.
+     * @throws IdempotencyKeyReusedException if the key has been used for a different request.
+     */
+    public ResponseEntity<String> execute(String idempotencyKey, Object request,
+                                          Supplier<ResponseEntity<String>> execution) {
+        Execution current = new Execution(request);
+        Execution previous = cache.asMap().putIfAbsent(idempotencyKey, current);
+        if (previous != null) {
+            if (!previous.request.equals(request)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            replays.increment();
+            return previous.response.join();
+        }
+
+        try {
+            ResponseEntity<String> response = execution.get();
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                cache.asMap().remove(idempotencyKey, current);
+            }
+            current.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(idempotencyKey, current);
+            current.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static final class Execution {
+        private final Object request;
+        private final CompletableFuture<ResponseEntity<String>> response = new CompletableFuture<>();
+
+        private Execution(Object request) {
+            this.request = request;
+        }
+    }
+
+}
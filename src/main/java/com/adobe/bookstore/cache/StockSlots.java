@@ -0,0 +1,154 @@
+package com.adobe.bookstore.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock of every book kept in primitive arrays. Each book ID is interned once to a dense slot number, and the
+ * quantity and version of the slot are changed with compare-and-set, so reading or reserving stock neither allocates
+ * nor locks.
+ * <p>
+ * Slots live in fixed-size chunks that never move once allocated, so adding books only grows the array of chunks
+ * and never invalidates a concurrent compare-and-set.
+ */
+public class StockSlots {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final Map<String, Integer> slotByBookId = new ConcurrentHashMap<>();
+    private volatile Chunk[] chunks = new Chunk[16];
+    /** Guarded by {@code this}, as books are only added while loading or on a miss. */
+    private int size;
+
+    /**
+     * @return the slot of the book, or -1 if it has not been added.
+     */
+    public int slotOf(String bookId) {
+        Integer slot = slotByBookId.get(bookId);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Adds a book, unless it is already there.
+     *
+     * @return the slot of the book.
+     */
+    public synchronized int add(String bookId, String name, int quantity, long version) {
+        Integer existing = slotByBookId.get(bookId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int slot = size;
+        int chunkIndex = slot >>> CHUNK_BITS;
+        if (chunkIndex == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunkIndex] == null) {
+            chunks[chunkIndex] = new Chunk();
+        }
+
+        Chunk chunk = chunks[chunkIndex];
+        int offset = slot & CHUNK_MASK;
+        chunk.bookIds[offset] = bookId;
+        chunk.names[offset] = name;
+        chunk.quantities.set(offset, quantity);
+        chunk.versions.set(offset, version);
+
+        // Publishing the slot makes the writes above visible to whoever reads it from the map
+        slotByBookId.put(bookId, slot);
+        size++;
+        return slot;
+    }
+
+    public int getQuantity(int slot) {
+        return chunk(slot).quantities.get(slot & CHUNK_MASK);
+    }
+
+    /**
+     * The version is incremented after the quantity changes, so reading it before the quantity may pair an old
+     * version with a new quantity, but never a new version with an old quantity.
+     */
+    public long getVersion(int slot) {
+        return chunk(slot).versions.get(slot & CHUNK_MASK);
+    }
+
+    public String getBookId(int slot) {
+        return chunk(slot).bookIds[slot & CHUNK_MASK];
+    }
+
+    public String getName(int slot) {
+        return chunk(slot).names[slot & CHUNK_MASK];
+    }
+
+    /**
+     * Takes the units from the stock of the slot if there are enough of them.
+     *
+     * @return {@code false} if there were not enough units, leaving the stock untouched.
+     */
+    public boolean tryTake(int slot, int units) {
+        return take(slot, units) >= 0;
+    }
+
+    /**
+     * Takes the units from the stock of the slot if there are enough of them.
+     *
+     * @return the version given to the slot by this change, which no other change gets, or -1 if there were not
+     * enough units, leaving the stock untouched.
+     */
+    public long take(int slot, int units) {
+        Chunk chunk = chunk(slot);
+        int offset = slot & CHUNK_MASK;
+        for (;;) {
+            int quantity = chunk.quantities.get(offset);
+            if (quantity < units) {
+                return -1;
+            }
+            if (chunk.quantities.compareAndSet(offset, quantity, quantity - units)) {
+                return chunk.versions.incrementAndGet(offset);
+            }
+        }
+    }
+
+    /**
+     * @return the version given to the slot by this change, which no other change gets.
+     */
+    public long give(int slot, int units) {
+        Chunk chunk = chunk(slot);
+        int offset = slot & CHUNK_MASK;
+        chunk.quantities.addAndGet(offset, units);
+        return chunk.versions.incrementAndGet(offset);
+    }
+
+    /**
+     * Adds the units of a change made before a restart, keeping the highest version seen. Only meant for startup,
+     * before the stock is served.
+     */
+    public void restore(int slot, int units, long version) {
+        Chunk chunk = chunk(slot);
+        int offset = slot & CHUNK_MASK;
+        chunk.quantities.addAndGet(offset, units);
+        chunk.versions.accumulateAndGet(offset, version, Math::max);
+    }
+
+    public int size() {
+        return slotByBookId.size();
+    }
+
+    private Chunk chunk(int slot) {
+        return chunks[slot >>> CHUNK_BITS];
+    }
+
+    private static final class Chunk {
+        private final String[] bookIds = new String[CHUNK_SIZE];
+        private final String[] names = new String[CHUNK_SIZE];
+        private final AtomicIntegerArray quantities = new AtomicIntegerArray(CHUNK_SIZE);
+        private final AtomicLongArray versions = new AtomicLongArray(CHUNK_SIZE);
+    }
+
+}
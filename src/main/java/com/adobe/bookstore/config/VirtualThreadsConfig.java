@@ -0,0 +1,33 @@
+package com.adobe.bookstore.config;
+
+import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Serves every request, streamed responses included, on virtual threads when
+ * {@code bookstore.threads.virtual.enabled} is set. A request blocked on the database then parks its virtual
+ * thread instead of holding one of the limited Tomcat worker threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bookstore.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig implements WebMvcConfigurer {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        Log.info("Serving requests on virtual threads.");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("mvc-async-vt-")));
+    }
+
+}
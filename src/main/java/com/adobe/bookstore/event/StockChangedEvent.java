@@ -0,0 +1,16 @@
+package com.adobe.bookstore.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * Published every time the quantity of one or more books changes. Listeners interested in committed data should
+ * use {@code @TransactionalEventListener}, as the event is published before the transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class StockChangedEvent {
+    private final Collection<String> bookIds;
+}
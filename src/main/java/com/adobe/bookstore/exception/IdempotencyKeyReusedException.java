@@ -0,0 +1,9 @@
+package com.adobe.bookstore.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("The Idempotency-Key " + idempotencyKey + " has already been used for a different request.");
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.adobe.bookstore.exception;
+
+public class NotEnoughStockException extends RuntimeException {
+
+    private final String bookId;
+
+    public NotEnoughStockException(String bookId) {
+        super("Not enough stock for book with ID " + bookId + ".");
+        this.bookId = bookId;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.adobe.bookstore.exception;
+
+public class TooManySubscribersException extends RuntimeException {
+
+    public TooManySubscribersException(int maxSubscribers) {
+        super("There are already " + maxSubscribers + " subscribers to the stock events.");
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.adobe.bookstore.journal;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Order as written to the {@link OrderJournal}: everything needed to store it in {@code book_order} and
+ * {@code order_item} later.
+ */
+@Getter
+@AllArgsConstructor
+public class JournaledOrder {
+    private final String orderId;
+    private final Instant createdAt;
+    /** Already merged, one line per book. */
+    private final List<OrderItemDO> items;
+}
@@ -0,0 +1,376 @@
+package com.adobe.bookstore.journal;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of orders, written to memory-mapped segment files of a fixed size.
+ * <p>
+ * {@link #append(JournaledOrder)} copies the order into the mapped segment and waits until it is on disk. A single
+ * flusher thread forces the segment to disk over and over, each time covering every order appended since the
+ * previous force, so concurrent appends share the cost of one {@code fsync} (group commit) instead of paying one
+ * each. Once forced, the orders are handed to the listener in the order they were appended, along with the number
+ * of their segment.
+ * <p>
+ * Each record is its length, a CRC32 of its content and the content. Segments are created filled with zeros, so a
+ * zero length marks the end of the written records, and a record whose checksum does not match is the tail torn by
+ * a crash: it was never acknowledged, so {@link #read(Path, Consumer)} stops there. If a force fails, the records
+ * it covered are blanked and every append fails from then on.
+ */
+public class OrderJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final BiConsumer<Long, List<JournaledOrder>> onDurable;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Thread flusher;
+
+    // Guarded by lock
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int offset;
+    private int flushedOffset;
+    /** Bytes appended and bytes forced to disk since the journal was opened. */
+    private long writtenPosition;
+    private long durablePosition;
+    private List<JournaledOrder> unflushed = new ArrayList<>();
+    private boolean closed;
+    private RuntimeException failure;
+
+    /**
+     * Starts a new segment after the ones already in the directory, which are left untouched.
+     *
+     * @param onDurable called by the flusher thread with the number of the segment and the orders just forced to
+     *                  disk. It must not block.
+     */
+    public OrderJournal(Path directory, int segmentSize, BiConsumer<Long, List<JournaledOrder>> onDurable)
+            throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.onDurable = onDurable;
+
+        List<Long> existing = segmentNumbers(directory);
+        openSegment(existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1);
+
+        this.flusher = new Thread(this::flushLoop, "order-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Appends the order and returns once it is on disk.
+     *
+     * @throws IOException if the journal could not be written.
+     * @throws IllegalStateException if the journal is closed.
+     */
+    public void append(JournaledOrder order) throws IOException {
+        byte[] record = encode(order);
+        if (record.length > segmentSize) {
+            throw new IllegalArgumentException("The order " + order.getOrderId() + " does not fit in a journal " +
+                    "segment.");
+        }
+
+        lock.lock();
+        try {
+            checkWritable();
+            if (offset + record.length > segmentSize) {
+                // Everything in the current segment is forced before moving on, so the flusher only ever forces one
+                while (durablePosition < writtenPosition && failure == null) {
+                    flushed.awaitUninterruptibly();
+                }
+                checkWritable();
+                openSegment(segmentNumber + 1);
+            }
+
+            buffer.put(offset, record);
+            offset += record.length;
+            writtenPosition += record.length;
+            unflushed.add(order);
+            long position = writtenPosition;
+            written.signal();
+
+            while (durablePosition < position && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (durablePosition < position) {
+                throw new IOException("The order journal could not be forced to disk.", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments before the given one, except the one being written.
+     */
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        long current;
+        lock.lock();
+        try {
+            current = segmentNumber;
+        } finally {
+            lock.unlock();
+        }
+
+        for (long number : segmentNumbers(directory)) {
+            if (number < segment && number < current) {
+                Files.deleteIfExists(segmentPath(directory, number));
+            }
+        }
+    }
+
+    /**
+     * Forces the orders already appended to disk and stops the flusher. Later appends fail.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            written.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads every order of every segment in the directory, oldest first, stopping at the end of each segment or at
+     * its first torn record.
+     *
+     * @return the number of orders read.
+     */
+    public static long read(Path directory, Consumer<JournaledOrder> consumer) throws IOException {
+        long orders = 0;
+        for (long number : segmentNumbers(directory)) {
+            try (FileChannel segment = FileChannel.open(segmentPath(directory, number), StandardOpenOption.READ)) {
+                MappedByteBuffer records = segment.map(FileChannel.MapMode.READ_ONLY, 0, segment.size());
+                int position = 0;
+                while (position + HEADER_SIZE <= records.limit()) {
+                    int length = records.getInt(position);
+                    if (length <= 0 || position + HEADER_SIZE + length > records.limit()) {
+                        break;
+                    }
+                    byte[] content = new byte[length];
+                    records.get(position + HEADER_SIZE, content);
+                    if (records.getInt(position + 4) != checksum(content)) {
+                        break;
+                    }
+
+                    consumer.accept(decode(content));
+                    orders++;
+                    position += HEADER_SIZE + length;
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Deletes every segment in the directory, once all of them have been read.
+     */
+    public static void deleteAll(Path directory) throws IOException {
+        for (long number : segmentNumbers(directory)) {
+            Files.deleteIfExists(segmentPath(directory, number));
+        }
+    }
+
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (true) {
+                while (durablePosition == writtenPosition) {
+                    if (closed) {
+                        return;
+                    }
+                    written.awaitUninterruptibly();
+                }
+
+                MappedByteBuffer segment = buffer;
+                long number = segmentNumber;
+                int from = flushedOffset;
+                int to = offset;
+                long position = writtenPosition;
+                List<JournaledOrder> orders = unflushed;
+                unflushed = new ArrayList<>();
+
+                lock.unlock();
+                RuntimeException forceFailure = null;
+                try {
+                    force(segment, from, to - from);
+                } catch (RuntimeException e) {
+                    forceFailure = e;
+                } finally {
+                    lock.lock();
+                }
+
+                if (forceFailure != null) {
+                    discardUnflushed(segment, from, forceFailure);
+                    failure = forceFailure;
+                    flushed.signalAll();
+                    return;
+                }
+
+                flushedOffset = to;
+                durablePosition = position;
+                flushed.signalAll();
+                onDurable.accept(number, orders);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces a range of a segment to disk. Only overridden by tests, to make it fail.
+     */
+    void force(MappedByteBuffer segment, int from, int length) {
+        segment.force(from, length);
+    }
+
+    /**
+     * Blanks every record appended since the last successful force, whose appenders are told it failed. If the pages
+     * still reach the disk, they read as the end of the segment instead of as orders that could be replayed. Must be
+     * called holding the lock.
+     */
+    private void discardUnflushed(MappedByteBuffer segment, int from, RuntimeException cause) {
+        segment.put(from, new byte[offset - from]);
+        unflushed.clear();
+        try {
+            force(segment, from, offset - from);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The order journal is closed.");
+        }
+        if (failure != null) {
+            throw new IOException("The order journal could not be forced to disk.", failure);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        FileChannel next = FileChannel.open(segmentPath(directory, number), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = next.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        // The file and its size have to be on disk before any order is acknowledged from it
+        next.force(true);
+
+        if (channel != null) {
+            channel.close();
+        }
+        channel = next;
+        buffer = mapped;
+        segmentNumber = number;
+        offset = 0;
+        flushedOffset = 0;
+    }
+
+    private static byte[] encode(JournaledOrder order) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + order.getItems().size() * 48);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(0);
+        output.writeInt(0);
+        output.writeUTF(order.getOrderId());
+        output.writeLong(order.getCreatedAt().getEpochSecond());
+        output.writeInt(order.getCreatedAt().getNano());
+        output.writeInt(order.getItems().size());
+        for (OrderItemDO item : order.getItems()) {
+            output.writeUTF(item.getBookId());
+            output.writeInt(item.getQuantity());
+        }
+
+        byte[] record = bytes.toByteArray();
+        int length = record.length - HEADER_SIZE;
+        int checksum = checksum(record, HEADER_SIZE, length);
+        writeInt(record, 0, length);
+        writeInt(record, 4, checksum);
+        return record;
+    }
+
+    private static JournaledOrder decode(byte[] content) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+        String orderId = input.readUTF();
+        Instant createdAt = Instant.ofEpochSecond(input.readLong(), input.readInt());
+        int lines = input.readInt();
+        List<OrderItemDO> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(OrderItemDO.builder().bookId(input.readUTF()).quantity(input.readInt()).build());
+        }
+        return new JournaledOrder(orderId, createdAt, items);
+    }
+
+    private static int checksum(byte[] content) {
+        return checksum(content, 0, content.length);
+    }
+
+    private static int checksum(byte[] content, int from, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(content, from, length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeInt(byte[] bytes, int position, int value) {
+        bytes[position] = (byte) (value >>> 24);
+        bytes[position + 1] = (byte) (value >>> 16);
+        bytes[position + 2] = (byte) (value >>> 8);
+        bytes[position + 3] = (byte) value;
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%019d", number) + SEGMENT_SUFFIX);
+    }
+
+    private static List<Long> segmentNumbers(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+}
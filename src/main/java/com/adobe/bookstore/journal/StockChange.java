@@ -0,0 +1,17 @@
+package com.adobe.bookstore.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Change to the stock of a book as written to the {@link StockChangeLog}.
+ */
+@Getter
+@AllArgsConstructor
+public class StockChange {
+    private final String bookId;
+    /** Negative when the units were taken. */
+    private final int units;
+    /** Version the change gave the book, which no other change of the book has. */
+    private final long version;
+}
@@ -0,0 +1,274 @@
+package com.adobe.bookstore.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the changes made to the stock kept in memory, so the ones not written to {@code book_stock}
+ * yet survive a crash.
+ * <p>
+ * {@link #append(List)} writes the changes to the current segment file and {@link #awaitDurable(long)} returns once
+ * they are on disk. The first caller that finds its changes not forced yet forces the segment for every change
+ * appended before it, so concurrent callers share the cost of one {@code fsync} (group commit) instead of paying
+ * one each. If forcing fails, the segment is truncated back to the changes already on disk, so the ones that were
+ * never acknowledged cannot be replayed, and every later append fails.
+ * <p>
+ * Records have a fixed size: the book ID, the units added, the version the change gave the book and a CRC32 of the
+ * rest. A record whose checksum does not match is the tail torn by a crash: it was never acknowledged, so
+ * {@link #read(Path, Consumer)} stops there.
+ */
+public class StockChangeLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "stock-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int CONTENT_SIZE = 28;
+    private static final int RECORD_SIZE = CONTENT_SIZE + 4;
+
+    private final Path directory;
+    /** Held while forcing, and taken before {@code this} when both are needed. */
+    private final Object forceLock = new Object();
+
+    // Guarded by this
+    private long segmentNumber;
+    private FileChannel channel;
+    /** Bytes appended since the log was opened, and that position when the current segment started. */
+    private long writtenPosition;
+    private long segmentStart;
+    private IOException failure;
+    private boolean closed;
+
+    private volatile long durablePosition;
+
+    /**
+     * Starts a new segment after the ones already in the directory, which are left untouched.
+     */
+    public StockChangeLog(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        List<Long> existing = segmentNumbers(directory);
+        openSegment(existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1);
+    }
+
+    /**
+     * Writes the changes to the current segment, without waiting for them to be on disk.
+     *
+     * @return the position to pass to {@link #awaitDurable(long)}.
+     * @throws IOException if the log could not be written, or could not be forced before.
+     * @throws IllegalStateException if the log is closed.
+     */
+    public synchronized long append(List<StockChange> changes) throws IOException {
+        checkWritable();
+        ByteBuffer records = ByteBuffer.allocate(changes.size() * RECORD_SIZE);
+        for (StockChange change : changes) {
+            encode(records, change);
+        }
+        records.flip();
+
+        try {
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+        } catch (IOException e) {
+            // A partial record would hide every record written after it
+            failure = e;
+            throw e;
+        }
+        writtenPosition += records.limit();
+        return writtenPosition;
+    }
+
+    /**
+     * Returns once every change appended up to the position is on disk.
+     *
+     * @throws IOException if the log could not be forced, in which case those changes were removed from it.
+     */
+    public void awaitDurable(long position) throws IOException {
+        if (durablePosition >= position) {
+            return;
+        }
+
+        synchronized (forceLock) {
+            if (durablePosition >= position) {
+                return;
+            }
+
+            FileChannel current;
+            long target;
+            synchronized (this) {
+                checkWritable();
+                current = channel;
+                target = writtenPosition;
+            }
+
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    discardUnforced(e);
+                }
+                throw e;
+            }
+            durablePosition = target;
+        }
+    }
+
+    /**
+     * Forces the current segment and starts a new one, so the changes appended so far can be deleted together once
+     * they are stored somewhere else.
+     *
+     * @return the number of the segment just finished.
+     */
+    public long rotate() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                checkWritable();
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    discardUnforced(e);
+                    throw e;
+                }
+                durablePosition = writtenPosition;
+
+                long finished = segmentNumber;
+                openSegment(segmentNumber + 1);
+                return finished;
+            }
+        }
+    }
+
+    /**
+     * Deletes the segments up to the given one, except the one being written.
+     */
+    public void deleteSegmentsUpTo(long segment) throws IOException {
+        long current;
+        synchronized (this) {
+            current = segmentNumber;
+        }
+
+        for (long number : segmentNumbers(directory)) {
+            if (number <= segment && number < current) {
+                Files.deleteIfExists(segmentPath(directory, number));
+            }
+        }
+    }
+
+    /**
+     * Closes the current segment without forcing it: every change acknowledged is already on disk.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads every change of every segment in the directory, oldest first, stopping at the end of each segment or at
+     * its first torn record.
+     *
+     * @return the number of changes read.
+     */
+    public static long read(Path directory, Consumer<StockChange> consumer) throws IOException {
+        long changes = 0;
+        for (long number : segmentNumbers(directory)) {
+            try (FileChannel segment = FileChannel.open(segmentPath(directory, number), StandardOpenOption.READ)) {
+                MappedByteBuffer records = segment.map(FileChannel.MapMode.READ_ONLY, 0, segment.size());
+                for (int position = 0; position + RECORD_SIZE <= records.limit(); position += RECORD_SIZE) {
+                    if (records.getInt(position + CONTENT_SIZE) != checksum(records, position)) {
+                        break;
+                    }
+                    UUID bookId = new UUID(records.getLong(position), records.getLong(position + 8));
+                    consumer.accept(new StockChange(bookId.toString(), records.getInt(position + 16),
+                            records.getLong(position + 20)));
+                    changes++;
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Must be called holding both locks.
+     */
+    private void discardUnforced(IOException cause) {
+        failure = cause;
+        try {
+            channel.truncate(durablePosition - segmentStart);
+            channel.force(false);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The stock change log is closed.");
+        }
+        if (failure != null) {
+            throw new IOException("The stock change log could not be written.", failure);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        FileChannel next = FileChannel.open(segmentPath(directory, number), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        // The file has to be on disk before any change is acknowledged from it
+        next.force(true);
+
+        if (channel != null) {
+            channel.close();
+        }
+        channel = next;
+        segmentNumber = number;
+        segmentStart = writtenPosition;
+    }
+
+    private static void encode(ByteBuffer records, StockChange change) {
+        int start = records.position();
+        UUID bookId = UUID.fromString(change.getBookId());
+        records.putLong(bookId.getMostSignificantBits());
+        records.putLong(bookId.getLeastSignificantBits());
+        records.putInt(change.getUnits());
+        records.putLong(change.getVersion());
+        records.putInt(checksum(records, start));
+    }
+
+    private static int checksum(ByteBuffer records, int start) {
+        CRC32 crc = new CRC32();
+        crc.update(records.duplicate().limit(start + CONTENT_SIZE).position(start));
+        return (int) crc.getValue();
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%019d", number) + SEGMENT_SUFFIX);
+    }
+
+    private static List<Long> segmentNumbers(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+}
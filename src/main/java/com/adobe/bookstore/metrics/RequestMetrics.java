@@ -0,0 +1,102 @@
+package com.adobe.bookstore.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the hot paths of the API, recorded from the time taken with {@link System#nanoTime()} when the work
+ * started. Every meter is registered upfront, so recording does not look anything up in the registry. The
+ * asynchronous stock updates have their own timers in {@code StockUpdateService}.
+ * <p>
+ * Histograms and percentiles are configured with the {@code management.metrics.distribution.*} properties and
+ * published with the rest of the metrics in {@code /actuator/prometheus}.
+ */
+@Component
+public class RequestMetrics {
+
+    public static final String PHASE_STOCK_CHECK = "stock_check";
+    public static final String PHASE_ORDER_PERSIST = "order_persist";
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_CLIENT_ERROR = "client_error";
+    private static final String OUTCOME_SERVER_ERROR = "server_error";
+
+    private final Map<String, Timer> orderCreationTimers;
+    private final Map<String, Timer> orderPhaseTimers;
+    private final Timer orderListingTimer;
+    private final Map<String, Timer> stockReadTimers;
+
+    public RequestMetrics(MeterRegistry meterRegistry) {
+        this.orderCreationTimers = Map.of(
+                OUTCOME_SUCCESS, orderCreationTimer(meterRegistry, OUTCOME_SUCCESS),
+                OUTCOME_CLIENT_ERROR, orderCreationTimer(meterRegistry, OUTCOME_CLIENT_ERROR),
+                OUTCOME_SERVER_ERROR, orderCreationTimer(meterRegistry, OUTCOME_SERVER_ERROR));
+        this.orderPhaseTimers = Map.of(
+                PHASE_STOCK_CHECK, orderPhaseTimer(meterRegistry, PHASE_STOCK_CHECK),
+                PHASE_ORDER_PERSIST, orderPhaseTimer(meterRegistry, PHASE_ORDER_PERSIST));
+        this.orderListingTimer = Timer.builder("bookstore.orders.list")
+                .description("Time to answer the listing of every order, 304 answers included")
+                .register(meterRegistry);
+        this.stockReadTimers = Map.of(
+                OUTCOME_SUCCESS, stockReadTimer(meterRegistry, OUTCOME_SUCCESS),
+                OUTCOME_CLIENT_ERROR, stockReadTimer(meterRegistry, OUTCOME_CLIENT_ERROR),
+                OUTCOME_SERVER_ERROR, stockReadTimer(meterRegistry, OUTCOME_SERVER_ERROR));
+    }
+
+    public void recordOrderCreation(long startNanos, HttpStatusCode status) {
+        record(orderCreationTimers.get(outcome(status)), startNanos);
+    }
+
+    /**
+     * @param phase one of the {@code PHASE_*} constants.
+     */
+    public void recordOrderPhase(String phase, long startNanos) {
+        record(orderPhaseTimers.get(phase), startNanos);
+    }
+
+    public void recordOrderListing(long startNanos) {
+        record(orderListingTimer, startNanos);
+    }
+
+    public void recordStockRead(long startNanos, HttpStatusCode status) {
+        record(stockReadTimers.get(outcome(status)), startNanos);
+    }
+
+    private void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String outcome(HttpStatusCode status) {
+        if (status.is5xxServerError()) {
+            return OUTCOME_SERVER_ERROR;
+        }
+        return status.is4xxClientError() ? OUTCOME_CLIENT_ERROR : OUTCOME_SUCCESS;
+    }
+
+    private Timer orderCreationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("bookstore.orders.create")
+                .description("Time to create an order, from the request to the response")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer orderPhaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("bookstore.orders.create.phase")
+                .description("Time spent in each phase of the creation of an order")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    private Timer stockReadTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("bookstore.stock.get")
+                .description("Time to answer the stock of a book, 304 and 404 answers included")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+}
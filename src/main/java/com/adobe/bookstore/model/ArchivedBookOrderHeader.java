@@ -0,0 +1,40 @@
+package com.adobe.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * {@link BookOrderHeader} moved out of {@code book_order} once it is older than
+ * {@code bookstore.orders.archive.max-age}.
+ */
+@Entity
+@Table(name = "book_order_archive")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedBookOrderHeader {
+
+    @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "id", nullable = false)
+    private String id;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+}
@@ -0,0 +1,38 @@
+package com.adobe.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * {@link BookOrderItem} of an {@link ArchivedBookOrderHeader}, with the same key and the same index on the order ID.
+ */
+@Entity
+@Table(name = "order_item_archive",
+        indexes = {@Index(name = "idx_order_item_archive_order_id", columnList = "order_id")})
+@IdClass(BookOrderItemId.class)
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedBookOrderItem {
+
+    @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "order_id", nullable = false)
+    private String orderId;
+
+    @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "book_id", nullable = false)
+    private String bookId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+}
@@ -0,0 +1,36 @@
+package com.adobe.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * One row per order, the lines being the {@link BookOrderItem} rows with the same order ID.
+ */
+@Entity
+@Table(name = "book_order", indexes = {@Index(name = "idx_book_order_created_at", columnList = "created_at")})
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookOrderHeader {
+
+    @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "id", nullable = false)
+    private String id;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OrderStatus status;
+
+}
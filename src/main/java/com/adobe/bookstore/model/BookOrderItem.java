@@ -3,10 +3,17 @@ package com.adobe.bookstore.model;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
-@Table(name = "order_item", uniqueConstraints = {@UniqueConstraint(columnNames = {"order_id", "book_id"})})
+@Table(name = "order_item", uniqueConstraints = {@UniqueConstraint(columnNames = {"order_id", "book_id"})},
+        indexes = {@Index(name = "idx_order_item_order_id", columnList = "order_id")})
 @JsonSerialize
+// Hibernate sorts the columns of the primary key by name, so it starts with book_id and serves the lookups by book.
+// H2 backs the unique constraint with that same index, as it has the same columns, so the lookups by order need
+// idx_order_item_order_id
 @IdClass(BookOrderItemId.class)
 @Getter
 @Setter
@@ -16,10 +23,14 @@ import lombok.*;
 public class BookOrderItem {
 
     @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     @Column(name = "order_id", nullable = false)
     private String orderId;
 
     @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     @Column(name = "book_id", nullable = false)
     private String bookId;
 
@@ -1,7 +1,14 @@
 package com.adobe.bookstore.model;
 
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
 import java.io.Serializable;
 
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
 public class BookOrderItemId implements Serializable {
     private String orderId;
     private String bookId;
@@ -1,12 +1,18 @@
 package com.adobe.bookstore.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "book_stock")
@@ -19,6 +25,8 @@ import lombok.*;
 public class BookStock {
 
     @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     @Column(name = "id", nullable = false)
     private String id;
 
@@ -28,4 +36,14 @@ public class BookStock {
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
+    /**
+     * Incremented on every change to the row, bulk updates included. Exposed through the {@code ETag} header instead
+     * of the body. The column defaults to 0 so rows can be inserted without it.
+     */
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
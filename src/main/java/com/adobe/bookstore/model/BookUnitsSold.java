@@ -0,0 +1,34 @@
+package com.adobe.bookstore.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Units sold of a book, archived orders included. Written through plain JDBC by
+ * {@link com.adobe.bookstore.repository.OrderSummaryRepository}; the entity only declares the table.
+ */
+@Entity
+@Table(name = "book_units_sold")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookUnitsSold {
+
+    @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "book_id", nullable = false)
+    private String bookId;
+
+    @Column(name = "units", nullable = false)
+    private Long units;
+
+}
@@ -0,0 +1,42 @@
+package com.adobe.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Journaled order that kept failing to be stored, set aside so the orders journaled after it can be stored.
+ */
+@Entity
+@Table(name = "order_dead_letter")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderDeadLetter {
+
+    @Id
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "order_id", nullable = false)
+    private String orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /** Lines of the order as a JSON array, as they were journaled. */
+    @Column(name = "items", nullable = false, length = 1000000)
+    private String items;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "failed_at", nullable = false)
+    private Instant failedAt;
+
+}
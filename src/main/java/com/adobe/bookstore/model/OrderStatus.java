@@ -0,0 +1,6 @@
+package com.adobe.bookstore.model;
+
+public enum OrderStatus {
+    /** The stock has been reserved and the order stored. */
+    CREATED
+}
@@ -0,0 +1,45 @@
+package com.adobe.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Stock update that could not be applied asynchronously and is waiting to be replayed.
+ */
+@Entity
+@Table(name = "stock_update_retry")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockUpdateRetry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "book_id", nullable = false)
+    private String bookId;
+
+    /** Units to give back to the stock of the book. */
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+}
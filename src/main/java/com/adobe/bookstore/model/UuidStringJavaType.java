@@ -0,0 +1,35 @@
+package com.adobe.bookstore.model;
+
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.StringJavaType;
+
+import java.util.UUID;
+
+/**
+ * String IDs bound to native 16-byte {@code UUID} columns instead of 36-character strings, staying strings
+ * everywhere else. IDs read back are in the canonical lowercase form. Used with
+ * {@code @JdbcTypeCode(SqlTypes.UUID)}, as JPA converters are not applied to primary keys.
+ * <p>
+ * Strings that are not UUIDs cannot be stored or looked up, so IDs coming from outside have to be checked with
+ * {@link com.adobe.bookstore.utils.Uuids#isUuid(String)} first.
+ */
+public class UuidStringJavaType extends StringJavaType {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value != null && UUID.class.isAssignableFrom(type)) {
+            return (X) UUID.fromString(value);
+        }
+        return super.unwrap(value, type, options);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value instanceof UUID uuid) {
+            return uuid.toString();
+        }
+        return super.wrap(value, options);
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.adobe.bookstore.projection;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.repository.OrderSummaryRepository;
+import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.Uuids;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summary of the orders, kept in the database so that every instance sharing it sees the same values and none
+ * holds the orders in memory:
+ * <ul>
+ *     <li>The units sold of every book, archived orders included, in {@code book_units_sold}. They are added in the
+ *     transaction that stores each order, so reading them costs the number of books instead of regrouping the whole
+ *     {@code order_item} table.</li>
+ *     <li>A version made of the number of live and archived orders. Creating an order raises the first and archiving
+ *     raises the second, so it changes whenever the orders or the units sold do.</li>
+ * </ul>
+ * It does not hold the lines of the orders: the order listings read {@code order_item} and
+ * {@code order_item_archive} on every call.
+ * <p>
+ * {@link #rebuild()} computes the units sold again from the order items. It is only needed after the tables have
+ * been changed by hand, and can be triggered through the {@code orderprojection} actuator endpoint.
+ */
+@Component
+public class OrderSummaryProjection {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Instant lastRebuild;
+
+    public OrderSummaryProjection(OrderSummaryRepository orderSummaryRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Adds the units of an order. Must run inside the transaction that stores it, so they are committed or rolled
+     * back together.
+     *
+     * @param items one line per book.
+     */
+    public void apply(List<OrderItemDO> items) {
+        // Sorted, so concurrent orders lock the books in the same order
+        Map<String, Integer> quantitiesByBookId = new TreeMap<>();
+        items.forEach(item -> quantitiesByBookId.put(item.getBookId(), item.getQuantity()));
+        orderSummaryRepository.addUnitsSold(quantitiesByBookId);
+    }
+
+    /**
+     * Computes the units sold again from {@code order_item} and {@code order_item_archive} in a single transaction.
+     * Orders of books already sold wait for it to commit; the first order of a book stored while it runs can make it
+     * fail on a duplicate key, in which case it is rolled back and can just be run again.
+     */
+    public void rebuild() {
+        Integer books = transactionTemplate.execute(status -> orderSummaryRepository.recomputeUnitsSold());
+        lastRebuild = Instant.now();
+        Log.info("Order projection rebuilt with {} books sold.", books);
+    }
+
+    /**
+     * Units sold of every book that has been ordered at least once.
+     */
+    public Map<String, Long> getUnitsSoldByBookId() {
+        return orderSummaryRepository.findAllUnitsSold();
+    }
+
+    public long getUnitsSold(String bookId) {
+        return Uuids.isUuid(bookId) ? orderSummaryRepository.findUnitsSold(bookId) : 0;
+    }
+
+    /**
+     * Returns a value that changes every time the orders or the units sold do. Read it before reading the data, so
+     * a change in between can only make it older than the data, never newer.
+     */
+    public String getVersion() {
+        long[] orders = orderSummaryRepository.countOrders();
+        return orders[0] + "-" + orders[1];
+    }
+
+    public long getOrderCount() {
+        return orderSummaryRepository.countOrders()[0];
+    }
+
+    public Instant getLastRebuild() {
+        return lastRebuild;
+    }
+
+}
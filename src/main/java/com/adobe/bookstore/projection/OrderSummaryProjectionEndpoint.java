@@ -0,0 +1,39 @@
+package com.adobe.bookstore.projection;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/orderprojection} describes the order projection and {@code POST /actuator/orderprojection}
+ * rebuilds it from the database.
+ */
+@Component
+@Endpoint(id = "orderprojection")
+public class OrderSummaryProjectionEndpoint {
+
+    private final OrderSummaryProjection orderSummaryProjection;
+
+    public OrderSummaryProjectionEndpoint(OrderSummaryProjection orderSummaryProjection) {
+        this.orderSummaryProjection = orderSummaryProjection;
+    }
+
+    @ReadOperation
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("orders", orderSummaryProjection.getOrderCount());
+        description.put("lastRebuild", orderSummaryProjection.getLastRebuild());
+        return description;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        orderSummaryProjection.rebuild();
+        return describe();
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.adobe.bookstore.repository;
+
+import com.adobe.bookstore.model.ArchivedBookOrderHeader;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedBookOrderHeaderRepository extends JpaRepository<ArchivedBookOrderHeader, String> {
+}
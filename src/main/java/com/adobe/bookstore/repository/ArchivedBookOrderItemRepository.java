@@ -0,0 +1,31 @@
+package com.adobe.bookstore.repository;
+
+import com.adobe.bookstore.model.ArchivedBookOrderItem;
+import com.adobe.bookstore.model.BookOrderItemId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedBookOrderItemRepository extends JpaRepository<ArchivedBookOrderItem, BookOrderItemId> {
+
+    @Query("SELECT DISTINCT o.orderId FROM ArchivedBookOrderItem o ORDER BY o.orderId")
+    List<String> findOrderIds(Pageable pageable);
+
+    @Query("SELECT DISTINCT o.orderId FROM ArchivedBookOrderItem o WHERE o.orderId > :afterOrderId " +
+            "ORDER BY o.orderId")
+    List<String> findOrderIdsAfter(@Param("afterOrderId") String afterOrderId, Pageable pageable);
+
+    List<ArchivedBookOrderItem> findByOrderIdInOrderByOrderIdAscBookIdAsc(Collection<String> orderIds);
+
+    /**
+     * Seeks the {@code idx_order_item_archive_order_id} index.
+     */
+    List<ArchivedBookOrderItem> findByOrderIdOrderByBookIdAsc(String orderId);
+
+}
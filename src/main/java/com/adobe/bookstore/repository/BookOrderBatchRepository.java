@@ -0,0 +1,22 @@
+package com.adobe.bookstore.repository;
+
+import com.adobe.bookstore.model.BookOrderHeader;
+import com.adobe.bookstore.model.BookOrderItem;
+
+import java.util.List;
+
+public interface BookOrderBatchRepository {
+
+    /**
+     * Inserts new order items with {@code persist} semantics, so Hibernate does not select every row before
+     * inserting it (as {@code save} does for entities with an assigned composite key) and can group the inserts
+     * in JDBC batches.
+     */
+    void persistAll(List<BookOrderItem> bookOrderItems);
+
+    /**
+     * Inserts a new order and its items, with the same semantics as {@link #persistAll(List)}.
+     */
+    void persistOrder(BookOrderHeader bookOrder, List<BookOrderItem> bookOrderItems);
+
+}
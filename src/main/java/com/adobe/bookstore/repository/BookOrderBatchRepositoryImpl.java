@@ -0,0 +1,41 @@
+package com.adobe.bookstore.repository;
+
+import com.adobe.bookstore.model.BookOrderHeader;
+import com.adobe.bookstore.model.BookOrderItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class BookOrderBatchRepositoryImpl implements BookOrderBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public void persistAll(List<BookOrderItem> bookOrderItems) {
+        for (int i = 0; i < bookOrderItems.size(); i++) {
+            entityManager.persist(bookOrderItems.get(i));
+
+            // Keeps the persistence context small for very large orders
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public void persistOrder(BookOrderHeader bookOrder, List<BookOrderItem> bookOrderItems) {
+        entityManager.persist(bookOrder);
+        persistAll(bookOrderItems);
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.adobe.bookstore.repository;
+
+/**
+ * Read-only projection of an order item. Rows read through it are not attached to the persistence context, so
+ * streaming them keeps the heap usage constant.
+ */
+public interface BookOrderItemRow {
+
+    String getOrderId();
+
+    String getBookId();
+
+    Integer getQuantity();
+
+}
@@ -1,9 +1,55 @@
 package com.adobe.bookstore.repository;
 
 import com.adobe.bookstore.model.BookOrderItem;
+import com.adobe.bookstore.model.BookOrderItemId;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface BookOrderRepository extends JpaRepository<BookOrderItem, String> {
+public interface BookOrderRepository extends JpaRepository<BookOrderItem, BookOrderItemId>, BookOrderBatchRepository {
+
+    @Query("SELECT DISTINCT o.orderId FROM BookOrderItem o ORDER BY o.orderId")
+    List<String> findOrderIds(Pageable pageable);
+
+    @Query("SELECT DISTINCT o.orderId FROM BookOrderItem o WHERE o.orderId > :afterOrderId ORDER BY o.orderId")
+    List<String> findOrderIdsAfter(@Param("afterOrderId") String afterOrderId, Pageable pageable);
+
+    List<BookOrderItem> findByOrderIdInOrderByOrderIdAscBookIdAsc(Collection<String> orderIds);
+
+    /**
+     * Seeks the {@code idx_order_item_order_id} index.
+     */
+    List<BookOrderItem> findByOrderIdOrderByBookIdAsc(String orderId);
+
+    /**
+     * Seeks the primary key, which starts with {@code book_id}.
+     */
+    List<BookOrderItem> findByBookId(String bookId);
+
+    /**
+     * Streams the items of every order not archived yet sorted by order ID, followed by the items of every archived
+     * order sorted by order ID, so the items of the same order are consecutive. Being a single statement, an order
+     * archived while it runs is read either as a recent order or as an archived one, never both or neither. IDs are
+     * cast to text, as native queries do not go through the entity mappings. Must be consumed inside a transaction
+     * and closed afterwards.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(nativeQuery = true, value = "SELECT 0 AS archived, CAST(order_id AS VARCHAR) AS orderId, " +
+            "CAST(book_id AS VARCHAR) AS bookId, quantity FROM order_item " +
+            "UNION ALL SELECT 1, CAST(order_id AS VARCHAR), CAST(book_id AS VARCHAR), quantity " +
+            "FROM order_item_archive ORDER BY 1, 2, 3")
+    Stream<BookOrderItemRow> streamAllWithArchived();
+
 }
@@ -2,8 +2,42 @@ package com.adobe.bookstore.repository;
 
 import com.adobe.bookstore.model.BookStock;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface BookStockRepository extends JpaRepository<BookStock, String> {
+
+    /**
+     * Decrements the stock of a book only if there are enough units left. The check and the write happen in the
+     * same statement, so concurrent orders can never take the quantity below zero.
+     *
+     * @return the number of updated rows: 1 if the units were reserved, 0 if the book does not exist or there is
+     * not enough stock.
+     */
+    @Modifying
+    @Query("UPDATE BookStock b SET b.quantity = b.quantity - :quantity, b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.quantity >= :quantity")
+    int decrementQuantity(@Param("id") String id, @Param("quantity") int quantity);
+
+    /**
+     * Reads the quantity of a book locking its row until the end of the transaction.
+     */
+    @Query(value = "SELECT quantity FROM book_stock WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Integer findQuantityForUpdate(@Param("id") String id);
+
+    @Modifying
+    @Query("UPDATE BookStock b SET b.quantity = b.quantity + :quantity, b.version = b.version + 1 WHERE b.id = :id")
+    int incrementQuantity(@Param("id") String id, @Param("quantity") int quantity);
+
+    /**
+     * Reads only the version of a book, which is enough to know whether a client already has its current stock.
+     */
+    @Query("SELECT b.version FROM BookStock b WHERE b.id = :id")
+    Optional<Long> findVersionById(@Param("id") String id);
+
 }
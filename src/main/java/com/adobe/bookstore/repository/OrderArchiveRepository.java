@@ -0,0 +1,60 @@
+package com.adobe.bookstore.repository;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves orders from {@code book_order} and {@code order_item} to their archive tables with set-based statements, so
+ * archiving a batch costs a handful of statements whatever its size.
+ */
+@Repository
+public class OrderArchiveRepository {
+
+    /** Seeks {@code idx_book_order_created_at}, oldest orders first. */
+    private static final String SELECT_CREATED_BEFORE = "SELECT id FROM book_order WHERE created_at < :cutoff " +
+            "ORDER BY created_at LIMIT :limit";
+
+    private static final String COPY_ITEMS = "INSERT INTO order_item_archive (order_id, book_id, quantity) " +
+            "SELECT order_id, book_id, quantity FROM order_item WHERE order_id IN (:orderIds)";
+
+    private static final String COPY_HEADERS = "INSERT INTO book_order_archive (id, created_at, status, archived_at) " +
+            "SELECT id, created_at, status, :archivedAt FROM book_order WHERE id IN (:orderIds)";
+
+    private static final String DELETE_ITEMS = "DELETE FROM order_item WHERE order_id IN (:orderIds)";
+
+    private static final String DELETE_HEADERS = "DELETE FROM book_order WHERE id IN (:orderIds)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OrderArchiveRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public List<String> findOrderIdsCreatedBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.queryForList(SELECT_CREATED_BEFORE,
+                Map.of("cutoff", Timestamp.from(cutoff), "limit", limit), String.class);
+    }
+
+    /**
+     * Copies the orders and their items to the archive tables and deletes them from the hot ones. Must run inside a
+     * transaction, so readers see every order either in one place or in the other.
+     *
+     * @return the number of orders archived.
+     */
+    public int moveToArchive(Collection<String> orderIds, Instant archivedAt) {
+        Map<String, Object> parameters = Map.of("orderIds", orderIds, "archivedAt", Timestamp.from(archivedAt));
+        jdbcTemplate.update(COPY_ITEMS, parameters);
+        int orders = jdbcTemplate.update(COPY_HEADERS, parameters);
+        jdbcTemplate.update(DELETE_ITEMS, parameters);
+        jdbcTemplate.update(DELETE_HEADERS, parameters);
+        return orders;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.adobe.bookstore.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads and writes of the order summary through plain JDBC: the units sold of every book in
+ * {@code book_units_sold}, and the number of orders in {@code book_order} and {@code book_order_archive}.
+ */
+@Repository
+public class OrderSummaryRepository {
+
+    private static final String ADD_UNITS = "UPDATE book_units_sold SET units = units + ? WHERE book_id = ?";
+
+    private static final String INSERT_UNITS = "INSERT INTO book_units_sold (book_id, units) VALUES (?, ?)";
+
+    private static final String SELECT_ALL_UNITS = "SELECT book_id, units FROM book_units_sold ORDER BY book_id";
+
+    private static final String SELECT_UNITS = "SELECT units FROM book_units_sold WHERE book_id = ?";
+
+    private static final String DELETE_ALL_UNITS = "DELETE FROM book_units_sold";
+
+    private static final String INSERT_UNITS_FROM_ORDERS = "INSERT INTO book_units_sold (book_id, units) " +
+            "SELECT book_id, SUM(quantity) FROM (SELECT book_id, quantity FROM order_item " +
+            "UNION ALL SELECT book_id, quantity FROM order_item_archive) GROUP BY book_id";
+
+    /** H2 answers both counts from the row count of the tables, without scanning them. */
+    private static final String COUNT_ORDERS = "SELECT (SELECT COUNT(*) FROM book_order), " +
+            "(SELECT COUNT(*) FROM book_order_archive)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderSummaryRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Adds the units of an order to the books in a single JDBC batch, inserting the books sold for the first time.
+     * Must run inside the transaction that stores the order. The books are locked in the order of the map, so pass
+     * them sorted to keep concurrent orders from deadlocking.
+     */
+    public void addUnitsSold(Map<String, Integer> quantitiesByBookId) {
+        List<Map.Entry<String, Integer>> lines = List.copyOf(quantitiesByBookId.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(ADD_UNITS, lines.stream()
+                .map(line -> new Object[]{line.getValue(), line.getKey()})
+                .toList());
+
+        for (int i = 0; i < lines.size(); i++) {
+            if (updated[i] == 0) {
+                insertUnitsSold(lines.get(i).getKey(), lines.get(i).getValue());
+            }
+        }
+    }
+
+    private void insertUnitsSold(String bookId, int units) {
+        try {
+            jdbcTemplate.update(INSERT_UNITS, bookId, units);
+        } catch (DuplicateKeyException e) {
+            // Another order sold the book for the first time meanwhile: H2 only rolls back the failed statement
+            jdbcTemplate.update(ADD_UNITS, units, bookId);
+        }
+    }
+
+    /**
+     * Units sold of every book that has been ordered at least once, sorted by book ID.
+     */
+    public Map<String, Long> findAllUnitsSold() {
+        Map<String, Long> unitsSold = new TreeMap<>();
+        jdbcTemplate.query(SELECT_ALL_UNITS, resultSet -> {
+            unitsSold.put(resultSet.getString(1), resultSet.getLong(2));
+        });
+        return unitsSold;
+    }
+
+    public long findUnitsSold(String bookId) {
+        List<Long> units = jdbcTemplate.queryForList(SELECT_UNITS, Long.class, bookId);
+        return units.isEmpty() ? 0 : units.get(0);
+    }
+
+    /**
+     * Computes the units sold of every book again from the live and archived order items. Must run inside a
+     * transaction.
+     *
+     * @return the number of books sold.
+     */
+    public int recomputeUnitsSold() {
+        jdbcTemplate.update(DELETE_ALL_UNITS);
+        return jdbcTemplate.update(INSERT_UNITS_FROM_ORDERS);
+    }
+
+    /**
+     * @return the number of live orders followed by the number of archived ones.
+     */
+    public long[] countOrders() {
+        return jdbcTemplate.queryForObject(COUNT_ORDERS, (resultSet, row) ->
+                new long[]{resultSet.getLong(1), resultSet.getLong(2)});
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.adobe.bookstore.repository;
+
+import com.adobe.bookstore.model.BookStock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk reads and writes of the whole {@code book_stock} table through plain JDBC, which neither loads the rows into
+ * the persistence context nor selects them before writing.
+ */
+@Repository
+public class StockSnapshotRepository {
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String SELECT_ALL = "SELECT id, name, quantity, version FROM book_stock ORDER BY id";
+
+    /** Rows whose name and quantity did not change are left untouched, so they keep their version. */
+    private static final String UPSERT = "MERGE INTO book_stock t USING (VALUES (CAST(? AS UUID), " +
+            "CAST(? AS VARCHAR), CAST(? AS INT))) s(id, name, quantity) ON t.id = s.id " +
+            "WHEN MATCHED AND (t.name <> s.name OR t.quantity <> s.quantity) THEN " +
+            "UPDATE SET name = s.name, quantity = s.quantity, version = t.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (id, name, quantity, version) VALUES (s.id, s.name, s.quantity, 0)";
+
+    private static final String UPDATE_CHANGED_QUANTITY = "UPDATE book_stock SET quantity = ?, version = version + 1 " +
+            "WHERE id = ? AND quantity <> ?";
+
+    private static final String WRITE_QUANTITY = "UPDATE book_stock SET quantity = ?, version = ? WHERE id = ?";
+
+    /** {@code CSVREAD} reads the file when the statement is prepared, so its name cannot be a parameter. */
+    private static final String INSERT_FROM_CSV = "INSERT INTO book_stock (id, name, quantity, version) " +
+            "DIRECT SELECT id, name, CAST(quantity AS INT), 0 FROM CSVREAD(%s, NULL, 'charset=UTF-8')";
+
+    /** As {@link #UPSERT}, only the rows that changed are written, and their version is bumped. */
+    private static final String MERGE_FROM_CSV = "MERGE INTO book_stock t USING (SELECT CAST(id AS UUID) id, name, " +
+            "CAST(quantity AS INT) quantity FROM CSVREAD(%s, NULL, 'charset=UTF-8')) s ON t.id = s.id " +
+            "WHEN MATCHED AND (t.name <> s.name OR t.quantity <> s.quantity) THEN " +
+            "UPDATE SET name = s.name, quantity = s.quantity, version = t.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (id, name, quantity, version) VALUES (s.id, s.name, s.quantity, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockSnapshotRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+    }
+
+    /**
+     * Reads every book ordered by ID, handing them one by one to the consumer while they are fetched.
+     */
+    public void streamAll(Consumer<BookStock> consumer) {
+        jdbcTemplate.query(SELECT_ALL, resultSet -> {
+            consumer.accept(BookStock.builder()
+                    .id(resultSet.getString(1))
+                    .name(resultSet.getString(2))
+                    .quantity(resultSet.getInt(3))
+                    .version(resultSet.getLong(4))
+                    .build());
+        });
+    }
+
+    /**
+     * Inserts the new books and updates the name and quantity of the existing ones in a single JDBC batch.
+     *
+     * @return the number of rows affected by each book: 0 if it was already up to date.
+     */
+    public int[] upsertAll(List<BookStock> books) {
+        return jdbcTemplate.batchUpdate(UPSERT, books.stream()
+                .map(book -> new Object[]{book.getId(), book.getName(), book.getQuantity()})
+                .toList());
+    }
+
+    /**
+     * Sets the quantity of the existing books in a single JDBC batch, only writing the ones that changed.
+     *
+     * @return the number of rows affected by each book: 0 if it does not exist or already had that quantity.
+     */
+    public int[] updateChangedQuantities(List<BookStock> books) {
+        return jdbcTemplate.batchUpdate(UPDATE_CHANGED_QUANTITY, books.stream()
+                .map(book -> new Object[]{book.getQuantity(), book.getId(), book.getQuantity()})
+                .toList());
+    }
+
+    /**
+     * Overwrites the quantity and the version of the books in a single JDBC batch, for stock kept somewhere else and
+     * written back later.
+     */
+    public void writeQuantities(List<BookStock> books) {
+        jdbcTemplate.batchUpdate(WRITE_QUANTITY, books.stream()
+                .map(book -> new Object[]{book.getQuantity(), book.getVersion(), book.getId()})
+                .toList());
+    }
+
+    /**
+     * Loads a CSV file with an {@code id,name,quantity} header in a single statement with H2's {@code CSVREAD}, the
+     * fastest way to fill the table.
+     *
+     * @param empty whether the table is empty, which allows a plain insert instead of merging with existing books.
+     * @return the number of rows inserted or updated. Books already up to date are left untouched and not counted.
+     */
+    public int loadCsvFile(String path, boolean empty) {
+        String fileName = "'" + path.replace("'", "''") + "'";
+        return jdbcTemplate.update((empty ? INSERT_FROM_CSV : MERGE_FROM_CSV).formatted(fileName));
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM book_stock LIMIT 1").isEmpty();
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.adobe.bookstore.repository;
+
+import com.adobe.bookstore.model.StockUpdateRetry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockUpdateRetryRepository extends JpaRepository<StockUpdateRetry, Long> {
+
+    List<StockUpdateRetry> findAllByOrderByIdAsc(Pageable pageable);
+
+}
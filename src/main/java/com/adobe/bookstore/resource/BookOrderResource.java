@@ -1,78 +1,314 @@
 package com.adobe.bookstore.resource;
 
+import com.adobe.bookstore.DO.BulkOrderDO;
 import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.cache.IdempotencyKeyStore;
+import com.adobe.bookstore.exception.IdempotencyKeyReusedException;
+import com.adobe.bookstore.exception.NotEnoughStockException;
+import com.adobe.bookstore.metrics.RequestMetrics;
 import com.adobe.bookstore.service.IBookOrderService;
 import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IBulkOrderService;
+import com.adobe.bookstore.service.IStockUpdateService;
+import com.adobe.bookstore.utils.BinaryOrders;
+import com.adobe.bookstore.utils.ETags;
 import com.adobe.bookstore.utils.Log;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/orders/")
 public class BookOrderResource {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BULK_SIZE = 10000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private IBookOrderService bookOrderService;
     private IBookStockService bookStockService;
+    private IStockUpdateService stockUpdateService;
+    private IBulkOrderService bulkOrderService;
+    private IdempotencyKeyStore idempotencyKeyStore;
+    private ObjectMapper objectMapper;
+    private RequestMetrics requestMetrics;
 
     @Autowired
-    public BookOrderResource(IBookOrderService bookOrderService, IBookStockService bookStockService) {
+    public BookOrderResource(IBookOrderService bookOrderService, IBookStockService bookStockService,
+                             IStockUpdateService stockUpdateService, IBulkOrderService bulkOrderService,
+                             IdempotencyKeyStore idempotencyKeyStore, ObjectMapper objectMapper,
+                             RequestMetrics requestMetrics) {
         this.bookOrderService = bookOrderService;
         this.bookStockService = bookStockService;
+        this.stockUpdateService = stockUpdateService;
+        this.bulkOrderService = bulkOrderService;
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.objectMapper = objectMapper;
+        this.requestMetrics = requestMetrics;
     }
 
+    /**
+     * Creates the order. When an {@code Idempotency-Key} header is sent, retries with the same key and order get the
+     * response of the first request instead of creating the order again.
+     */
     @PostMapping("create")
-    public ResponseEntity<String> createOrder(@RequestBody List<OrderItemDO> order) {
+    public ResponseEntity<String> createOrder(@RequestBody List<OrderItemDO> order,
+                                              @RequestHeader(value = "Idempotency-Key", required = false)
+                                              String idempotencyKey) {
+        long start = System.nanoTime();
+        ResponseEntity<String> response = doCreateOrder(order, idempotencyKey);
+        requestMetrics.recordOrderCreation(start, response.getStatusCode());
+        return response;
+    }
+
+    /**
+     * Same as {@link #createOrder(List, String)} for an order in the {@link BinaryOrders} format, read straight from
+     * the request bytes instead of going through Jackson.
+     */
+    @PostMapping(value = "create", consumes = BinaryOrders.MEDIA_TYPE)
+    public ResponseEntity<String> createBinaryOrder(@RequestBody byte[] body,
+                                                    @RequestHeader(value = "Idempotency-Key", required = false)
+                                                    String idempotencyKey) {
+        long start = System.nanoTime();
+        ResponseEntity<String> response;
+        try {
+            response = doCreateOrder(BinaryOrders.readOrder(ByteBuffer.wrap(body)), idempotencyKey);
+        } catch (IllegalArgumentException e) {
+            Log.info(e.getMessage());
+            response = ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The order has been rejected because " +
+                    "it was malformed.");
+        }
+        requestMetrics.recordOrderCreation(start, response.getStatusCode());
+        return response;
+    }
+
+    private ResponseEntity<String> doCreateOrder(List<OrderItemDO> order, String idempotencyKey) {
         if (order.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The order has been rejected because " +
                     "it was empty.");
         }
 
+        if (idempotencyKey == null) {
+            return placeOrder(order);
+        }
+
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The Idempotency-Key must have between 1 and " +
+                    MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+        }
+
         try {
-            if (!bookStockService.existsEnoughQuantityInStock(order)) {
-                Log.info("Not enough stock.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The order has been rejected because " +
-                        "at least one item does not have the required quantity available on stock.");
-            }
+            return idempotencyKeyStore.execute(idempotencyKey, new ArrayList<>(order), () -> placeOrder(order));
+        } catch (IdempotencyKeyReusedException e) {
+            Log.info(e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("The order has been rejected " +
+                    "because its Idempotency-Key has already been used for a different order.");
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred " +
+                    "creating the Order.");
+        }
+    }
+
+    private ResponseEntity<String> placeOrder(List<OrderItemDO> order) {
+        long stockCheckStart = System.nanoTime();
+        try {
+            bookStockService.reserveStock(order);
+        } catch (NotEnoughStockException e) {
+            Log.info("Not enough stock.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The order has been rejected because " +
+                    "at least one item does not have the required quantity available on stock.");
+        } catch (IllegalArgumentException e) {
+            Log.info(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The order has been rejected because " +
+                    "at least one item has no book ID or an invalid quantity.");
         } catch (Exception e) {
             Log.error(e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred " +
                     "checking if there was enough stock.");
+        } finally {
+            requestMetrics.recordOrderPhase(RequestMetrics.PHASE_STOCK_CHECK, stockCheckStart);
         }
 
         String orderId;
+        long persistStart = System.nanoTime();
         try {
             orderId = bookOrderService.createOrder(order);
             Log.info("Order created successfully.");
         } catch (Exception e) {
             Log.error(e.getMessage());
+            stockUpdateService.releaseStockAsync(order);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred " +
                     "creating the Order.");
+        } finally {
+            requestMetrics.recordOrderPhase(RequestMetrics.PHASE_ORDER_PERSIST, persistStart);
         }
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                bookStockService.updateStock(order);
-                Log.info("Stock updated successfully.");
-            } catch (Exception e) {
-                Log.error(e.getMessage());
-            }
-        });
-
         return ResponseEntity.ok("Order created successfully. Order ID: " + orderId);
     }
 
+    /**
+     * Creates many orders at once. Each order is accepted or rejected on its own, and the response has one result
+     * per order, in the same order as the request.
+     */
+    @PostMapping("bulk")
+    public ResponseEntity<?> createOrders(@RequestBody List<BulkOrderDO> orders) {
+        if (orders.isEmpty() || orders.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The bulk has been rejected because " +
+                    "it was empty or had empty orders.");
+        }
+
+        if (orders.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The bulk has been rejected because " +
+                    "it had more than " + MAX_BULK_SIZE + " orders.");
+        }
+
+        try {
+            return ResponseEntity.ok(bulkOrderService.createOrders(orders));
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred " +
+                    "creating the Orders.");
+        }
+    }
+
+    /**
+     * Returns every order with a version derived from the number of live and archived orders as {@code ETag},
+     * answering 304 without reading the orders when the client sends the current one in {@code If-None-Match}.
+     */
     @GetMapping("")
-    public ResponseEntity<?> getOrders() {
+    public ResponseEntity<?> getOrders(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                       String ifNoneMatch) {
+        long start = System.nanoTime();
         try {
-            return ResponseEntity.ok(bookOrderService.getOrders());
+            String eTag = ETags.of(bookOrderService.getOrdersVersion());
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(bookOrderService.getOrders());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        } finally {
+            requestMetrics.recordOrderListing(start);
         }
     }
 
+    /**
+     * Same as {@link #getOrders(String)} in the {@link BinaryOrders} format. Answers 406 if an order or book ID is
+     * not a UUID, as the format cannot carry it.
+     */
+    @GetMapping(value = "", produces = BinaryOrders.MEDIA_TYPE)
+    public ResponseEntity<?> getBinaryOrders(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                             String ifNoneMatch) {
+        long start = System.nanoTime();
+        try {
+            String eTag = ETags.of(bookOrderService.getOrdersVersion());
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .contentType(MediaType.parseMediaType(BinaryOrders.MEDIA_TYPE))
+                    .body(BinaryOrders.writeOrders(bookOrderService.getOrders()));
+        } catch (IllegalArgumentException e) {
+            Log.info(e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).contentType(MediaType.TEXT_PLAIN)
+                    .body("The orders cannot be written in " + BinaryOrders.MEDIA_TYPE + ".");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.TEXT_PLAIN)
+                    .body(e.getMessage());
+        } finally {
+            requestMetrics.recordOrderListing(start);
+        }
+    }
+
+    @GetMapping("sold")
+    public ResponseEntity<?> getUnitsSoldByBookId(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                  String ifNoneMatch) {
+        try {
+            String eTag = ETags.of(bookOrderService.getOrdersVersion());
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(bookOrderService.getUnitsSoldByBookId());
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("There was an error retrieving " +
+                    "the units sold.");
+        }
+    }
+
+    @GetMapping("{orderId}")
+    public ResponseEntity<?> getOrder(@PathVariable String orderId) {
+        try {
+            return bookOrderService.getOrder(orderId)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("There was an error retrieving " +
+                    "the order.");
+        }
+    }
+
+    @GetMapping(value = "", params = "limit")
+    public ResponseEntity<?> getOrdersPage(@RequestParam int limit,
+                                           @RequestParam(required = false, defaultValue = "") String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The limit must be between 1 and " +
+                    MAX_PAGE_SIZE + ".");
+        }
+
+        try {
+            return ResponseEntity.ok(bookOrderService.getOrdersPage(after, limit));
+        } catch (IllegalArgumentException e) {
+            Log.info(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("There was an error retrieving " +
+                    "the orders.");
+        }
+    }
+
+    /**
+     * Same JSON object as {@link #getOrders()}, but written while the orders are read from the database instead of
+     * building the whole map in memory first.
+     */
+    @GetMapping(value = "", params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamOrders() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                bookOrderService.streamOrders((orderId, orderItems) -> {
+                    try {
+                        generator.writeFieldName(orderId);
+                        generator.writeObject(orderItems);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndObject();
+            } catch (UncheckedIOException e) {
+                Log.error("There was an error streaming the orders.");
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
 }
@@ -1,30 +1,175 @@
 package com.adobe.bookstore.resource;
 
+import com.adobe.bookstore.DO.BookStockLookupDO;
+import com.adobe.bookstore.DO.StockImportResultDO;
+import com.adobe.bookstore.exception.TooManySubscribersException;
+import com.adobe.bookstore.metrics.RequestMetrics;
 import com.adobe.bookstore.model.BookStock;
 import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IStockEventService;
+import com.adobe.bookstore.service.IStockSnapshotService;
+import com.adobe.bookstore.utils.ETags;
+import com.adobe.bookstore.utils.Log;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.*;
 
 @RestController
 @RequestMapping("/books_stock/")
 public class BookStockResource {
 
+    private static final int MAX_IDS = 1000;
+    private static final int RETRY_AFTER_SECONDS = 5;
+    private static final String TEXT_CSV = "text/csv";
+
     private IBookStockService bookStockService;
+    private IStockEventService stockEventService;
+    private IStockSnapshotService stockSnapshotService;
+    private RequestMetrics requestMetrics;
 
     @Autowired
-    public BookStockResource(IBookStockService bookStockService) {
+    public BookStockResource(IBookStockService bookStockService, IStockEventService stockEventService,
+                             IStockSnapshotService stockSnapshotService, RequestMetrics requestMetrics) {
         this.bookStockService = bookStockService;
+        this.stockEventService = stockEventService;
+        this.stockSnapshotService = stockSnapshotService;
+        this.requestMetrics = requestMetrics;
     }
 
+    /**
+     * Returns the stock with its version as {@code ETag}. When the client sends the current version in
+     * {@code If-None-Match}, the answer is a 304 checked against the version alone.
+     */
     @GetMapping("{bookId}")
-    public ResponseEntity<BookStock> getStockById(@PathVariable String bookId) {
+    public ResponseEntity<BookStock> getStockById(@PathVariable String bookId,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                  String ifNoneMatch) {
+        long start = System.nanoTime();
+        ResponseEntity<BookStock> response = doGetStockById(bookId, ifNoneMatch);
+        requestMetrics.recordStockRead(start, response.getStatusCode());
+        return response;
+    }
+
+    private ResponseEntity<BookStock> doGetStockById(String bookId, String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = bookStockService.getStockVersion(bookId).map(ETags::of);
+            if (eTag.isPresent() && ETags.matches(ifNoneMatch, eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
+
         return bookStockService.getStockById(bookId)
-                .map(bookStock -> ResponseEntity.ok(bookStock))
+                .map(bookStock -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (bookStock.getVersion() != null) {
+                        response.eTag(ETags.of(bookStock.getVersion()));
+                    }
+                    return response.body(bookStock);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Returns the stock of several books at once, as in {@code GET /books_stock/?ids=id1,id2}, reporting the IDs with
+     * no book instead of failing.
+     */
+    @GetMapping(value = "", params = "ids")
+    public ResponseEntity<?> getStockByIds(@RequestParam List<String> ids) {
+        Set<String> bookIds = new LinkedHashSet<>(ids);
+        bookIds.remove("");
+        if (bookIds.isEmpty() || bookIds.size() > MAX_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Between 1 and " + MAX_IDS + " IDs must be " +
+                    "requested.");
+        }
+
+        try {
+            Map<String, BookStock> stockByBookId = bookStockService.getStockByIds(bookIds);
+
+            List<BookStock> books = new ArrayList<>(stockByBookId.size());
+            List<String> missingIds = new ArrayList<>();
+            for (String bookId : bookIds) {
+                BookStock bookStock = stockByBookId.get(bookId);
+                if (bookStock != null) {
+                    books.add(bookStock);
+                } else {
+                    missingIds.add(bookId);
+                }
+            }
+
+            return ResponseEntity.ok(BookStockLookupDO.builder()
+                    .books(books)
+                    .missingIds(missingIds)
+                    .build());
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("There was an error retrieving " +
+                    "the stock.");
+        }
+    }
+
+    /**
+     * Streams the stock changes as Server-Sent Events, as in {@code GET /books_stock/events?ids=id1,id2}. Without
+     * IDs, the changes of every book are sent. The response cannot carry an error message once the stream is
+     * negotiated, so refusals are answered with the status alone.
+     */
+    @GetMapping(value = "events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@RequestParam(required = false) List<String> ids) {
+        Set<String> bookIds = ids == null ? new LinkedHashSet<>() : new LinkedHashSet<>(ids);
+        bookIds.remove("");
+        if (bookIds.size() > MAX_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        try {
+            return ResponseEntity.ok(stockEventService.subscribe(bookIds));
+        } catch (TooManySubscribersException e) {
+            Log.info(e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                    .build();
+        }
+    }
+
+    /**
+     * Downloads the stock of every book as CSV, written while it is read from the database.
+     */
+    @GetMapping(value = "snapshot", produces = TEXT_CSV)
+    public ResponseEntity<StreamingResponseBody> exportStock() {
+        StreamingResponseBody body = outputStream -> stockSnapshotService.exportStock(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"book_stock.csv\"")
+                .body(body);
+    }
+
+    /**
+     * Applies a CSV in the format of {@link #exportStock()}. With {@code delta=true} only the quantities of the
+     * existing books that changed are written.
+     */
+    @PostMapping(value = "snapshot", consumes = TEXT_CSV)
+    public ResponseEntity<?> importStock(InputStream body, @RequestParam(defaultValue = "false") boolean delta) {
+        try {
+            StockImportResultDO result = stockSnapshotService.importStock(body, delta);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Log.info(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            Log.info(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("There was an error importing " +
+                    "the stock.");
+        }
+    }
+
 }
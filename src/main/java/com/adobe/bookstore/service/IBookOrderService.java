@@ -1,14 +1,53 @@
 package com.adobe.bookstore.service;
 
+import com.adobe.bookstore.DO.OrderDO;
 import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.DO.OrderPageDO;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
 
 public interface IBookOrderService {
 
     String createOrder(List<OrderItemDO> order);
 
+    /**
+     * Returns every order not archived yet sorted by order ID, followed by every archived order sorted by order ID,
+     * read from the database on every call.
+     */
     Map<String, List<OrderItemDO>> getOrders();
 
+    /**
+     * Returns the units sold of every book that has been ordered, archived orders included, read from the order
+     * projection.
+     */
+    Map<String, Long> getUnitsSoldByBookId();
+
+    /**
+     * Returns a value that changes every time {@link #getOrders()} or {@link #getUnitsSoldByBookId()} do.
+     */
+    String getOrdersVersion();
+
+    /**
+     * Looks the order up in the recent orders first and in the archived ones otherwise.
+     */
+    Optional<OrderDO> getOrder(String orderId);
+
+    /**
+     * Returns up to {@code limit} orders in the same order as {@link #getOrders()}, starting right after the cursor:
+     * once the orders not archived yet are used up, the pages go on with the archived ones.
+     *
+     * @param after the next cursor of the previous page, or an empty string for the first page.
+     * @throws IllegalArgumentException if {@code after} is neither empty nor a cursor.
+     */
+    OrderPageDO getOrdersPage(String after, int limit);
+
+    /**
+     * Reads the same orders as {@link #getOrders()} in a single pass and hands them to the consumer one at a time,
+     * without keeping them in memory.
+     */
+    void streamOrders(BiConsumer<String, List<OrderItemDO>> orderConsumer);
+
 }
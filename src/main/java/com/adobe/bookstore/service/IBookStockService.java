@@ -3,15 +3,67 @@ package com.adobe.bookstore.service;
 import com.adobe.bookstore.DO.OrderItemDO;
 import com.adobe.bookstore.model.BookStock;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface IBookStockService {
 
     boolean existsEnoughQuantityInStock(List<OrderItemDO> order);
 
+    /**
+     * Checks the whole order against the stock loading every book with a single query. Lines for the same book are
+     * merged by adding up their quantities.
+     *
+     * @return the merged lines that cannot be served, either because the book does not exist or because there is
+     * not enough quantity available. An empty list means the whole order can be served.
+     */
+    List<OrderItemDO> findItemsWithoutEnoughStock(List<OrderItemDO> order);
+
     void updateStock(List<OrderItemDO> order);
 
+    /**
+     * Atomically takes the units of every line of the order from the stock. Either all the lines are reserved or
+     * none of them is.
+     *
+     * @throws com.adobe.bookstore.exception.NotEnoughStockException if at least one book does not exist or does
+     * not have the required quantity available.
+     */
+    void reserveStock(List<OrderItemDO> order);
+
+    /**
+     * Gives back the units previously taken by {@link #reserveStock(List)}.
+     */
+    void releaseStock(List<OrderItemDO> order);
+
     Optional<BookStock> getStockById(String bookId);
 
+    /**
+     * Returns the stock of several books at once, read with a single query.
+     *
+     * @return the books found by ID. IDs with no book are not in the map.
+     */
+    Map<String, BookStock> getStockByIds(Collection<String> bookIds);
+
+    /**
+     * Returns the version of the stock of the book, which changes every time its quantity does, without loading
+     * the whole entity when possible.
+     */
+    Optional<Long> getStockVersion(String bookId);
+
+    /**
+     * Hands the stock of every book to the consumer one at a time, without holding the whole catalog in memory.
+     */
+    void streamAllStock(Consumer<BookStock> consumer);
+
+    /**
+     * Whether the stock may be changed in {@code book_stock} by something else, such as the CSV import. Engines that
+     * keep the stock elsewhere and write it back later return {@code false}, as they would overwrite those changes.
+     */
+    default boolean acceptsExternalWrites() {
+        return true;
+    }
+
 }
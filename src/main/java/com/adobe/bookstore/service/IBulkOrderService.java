@@ -0,0 +1,18 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.BulkOrderDO;
+import com.adobe.bookstore.DO.BulkOrderResultDO;
+
+import java.util.List;
+
+public interface IBulkOrderService {
+
+    /**
+     * Creates every order that can be served, in the order they are received. Orders are accepted or rejected
+     * individually: a rejected order does not affect the rest.
+     *
+     * @return one result per order, in the same order.
+     */
+    List<BulkOrderResultDO> createOrders(List<BulkOrderDO> orders);
+
+}
@@ -0,0 +1,14 @@
+package com.adobe.bookstore.service;
+
+public interface IOrderArchiveService {
+
+    /**
+     * Moves the orders older than {@code bookstore.orders.archive.max-age} to the archive tables, in batches of
+     * {@code bookstore.orders.archive.batch-size} separated by {@code bookstore.orders.archive.pause-ms}, and at most
+     * {@code bookstore.orders.archive.max-batches} batches per call.
+     *
+     * @return the number of orders archived.
+     */
+    long archiveOldOrders();
+
+}
@@ -0,0 +1,20 @@
+package com.adobe.bookstore.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+
+public interface IStockEventService {
+
+    /**
+     * Opens a stream of stock events: a {@code snapshot} event with the current stock of the books, followed by a
+     * {@code stock} event every time the quantity of one of them changes. The snapshot of all the books is split in
+     * several {@code snapshot} events.
+     *
+     * @param bookIds books to follow, or an empty collection to follow all of them.
+     * @throws com.adobe.bookstore.exception.TooManySubscribersException if the maximum number of subscribers has
+     * been reached.
+     */
+    SseEmitter subscribe(Collection<String> bookIds);
+
+}
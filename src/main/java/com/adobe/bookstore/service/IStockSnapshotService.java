@@ -0,0 +1,29 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.StockImportResultDO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface IStockSnapshotService {
+
+    /**
+     * Writes the stock of every book as CSV, with an {@code id,name,quantity} header, while it is read.
+     *
+     * @return the number of books written.
+     */
+    long exportStock(OutputStream outputStream) throws IOException;
+
+    /**
+     * Reads a CSV in the format written by {@link #exportStock(OutputStream)} and applies it in batches.
+     *
+     * @param delta if {@code true}, only the quantities of the existing books are applied, and only the ones that
+     *              changed are written. Otherwise, new books are inserted and the name and quantity of the existing
+     *              ones are updated. Books missing from the CSV are never deleted.
+     * @throws IllegalStateException if the stock engine in use does not accept changes made to {@code book_stock}
+     * by others, see {@link IBookStockService#acceptsExternalWrites()}.
+     */
+    StockImportResultDO importStock(InputStream inputStream, boolean delta) throws IOException;
+
+}
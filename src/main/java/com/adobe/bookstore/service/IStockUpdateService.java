@@ -0,0 +1,16 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+
+import java.util.List;
+
+public interface IStockUpdateService {
+
+    /**
+     * Gives back the stock reserved for an order in the background. The call returns straight away unless the
+     * queue of pending updates is full, in which case the caller applies the update itself. Updates that fail are
+     * stored and replayed until they succeed.
+     */
+    void releaseStockAsync(List<OrderItemDO> order);
+
+}
@@ -1,89 +1,270 @@
 package com.adobe.bookstore.service.impl;
 
+import com.adobe.bookstore.DO.OrderDO;
 import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.DO.OrderPageDO;
+import com.adobe.bookstore.model.ArchivedBookOrderItem;
+import com.adobe.bookstore.model.BookOrderHeader;
 import com.adobe.bookstore.model.BookOrderItem;
+import com.adobe.bookstore.model.OrderStatus;
+import com.adobe.bookstore.repository.ArchivedBookOrderHeaderRepository;
+import com.adobe.bookstore.repository.ArchivedBookOrderItemRepository;
+import com.adobe.bookstore.repository.BookOrderHeaderRepository;
+import com.adobe.bookstore.repository.BookOrderItemRow;
+import com.adobe.bookstore.projection.OrderSummaryProjection;
 import com.adobe.bookstore.repository.BookOrderRepository;
 import com.adobe.bookstore.service.IBookOrderService;
 import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.OrderItems;
+import com.adobe.bookstore.utils.Uuids;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 @Service
 public class BookOrderService implements IBookOrderService {
 
+    /** Marks the cursors of the pages that reached the archived orders. */
+    static final String ARCHIVED_CURSOR_PREFIX = "archived-";
+
     private BookOrderRepository bookOrderRepository;
+    private BookOrderHeaderRepository bookOrderHeaderRepository;
+    private ArchivedBookOrderHeaderRepository archivedBookOrderHeaderRepository;
+    private ArchivedBookOrderItemRepository archivedBookOrderItemRepository;
+    private OrderSummaryProjection orderSummaryProjection;
 
     @Autowired
-    public BookOrderService(BookOrderRepository bookOrderRepository) {
+    public BookOrderService(BookOrderRepository bookOrderRepository,
+                            BookOrderHeaderRepository bookOrderHeaderRepository,
+                            ArchivedBookOrderHeaderRepository archivedBookOrderHeaderRepository,
+                            ArchivedBookOrderItemRepository archivedBookOrderItemRepository,
+                            OrderSummaryProjection orderSummaryProjection) {
         this.bookOrderRepository = bookOrderRepository;
+        this.bookOrderHeaderRepository = bookOrderHeaderRepository;
+        this.archivedBookOrderHeaderRepository = archivedBookOrderHeaderRepository;
+        this.archivedBookOrderItemRepository = archivedBookOrderItemRepository;
+        this.orderSummaryProjection = orderSummaryProjection;
     }
 
     @Override
     @Transactional
     public String createOrder(List<OrderItemDO> order) {
         String orderId = UUID.randomUUID().toString();
+        saveOrder(orderId, Instant.now(), mergeLines(order));
+        return orderId;
+    }
 
-        order.stream()
+    /**
+     * Stores an order whose ID and creation time are already known, such as one read back from the order journal.
+     *
+     * @param items one line per book, as returned by {@link #mergeLines(List)}.
+     */
+    @Transactional
+    public void saveOrder(String orderId, Instant createdAt, List<OrderItemDO> items) {
+        List<BookOrderItem> bookOrderItems = items.stream()
                 .map(orderItem -> BookOrderItem.builder()
                         .orderId(orderId)
                         .bookId(orderItem.getBookId())
                         .quantity(orderItem.getQuantity())
                         .build())
-                .forEach(bookOrderRepository::save);
-
-        return orderId;
+                .toList();
 
-        /* Imperative programming version
-        for (OrderItemDO orderItem : order) {
+        BookOrderHeader bookOrder = BookOrderHeader.builder()
+                .id(orderId)
+                .createdAt(createdAt)
+                .status(OrderStatus.CREATED)
+                .build();
 
-            BookOrderItem bookOrderItem = new BookOrderItem.Builder()
-                    .orderId(orderId)
-                    .quantity(orderItem.getQuantity())
-                    .build();
+        bookOrderRepository.persistOrder(bookOrder, bookOrderItems);
+        // Last, as it locks the rows of the books until the transaction commits
+        orderSummaryProjection.apply(items);
+    }
 
-            bookOrderRepository.save(bookOrderItem);
-        }
+    /**
+     * Lines for the same book are merged, as (order_id, book_id) is the primary key of the order items.
+     *
+     * @throws IllegalArgumentException if the lines for a book add up to more than {@link Integer#MAX_VALUE}.
+     */
+    static List<OrderItemDO> mergeLines(List<OrderItemDO> order) {
+        Map<String, Integer> quantitiesByBookId = new LinkedHashMap<>();
+        order.forEach(orderItem -> quantitiesByBookId.merge(orderItem.getBookId(), orderItem.getQuantity(),
+                OrderItems::addQuantities));
 
-        return orderId;
-         */
+        return quantitiesByBookId.entrySet().stream()
+                .map(orderItem -> OrderItemDO.builder()
+                        .bookId(orderItem.getKey())
+                        .quantity(orderItem.getValue())
+                        .build())
+                .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, List<OrderItemDO>> getOrders() {
-        List<BookOrderItem> bookOrderItemList;
+        Map<String, List<OrderItemDO>> orders = new LinkedHashMap<>();
         try {
-            bookOrderItemList = bookOrderRepository.findAll();
+            streamOrders(orders::put);
             Log.info("Orders retrieved successfully.");
         } catch (Exception e) {
             Log.error("There was an error retrieving the orders.");
             throw new RuntimeException("There was an error retrieving the orders.");
         }
 
-        return createMapFromBookOrderItemsList(bookOrderItemList);
+        return orders;
     }
 
-    private Map<String, List<OrderItemDO>> createMapFromBookOrderItemsList(List<BookOrderItem> bookOrderItemList) {
-        Map<String, List<OrderItemDO>> bookOrderMap = new HashMap<>();
+    @Override
+    public Map<String, Long> getUnitsSoldByBookId() {
+        return orderSummaryProjection.getUnitsSoldByBookId();
+    }
 
-        for (BookOrderItem bookOrderItem : bookOrderItemList) {
-            String orderId = bookOrderItem.getOrderId();
+    @Override
+    public String getOrdersVersion() {
+        return orderSummaryProjection.getVersion();
+    }
 
-            if (!bookOrderMap.containsKey(orderId)) {
-                bookOrderMap.put(orderId, new ArrayList<>());
-            }
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderDO> getOrder(String orderId) {
+        if (!Uuids.isUuid(orderId)) {
+            return Optional.empty();
+        }
+        return bookOrderHeaderRepository.findById(orderId)
+                .map(bookOrder -> OrderDO.builder()
+                        .orderId(bookOrder.getId())
+                        .createdAt(bookOrder.getCreatedAt())
+                        .status(bookOrder.getStatus())
+                        .items(bookOrderRepository.findByOrderIdOrderByBookIdAsc(orderId).stream()
+                                .map(this::toOrderItem)
+                                .toList())
+                        .build())
+                .or(() -> getArchivedOrder(orderId));
+    }
+
+    private Optional<OrderDO> getArchivedOrder(String orderId) {
+        return archivedBookOrderHeaderRepository.findById(orderId)
+                .map(bookOrder -> OrderDO.builder()
+                        .orderId(bookOrder.getId())
+                        .createdAt(bookOrder.getCreatedAt())
+                        .status(bookOrder.getStatus())
+                        .items(archivedBookOrderItemRepository.findByOrderIdOrderByBookIdAsc(orderId).stream()
+                                .map(this::toOrderItem)
+                                .toList())
+                        .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageDO getOrdersPage(String after, int limit) {
+        boolean afterArchived = after.startsWith(ARCHIVED_CURSOR_PREFIX);
+        String afterOrderId = afterArchived ? after.substring(ARCHIVED_CURSOR_PREFIX.length()) : after;
+        if ((afterArchived || !afterOrderId.isEmpty()) && !Uuids.isUuid(afterOrderId)) {
+            throw new IllegalArgumentException("The cursor " + after + " is not an order ID.");
+        }
+
+        // One extra ID is read to know if there is a next page without an additional query
+        List<String> orderIds = new ArrayList<>();
+        if (!afterArchived) {
+            PageRequest page = PageRequest.of(0, limit + 1);
+            orderIds.addAll(afterOrderId.isEmpty() ? bookOrderRepository.findOrderIds(page)
+                    : bookOrderRepository.findOrderIdsAfter(afterOrderId, page));
+        }
+        int recentOrders = orderIds.size();
+        if (recentOrders <= limit) {
+            // The recent orders are used up, the page goes on with the archived ones
+            PageRequest page = PageRequest.of(0, limit + 1 - recentOrders);
+            orderIds.addAll(afterArchived ? archivedBookOrderItemRepository.findOrderIdsAfter(afterOrderId, page)
+                    : archivedBookOrderItemRepository.findOrderIds(page));
+        }
+
+        String nextCursor = null;
+        if (orderIds.size() > limit) {
+            orderIds = orderIds.subList(0, limit);
+            nextCursor = (limit > recentOrders ? ARCHIVED_CURSOR_PREFIX : "") + orderIds.get(limit - 1);
+        }
 
-            OrderItemDO orderItem = OrderItemDO.builder()
-                                    .bookId(bookOrderItem.getBookId())
-                                    .quantity(bookOrderItem.getQuantity())
-                                    .build();
+        return OrderPageDO.builder()
+                .orders(findItems(orderIds, Math.min(recentOrders, orderIds.size())))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Reads the items of the orders, the first {@code recentOrders} of which were not archived yet when their IDs
+     * were read. Those that have been archived since are read from the archive with the rest.
+     */
+    private Map<String, List<OrderItemDO>> findItems(List<String> orderIds, int recentOrders) {
+        Map<String, List<OrderItemDO>> itemsByOrderId = new HashMap<>();
+        if (recentOrders > 0) {
+            bookOrderRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(orderIds.subList(0, recentOrders))
+                    .forEach(bookOrderItem -> itemsByOrderId.computeIfAbsent(bookOrderItem.getOrderId(),
+                            orderId -> new ArrayList<>()).add(toOrderItem(bookOrderItem)));
+        }
 
-            bookOrderMap.get(orderId).add(orderItem);
+        List<String> archivedOrderIds = orderIds.stream()
+                .filter(orderId -> !itemsByOrderId.containsKey(orderId))
+                .toList();
+        if (!archivedOrderIds.isEmpty()) {
+            archivedBookOrderItemRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(archivedOrderIds)
+                    .forEach(bookOrderItem -> itemsByOrderId.computeIfAbsent(bookOrderItem.getOrderId(),
+                            orderId -> new ArrayList<>()).add(toOrderItem(bookOrderItem)));
         }
 
-        return bookOrderMap;
+        Map<String, List<OrderItemDO>> orders = new LinkedHashMap<>();
+        orderIds.stream()
+                .filter(itemsByOrderId::containsKey)
+                .forEach(orderId -> orders.put(orderId, itemsByOrderId.get(orderId)));
+        return orders;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamOrders(BiConsumer<String, List<OrderItemDO>> orderConsumer) {
+        try (Stream<BookOrderItemRow> rows = bookOrderRepository.streamAllWithArchived()) {
+            String currentOrderId = null;
+            List<OrderItemDO> currentOrderItems = new ArrayList<>();
+
+            Iterator<BookOrderItemRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                BookOrderItemRow row = iterator.next();
+
+                // Rows come sorted by order ID, so a new ID means the previous order is complete
+                if (currentOrderId != null && !currentOrderId.equals(row.getOrderId())) {
+                    orderConsumer.accept(currentOrderId, currentOrderItems);
+                    currentOrderItems = new ArrayList<>();
+                }
+
+                currentOrderId = row.getOrderId();
+                currentOrderItems.add(OrderItemDO.builder()
+                        .bookId(row.getBookId())
+                        .quantity(row.getQuantity())
+                        .build());
+            }
+
+            if (currentOrderId != null) {
+                orderConsumer.accept(currentOrderId, currentOrderItems);
+            }
+        }
+    }
+
+    private OrderItemDO toOrderItem(BookOrderItem bookOrderItem) {
+        return OrderItemDO.builder()
+                .bookId(bookOrderItem.getBookId())
+                .quantity(bookOrderItem.getQuantity())
+                .build();
+    }
+
+    private OrderItemDO toOrderItem(ArchivedBookOrderItem bookOrderItem) {
+        return OrderItemDO.builder()
+                .bookId(bookOrderItem.getBookId())
+                .quantity(bookOrderItem.getQuantity())
+                .build();
     }
 
 }
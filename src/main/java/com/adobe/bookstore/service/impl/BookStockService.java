@@ -1,53 +1,112 @@
 package com.adobe.bookstore.service.impl;
 
 import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.event.StockChangedEvent;
+import com.adobe.bookstore.exception.NotEnoughStockException;
 import com.adobe.bookstore.model.BookStock;
 import com.adobe.bookstore.repository.BookStockRepository;
+import com.adobe.bookstore.repository.StockSnapshotRepository;
 import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.OrderItems;
+import com.adobe.bookstore.utils.Uuids;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
+@Qualifier(BookStockService.TRANSACTIONAL)
 public class BookStockService implements IBookStockService {
 
+    /**
+     * Qualifies the implementations whose reservations join the transaction of the caller and are undone if it rolls
+     * back. When there are several, the {@code @Primary} one is injected.
+     */
+    public static final String TRANSACTIONAL = "transactionalBookStockService";
+
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
     private BookStockRepository bookStockRepository;
+    private StockSnapshotRepository stockSnapshotRepository;
+    private ApplicationEventPublisher eventPublisher;
 
-    public BookStockService(BookStockRepository bookStockRepository) {
+    public BookStockService(BookStockRepository bookStockRepository,
+                            StockSnapshotRepository stockSnapshotRepository,
+                            ApplicationEventPublisher eventPublisher) {
         this.bookStockRepository = bookStockRepository;
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public boolean existsEnoughQuantityInStock(List<OrderItemDO> order) {
-        return order.stream()
-                .allMatch(orderItem ->
-                        this.getStockById(orderItem.getBookId())
-                                .map(BookStock::getQuantity)
-                                .filter(quantityStock -> quantityStock >= orderItem.getQuantity())
-                                .isPresent()
-                );
+        return findItemsWithoutEnoughStock(order).isEmpty();
+    }
 
-        /* Imperative programming version
-        for (OrderItemDO orderItem: order) {
-            String orderItemId = orderItem.getBookId();
-            Integer orderItemQuantity = orderItem.getQuantity();
+    @Override
+    public List<OrderItemDO> findItemsWithoutEnoughStock(List<OrderItemDO> order) {
+        Map<String, Integer> quantitiesByBookId = OrderItems.mergeQuantitiesByBookId(order);
+
+        Map<String, Integer> stockByBookId = new HashMap<>();
+        bookStockRepository.findAllById(Uuids.onlyUuids(quantitiesByBookId.keySet()))
+                .forEach(bookStock -> stockByBookId.put(bookStock.getId(), bookStock.getQuantity()));
+
+        return quantitiesByBookId.entrySet().stream()
+                .filter(requested -> {
+                    Integer quantityStock = stockByBookId.get(requested.getKey());
+                    return quantityStock == null || quantityStock < requested.getValue();
+                })
+                .map(requested -> OrderItemDO.builder()
+                        .bookId(requested.getKey())
+                        .quantity(requested.getValue())
+                        .build())
+                .toList();
+    }
 
-            Optional<BookStock> itemStock = this.getStockById(orderItemId);
+    @Override
+    public void updateStock(List<OrderItemDO> order) {
+        try {
+            updateStockItems(order);
+        } finally {
+            // Lines saved before a failure are already committed
+            publishStockChanged(order);
+        }
+    }
+
+    private void updateStockItems(List<OrderItemDO> order) {
+        order.forEach(this::updateStockItemRetryingConflicts);
+    }
 
-            if (!itemStock.isPresent() || itemStock.get().getQuantity() < orderItemQuantity) {
-                return false;
+    /**
+     * The stock is saved with the version it was read with, so a concurrent change makes the save fail instead of
+     * silently overwriting it. The line is then read and applied again.
+     */
+    private void updateStockItemRetryingConflicts(OrderItemDO orderItem) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                updateStockItem(orderItem);
+                return;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                Log.info("The stock of book with ID {} changed concurrently, retrying.", orderItem.getBookId());
             }
         }
-
-        return true;
-        */
     }
 
-    @Override
-    public void updateStock(List<OrderItemDO> order) {
-        order.forEach(orderItem -> bookStockRepository.findById(orderItem.getBookId())
-                    .ifPresentOrElse(bookStock -> {
+    private void updateStockItem(OrderItemDO orderItem) {
+        getStockById(orderItem.getBookId())
+                .ifPresentOrElse(bookStock -> {
                         int newQuantity = bookStock.getQuantity() - orderItem.getQuantity();
                         if (newQuantity < 0) {
                             throw new RuntimeException("Not enough stock for book with ID " + orderItem.getBookId()
@@ -59,8 +118,7 @@ public class BookStockService implements IBookStockService {
                     () -> {
                         throw new RuntimeException("Book with ID " + orderItem.getBookId()
                                 + " not found. There was an error checking if existed enough stock.");
-                    })
-                );
+                    });
 
         /* Imperative programming version
         for (OrderItemDO orderItem : order) {
@@ -83,9 +141,58 @@ public class BookStockService implements IBookStockService {
 
     }
 
+    @Override
+    @Transactional
+    public void reserveStock(List<OrderItemDO> order) {
+        Map<String, Integer> quantitiesByBookId = OrderItems.mergeQuantitiesByBookId(order);
+        quantitiesByBookId.forEach((bookId, quantity) -> {
+            if (!Uuids.isUuid(bookId) || bookStockRepository.decrementQuantity(bookId, quantity) == 0) {
+                throw new NotEnoughStockException(bookId);
+            }
+        });
+        eventPublisher.publishEvent(new StockChangedEvent(quantitiesByBookId.keySet()));
+    }
+
+    @Override
+    @Transactional
+    public void releaseStock(List<OrderItemDO> order) {
+        Map<String, Integer> quantitiesByBookId = OrderItems.mergeQuantitiesByBookId(order);
+        quantitiesByBookId.forEach((bookId, quantity) -> {
+            if (Uuids.isUuid(bookId)) {
+                bookStockRepository.incrementQuantity(bookId, quantity);
+            }
+        });
+        eventPublisher.publishEvent(new StockChangedEvent(quantitiesByBookId.keySet()));
+    }
+
     @Override
     public Optional<BookStock> getStockById(String bookId) {
-        return bookStockRepository.findById(bookId);
+        return Uuids.isUuid(bookId) ? bookStockRepository.findById(bookId) : Optional.empty();
+    }
+
+    @Override
+    public Map<String, BookStock> getStockByIds(Collection<String> bookIds) {
+        Map<String, BookStock> stockByBookId = new HashMap<>();
+        bookStockRepository.findAllById(Uuids.onlyUuids(bookIds))
+                .forEach(bookStock -> stockByBookId.put(bookStock.getId(), bookStock));
+        return stockByBookId;
+    }
+
+    @Override
+    public Optional<Long> getStockVersion(String bookId) {
+        return Uuids.isUuid(bookId) ? bookStockRepository.findVersionById(bookId) : Optional.empty();
+    }
+
+    private void publishStockChanged(List<OrderItemDO> order) {
+        eventPublisher.publishEvent(new StockChangedEvent(order.stream().map(OrderItemDO::getBookId).toList()));
+    }
+
+    /**
+     * Streams the rows sorted by ID while they are fetched.
+     */
+    @Override
+    public void streamAllStock(Consumer<BookStock> consumer) {
+        stockSnapshotRepository.streamAll(consumer);
     }
 
 }
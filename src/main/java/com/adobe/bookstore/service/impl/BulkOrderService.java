@@ -0,0 +1,164 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.BulkOrderDO;
+import com.adobe.bookstore.DO.BulkOrderResultDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.exception.NotEnoughStockException;
+import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IBulkOrderService;
+import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.OrderItems;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Checks the stock of every order of the bulk against a single read of the books involved, allocating the units in
+ * the order the orders are received. The accepted orders are then stored in chunks: each chunk takes the stock of
+ * all its orders with one conditional update per book and persists the orders in the same transaction.
+ * <p>
+ * If the stock changed since it was read and a chunk cannot be reserved as a whole, its orders are retried one by
+ * one, so only the ones that no longer fit are rejected.
+ */
+@Service
+public class BulkOrderService implements IBulkOrderService {
+
+    static final String EMPTY_ORDER = "The order was empty.";
+    static final String INVALID_QUANTITY = "At least one item has no book ID or an invalid quantity.";
+    static final String NOT_ENOUGH_STOCK = "At least one item does not have the required quantity available on stock.";
+    static final String UNEXPECTED_ERROR = "An unexpected error occurred creating the Order.";
+
+    private IBookStockService bookStockService;
+    /** The transactional one, as orders must be stored in the same transaction as the stock they take. */
+    private BookOrderService bookOrderService;
+    private TransactionTemplate transactionTemplate;
+    private int chunkSize;
+
+    public BulkOrderService(@Qualifier(BookStockService.TRANSACTIONAL) IBookStockService bookStockService,
+                            BookOrderService bookOrderService, PlatformTransactionManager transactionManager,
+                            @Value("${bookstore.orders.bulk.chunk-size:100}") int chunkSize) {
+        this.bookStockService = bookStockService;
+        this.bookOrderService = bookOrderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public List<BulkOrderResultDO> createOrders(List<BulkOrderDO> orders) {
+        BulkOrderResultDO[] results = new BulkOrderResultDO[orders.size()];
+
+        Map<Integer, Map<String, Integer>> quantitiesByOrder = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            List<OrderItemDO> items = orders.get(i).getItems();
+            if (items == null || items.isEmpty()) {
+                results[i] = rejected(orders.get(i), EMPTY_ORDER);
+                continue;
+            }
+
+            try {
+                quantitiesByOrder.put(i, OrderItems.mergeQuantitiesByBookId(items));
+            } catch (IllegalArgumentException e) {
+                results[i] = rejected(orders.get(i), INVALID_QUANTITY);
+            }
+        }
+
+        List<Integer> accepted = allocateStock(orders, quantitiesByOrder, results);
+
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            try {
+                createChunk(orders, chunk, results);
+            } catch (Exception e) {
+                Log.info("The stock changed while creating a bulk of orders, creating them one by one.");
+                chunk.forEach(i -> results[i] = createOne(orders.get(i)));
+            }
+        }
+
+        Log.info("Bulk of {} orders processed, {} accepted.", orders.size(), accepted.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Takes the units of every order from an in-memory copy of the stock, in the order they are received.
+     *
+     * @return the indexes of the orders that can be served.
+     */
+    private List<Integer> allocateStock(List<BulkOrderDO> orders, Map<Integer, Map<String, Integer>> quantitiesByOrder,
+                                        BulkOrderResultDO[] results) {
+        Set<String> bookIds = new HashSet<>();
+        quantitiesByOrder.values().forEach(quantities -> bookIds.addAll(quantities.keySet()));
+
+        Map<String, Integer> available = new HashMap<>();
+        bookStockService.getStockByIds(bookIds)
+                .forEach((bookId, bookStock) -> available.put(bookId, bookStock.getQuantity()));
+
+        List<Integer> accepted = new ArrayList<>();
+        quantitiesByOrder.forEach((i, quantities) -> {
+            boolean fits = quantities.entrySet().stream()
+                    .allMatch(requested -> available.getOrDefault(requested.getKey(), -1) >= requested.getValue());
+            if (!fits) {
+                results[i] = rejected(orders.get(i), NOT_ENOUGH_STOCK);
+                return;
+            }
+
+            quantities.forEach((bookId, quantity) -> available.merge(bookId, -quantity, Integer::sum));
+            accepted.add(i);
+        });
+
+        return accepted;
+    }
+
+    private void createChunk(List<BulkOrderDO> orders, List<Integer> chunk, BulkOrderResultDO[] results) {
+        List<String> orderIds = transactionTemplate.execute(status -> {
+            List<OrderItemDO> chunkItems = new ArrayList<>();
+            chunk.forEach(i -> chunkItems.addAll(orders.get(i).getItems()));
+            bookStockService.reserveStock(chunkItems);
+
+            return chunk.stream()
+                    .map(i -> bookOrderService.createOrder(orders.get(i).getItems()))
+                    .toList();
+        });
+
+        // Results are only set once the chunk is committed
+        for (int j = 0; j < chunk.size(); j++) {
+            results[chunk.get(j)] = BulkOrderResultDO.builder()
+                    .reference(orders.get(chunk.get(j)).getReference())
+                    .accepted(true)
+                    .orderId(orderIds.get(j))
+                    .build();
+        }
+    }
+
+    private BulkOrderResultDO createOne(BulkOrderDO order) {
+        try {
+            String orderId = transactionTemplate.execute(status -> {
+                bookStockService.reserveStock(order.getItems());
+                return bookOrderService.createOrder(order.getItems());
+            });
+
+            return BulkOrderResultDO.builder()
+                    .reference(order.getReference())
+                    .accepted(true)
+                    .orderId(orderId)
+                    .build();
+        } catch (NotEnoughStockException e) {
+            return rejected(order, NOT_ENOUGH_STOCK);
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            return rejected(order, UNEXPECTED_ERROR);
+        }
+    }
+
+    private BulkOrderResultDO rejected(BulkOrderDO order, String reason) {
+        return BulkOrderResultDO.builder()
+                .reference(order.getReference())
+                .accepted(false)
+                .reason(reason)
+                .build();
+    }
+
+}
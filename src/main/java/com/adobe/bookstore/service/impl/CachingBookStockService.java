@@ -0,0 +1,83 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.cache.BookStockCache;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.service.IBookStockService;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Serves stock reads from {@link BookStockCache} and delegates everything else to {@link BookStockService}, which
+ * publishes the events that invalidate the cache.
+ */
+@Service
+public class CachingBookStockService implements IBookStockService {
+
+    private BookStockService bookStockService;
+    private BookStockCache bookStockCache;
+
+    public CachingBookStockService(BookStockService bookStockService, BookStockCache bookStockCache) {
+        this.bookStockService = bookStockService;
+        this.bookStockCache = bookStockCache;
+    }
+
+    @Override
+    public boolean existsEnoughQuantityInStock(List<OrderItemDO> order) {
+        return bookStockService.existsEnoughQuantityInStock(order);
+    }
+
+    @Override
+    public List<OrderItemDO> findItemsWithoutEnoughStock(List<OrderItemDO> order) {
+        return bookStockService.findItemsWithoutEnoughStock(order);
+    }
+
+    @Override
+    public void updateStock(List<OrderItemDO> order) {
+        bookStockService.updateStock(order);
+    }
+
+    @Override
+    public void reserveStock(List<OrderItemDO> order) {
+        bookStockService.reserveStock(order);
+    }
+
+    @Override
+    public void releaseStock(List<OrderItemDO> order) {
+        bookStockService.releaseStock(order);
+    }
+
+    @Override
+    public Optional<BookStock> getStockById(String bookId) {
+        return bookStockCache.get(bookId, bookStockService::getStockById);
+    }
+
+    /**
+     * Books missing from the cache are loaded together, with a single query.
+     */
+    @Override
+    public Map<String, BookStock> getStockByIds(Collection<String> bookIds) {
+        return bookStockCache.getAll(bookIds, bookStockService::getStockByIds);
+    }
+
+    /**
+     * Answers from the cached stock when there is one, and otherwise reads the version alone, without caching it.
+     */
+    @Override
+    public Optional<Long> getStockVersion(String bookId) {
+        return bookStockCache.getIfPresent(bookId)
+                .map(BookStock::getVersion)
+                .or(() -> bookStockService.getStockVersion(bookId));
+    }
+
+    @Override
+    public void streamAllStock(Consumer<BookStock> consumer) {
+        bookStockService.streamAllStock(consumer);
+    }
+
+}
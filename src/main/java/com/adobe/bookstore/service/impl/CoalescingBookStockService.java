@@ -0,0 +1,84 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.service.IBookStockService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Sends reservations through {@link StockDecrementCoalescer} when {@code bookstore.stock.coalescing.enabled} is set
+ * and delegates everything else to {@link CachingBookStockService}. The {@code in-memory-stock} profile replaces it
+ * with {@link InMemoryBookStockService}.
+ */
+@Service
+@Primary
+@Profile("!" + InMemoryBookStockService.PROFILE)
+public class CoalescingBookStockService implements IBookStockService {
+
+    private CachingBookStockService bookStockService;
+    private StockDecrementCoalescer stockDecrementCoalescer;
+
+    public CoalescingBookStockService(CachingBookStockService bookStockService,
+                                      StockDecrementCoalescer stockDecrementCoalescer) {
+        this.bookStockService = bookStockService;
+        this.stockDecrementCoalescer = stockDecrementCoalescer;
+    }
+
+    @Override
+    public boolean existsEnoughQuantityInStock(List<OrderItemDO> order) {
+        return bookStockService.existsEnoughQuantityInStock(order);
+    }
+
+    @Override
+    public List<OrderItemDO> findItemsWithoutEnoughStock(List<OrderItemDO> order) {
+        return bookStockService.findItemsWithoutEnoughStock(order);
+    }
+
+    @Override
+    public void updateStock(List<OrderItemDO> order) {
+        bookStockService.updateStock(order);
+    }
+
+    @Override
+    public void reserveStock(List<OrderItemDO> order) {
+        if (stockDecrementCoalescer.isEnabled()) {
+            stockDecrementCoalescer.reserve(order);
+        } else {
+            bookStockService.reserveStock(order);
+        }
+    }
+
+    @Override
+    public void releaseStock(List<OrderItemDO> order) {
+        bookStockService.releaseStock(order);
+    }
+
+    @Override
+    public Optional<BookStock> getStockById(String bookId) {
+        return bookStockService.getStockById(bookId);
+    }
+
+    @Override
+    public Map<String, BookStock> getStockByIds(Collection<String> bookIds) {
+        return bookStockService.getStockByIds(bookIds);
+    }
+
+    @Override
+    public Optional<Long> getStockVersion(String bookId) {
+        return bookStockService.getStockVersion(bookId);
+    }
+
+    @Override
+    public void streamAllStock(Consumer<BookStock> consumer) {
+        bookStockService.streamAllStock(consumer);
+    }
+
+}
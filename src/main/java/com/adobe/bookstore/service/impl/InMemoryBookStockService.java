@@ -0,0 +1,480 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.cache.StockSlots;
+import com.adobe.bookstore.event.StockChangedEvent;
+import com.adobe.bookstore.exception.NotEnoughStockException;
+import com.adobe.bookstore.journal.StockChange;
+import com.adobe.bookstore.journal.StockChangeLog;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.BookStockRepository;
+import com.adobe.bookstore.repository.StockSnapshotRepository;
+import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.OrderItems;
+import com.adobe.bookstore.utils.Uuids;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the stock of every book in memory, in {@link StockSlots}, and serves every stock operation from there
+ * without touching the database. Enabled with the {@code in-memory-stock} profile.
+ * <p>
+ * The whole {@code book_stock} table is loaded on startup, and books added later are loaded the first time they are
+ * asked for. Reservations take the units of each line with compare-and-set, in book ID order, giving back the
+ * lines already taken if one of them cannot be served. Called inside a transaction, changes are undone if it rolls
+ * back, as with {@link BookStockService}.
+ * <p>
+ * Every change is appended to a {@link StockChangeLog} in {@code bookstore.stock.in-memory.log-dir}, and is only
+ * acknowledged once the log is on disk. Changed books are written back to {@code book_stock} every
+ * {@code bookstore.stock.in-memory.flush-ms} and on shutdown, after which the log up to then is deleted. On startup,
+ * the changes of the log newer than the version of their book in the table are applied again, so a crash loses no
+ * acknowledged change. Changes hold a read lock from the moment they touch the stock until they are in the log, and
+ * a flush takes the write lock to start a new log segment and read the stock, so the values it writes contain
+ * exactly the changes of the segments it deletes.
+ * <p>
+ * While the profile is active this instance owns the stock: it must be the only one running, and the stock must not
+ * be changed in the database directly.
+ */
+@Service
+@Primary
+@Profile(InMemoryBookStockService.PROFILE)
+@Qualifier(BookStockService.TRANSACTIONAL)
+public class InMemoryBookStockService implements IBookStockService {
+
+    public static final String PROFILE = "in-memory-stock";
+
+    private StockSlots stockSlots = new StockSlots();
+    /** Slots changed since they were last written to the database. */
+    private Set<Integer> dirtySlots = ConcurrentHashMap.newKeySet();
+    private ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private StockChangeLog changeLog;
+    private Path logDirectory;
+
+    private BookStockRepository bookStockRepository;
+    private StockSnapshotRepository stockSnapshotRepository;
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @param stockSeedLoader only injected so the seed file, if any, is loaded before the stock is read.
+     */
+    public InMemoryBookStockService(BookStockRepository bookStockRepository,
+                                    StockSnapshotRepository stockSnapshotRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    MeterRegistry meterRegistry,
+                                    Optional<StockSeedLoader> stockSeedLoader,
+                                    @Value("${bookstore.stock.in-memory.log-dir:stock-log}") Path logDirectory) {
+        this.bookStockRepository = bookStockRepository;
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.eventPublisher = eventPublisher;
+        this.logDirectory = logDirectory;
+
+        Gauge.builder("bookstore.stock.in-memory.pending-writes", dirtySlots, Set::size)
+                .description("Books whose stock changed in memory and has not been written to the database yet")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        long start = System.nanoTime();
+        stockSnapshotRepository.streamAll(bookStock -> stockSlots.add(bookStock.getId(), bookStock.getName(),
+                bookStock.getQuantity(), bookStock.getVersion()));
+        Log.info("Stock of {} books loaded in memory in {} ms.", stockSlots.size(),
+                (System.nanoTime() - start) / 1_000_000);
+
+        long replayed = replay();
+        changeLog = new StockChangeLog(logDirectory);
+        flush();
+        if (replayed > 0) {
+            Log.info("{} stock changes not written to the database before the last stop were applied again.",
+                    replayed);
+        }
+    }
+
+    @Override
+    public boolean existsEnoughQuantityInStock(List<OrderItemDO> order) {
+        return findItemsWithoutEnoughStock(order).isEmpty();
+    }
+
+    @Override
+    public List<OrderItemDO> findItemsWithoutEnoughStock(List<OrderItemDO> order) {
+        return OrderItems.mergeQuantitiesByBookId(order).entrySet().stream()
+                .filter(requested -> {
+                    int slot = slotOf(requested.getKey());
+                    return slot < 0 || stockSlots.getQuantity(slot) < requested.getValue();
+                })
+                .map(requested -> OrderItemDO.builder()
+                        .bookId(requested.getKey())
+                        .quantity(requested.getValue())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Same semantics as {@link BookStockService#updateStock(List)}: lines are taken one by one and the ones taken
+     * before a failure are kept.
+     */
+    @Override
+    public void updateStock(List<OrderItemDO> order) {
+        try {
+            int[] slots = order.stream().mapToInt(orderItem -> slotOf(orderItem.getBookId())).toArray();
+            List<StockChange> changes = new ArrayList<>();
+            RuntimeException failure = null;
+            long position;
+
+            flushLock.readLock().lock();
+            try {
+                for (int i = 0; i < slots.length && failure == null; i++) {
+                    OrderItemDO orderItem = order.get(i);
+                    long version = slots[i] < 0 ? -1 : stockSlots.take(slots[i], orderItem.getQuantity());
+                    if (slots[i] < 0) {
+                        failure = new RuntimeException("Book with ID " + orderItem.getBookId()
+                                + " not found. There was an error checking if existed enough stock.");
+                    } else if (version < 0) {
+                        failure = new RuntimeException("Not enough stock for book with ID " + orderItem.getBookId()
+                                + ". There was an error checking if existed enough stock.");
+                    } else {
+                        changes.add(new StockChange(orderItem.getBookId(), -orderItem.getQuantity(), version));
+                        dirtySlots.add(slots[i]);
+                    }
+                }
+                // The lines taken before a failure are kept, so they are logged as well
+                position = append(changes);
+            } finally {
+                flushLock.readLock().unlock();
+            }
+
+            awaitDurable(position, changes);
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            eventPublisher.publishEvent(new StockChangedEvent(order.stream().map(OrderItemDO::getBookId).toList()));
+        }
+    }
+
+    @Override
+    public void reserveStock(List<OrderItemDO> order) {
+        Map<String, Integer> quantitiesByBookId = OrderItems.mergeQuantitiesByBookId(order);
+        String[] bookIds = quantitiesByBookId.keySet().toArray(String[]::new);
+        int[] slots = new int[bookIds.length];
+        int[] quantities = new int[bookIds.length];
+        for (int i = 0; i < bookIds.length; i++) {
+            slots[i] = slotOf(bookIds[i]);
+            quantities[i] = quantitiesByBookId.get(bookIds[i]);
+        }
+
+        List<StockChange> changes = new ArrayList<>(slots.length);
+        long position;
+        flushLock.readLock().lock();
+        try {
+            for (int taken = 0; taken < slots.length; taken++) {
+                long version = slots[taken] < 0 ? -1 : stockSlots.take(slots[taken], quantities[taken]);
+                if (version < 0) {
+                    // Nothing was logged yet, so giving the units back is enough
+                    add(slots, quantities, taken);
+                    throw new NotEnoughStockException(bookIds[taken]);
+                }
+                changes.add(new StockChange(bookIds[taken], -quantities[taken], version));
+                dirtySlots.add(slots[taken]);
+            }
+            position = append(changes);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+
+        awaitDurable(position, changes);
+        onRollback(changes);
+        eventPublisher.publishEvent(new StockChangedEvent(quantitiesByBookId.keySet()));
+    }
+
+    @Override
+    public void releaseStock(List<OrderItemDO> order) {
+        Map<String, Integer> quantitiesByBookId = OrderItems.mergeQuantitiesByBookId(order);
+        Map<Integer, Integer> quantitiesBySlot = new LinkedHashMap<>();
+        quantitiesByBookId.forEach((bookId, quantity) -> {
+            int slot = slotOf(bookId);
+            if (slot >= 0) {
+                quantitiesBySlot.put(slot, quantity);
+            }
+        });
+
+        List<StockChange> changes = new ArrayList<>(quantitiesBySlot.size());
+        long position;
+        flushLock.readLock().lock();
+        try {
+            quantitiesBySlot.forEach((slot, quantity) -> {
+                long version = stockSlots.give(slot, quantity);
+                changes.add(new StockChange(stockSlots.getBookId(slot), quantity, version));
+                dirtySlots.add(slot);
+            });
+            position = append(changes);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+
+        awaitDurable(position, changes);
+        onRollback(changes);
+        eventPublisher.publishEvent(new StockChangedEvent(quantitiesByBookId.keySet()));
+    }
+
+    @Override
+    public Optional<BookStock> getStockById(String bookId) {
+        int slot = slotOf(bookId);
+        return slot < 0 ? Optional.empty() : Optional.of(toBookStock(slot));
+    }
+
+    @Override
+    public Map<String, BookStock> getStockByIds(Collection<String> bookIds) {
+        Map<String, BookStock> stockByBookId = new HashMap<>();
+        for (String bookId : bookIds) {
+            int slot = slotOf(bookId);
+            if (slot >= 0) {
+                stockByBookId.put(bookId, toBookStock(slot));
+            }
+        }
+        return stockByBookId;
+    }
+
+    @Override
+    public Optional<Long> getStockVersion(String bookId) {
+        int slot = slotOf(bookId);
+        return slot < 0 ? Optional.empty() : Optional.of(stockSlots.getVersion(slot));
+    }
+
+    /**
+     * Hands the books in the order they were loaded, not sorted by ID.
+     */
+    @Override
+    public void streamAllStock(Consumer<BookStock> consumer) {
+        int size = stockSlots.size();
+        for (int slot = 0; slot < size; slot++) {
+            consumer.accept(toBookStock(slot));
+        }
+    }
+
+    /**
+     * The table is only written by the flush, which would undo any other change to it.
+     */
+    @Override
+    public boolean acceptsExternalWrites() {
+        return false;
+    }
+
+    /**
+     * Writes the quantity and version of every changed book to the database in a single JDBC batch. Books that
+     * change while it runs are written again on the next flush. Flushes never overlap, so the one on shutdown waits
+     * for the scheduled one.
+     */
+    @Scheduled(fixedDelayString = "${bookstore.stock.in-memory.flush-ms:100}")
+    public synchronized void flush() {
+        if (dirtySlots.isEmpty()) {
+            return;
+        }
+
+        List<Integer> slots = new ArrayList<>();
+        List<BookStock> books;
+        long segment = -1;
+        flushLock.writeLock().lock();
+        try {
+            try {
+                segment = changeLog.rotate();
+            } catch (IOException e) {
+                // The stock is still written, the log is only kept
+                Log.error("There was an error starting a new stock change log segment: {}", e.getMessage());
+            }
+            slots.addAll(dirtySlots);
+            dirtySlots.clear();
+            books = slots.stream().map(this::toBookStock).toList();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+
+        try {
+            stockSnapshotRepository.writeQuantities(books);
+            if (segment >= 0) {
+                changeLog.deleteSegmentsUpTo(segment);
+            }
+        } catch (Exception e) {
+            Log.error("There was an error writing the stock of {} books, retrying on the next flush.", slots.size());
+            dirtySlots.addAll(slots);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        if (!dirtySlots.isEmpty()) {
+            Log.error("The stock of {} books could not be written before shutting down, their changes are kept in " +
+                    "the stock change log.", dirtySlots.size());
+        }
+        changeLog.close();
+    }
+
+    /**
+     * Applies the changes of the log newer than the version of their book, which are the ones missing from the
+     * table. Every change has its own version, but they may be logged out of order, so each one is compared with the
+     * version loaded from the table rather than with the one reached so far.
+     *
+     * @return the number of changes applied.
+     */
+    private long replay() throws IOException {
+        Map<Integer, Long> loadedVersions = new HashMap<>();
+        long[] replayed = new long[1];
+        StockChangeLog.read(logDirectory, change -> {
+            int slot = slotOf(change.getBookId());
+            if (slot < 0) {
+                return;
+            }
+            long loadedVersion = loadedVersions.computeIfAbsent(slot, stockSlots::getVersion);
+            if (change.getVersion() > loadedVersion) {
+                stockSlots.restore(slot, change.getUnits(), change.getVersion());
+                dirtySlots.add(slot);
+                replayed[0]++;
+            }
+        });
+        return replayed[0];
+    }
+
+    /**
+     * Appends the changes to the log. Must be called holding the read lock of {@code flushLock}, so the changes end
+     * up in the same segment as the flush that writes them. If they cannot be logged, they are undone.
+     *
+     * @return the position to wait for with {@link #awaitDurable(long, List)}.
+     */
+    private long append(List<StockChange> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        try {
+            return changeLog.append(changes);
+        } catch (IOException e) {
+            undo(changes);
+            throw new UncheckedIOException("The stock change could not be logged.", e);
+        }
+    }
+
+    /**
+     * Waits for the changes to be on disk, undoing them if they could not be forced. The log drops them in that
+     * case, so the undo is not logged either.
+     */
+    private void awaitDurable(long position, List<StockChange> changes) {
+        try {
+            changeLog.awaitDurable(position);
+        } catch (IOException e) {
+            undo(changes);
+            throw new UncheckedIOException("The stock change could not be logged.", e);
+        }
+    }
+
+    private void undo(List<StockChange> changes) {
+        for (StockChange change : changes) {
+            int slot = stockSlots.slotOf(change.getBookId());
+            stockSlots.give(slot, -change.getUnits());
+            dirtySlots.add(slot);
+        }
+    }
+
+    /**
+     * Books missing from memory are looked up in the database once, as they may have been added after startup.
+     *
+     * @return the slot of the book, or -1 if it does not exist.
+     */
+    private int slotOf(String bookId) {
+        int slot = stockSlots.slotOf(bookId);
+        if (slot >= 0 || !Uuids.isUuid(bookId)) {
+            return slot;
+        }
+        return bookStockRepository.findById(bookId)
+                .map(bookStock -> stockSlots.add(bookStock.getId(), bookStock.getName(), bookStock.getQuantity(),
+                        bookStock.getVersion()))
+                .orElse(-1);
+    }
+
+    private BookStock toBookStock(int slot) {
+        // Version first, see StockSlots#getVersion
+        long version = stockSlots.getVersion(slot);
+        return BookStock.builder()
+                .id(stockSlots.getBookId(slot))
+                .name(stockSlots.getName(slot))
+                .quantity(stockSlots.getQuantity(slot))
+                .version(version)
+                .build();
+    }
+
+    /**
+     * Adds the units to the stock of the first {@code count} slots, taking them when negative.
+     */
+    private void add(int[] slots, int[] units, int count) {
+        for (int i = 0; i < count; i++) {
+            stockSlots.give(slots[i], units[i]);
+            dirtySlots.add(slots[i]);
+        }
+    }
+
+    /**
+     * Inside a transaction, undoes the changes if it rolls back. The undo is logged like any other change, as the
+     * changes already are.
+     */
+    private void onRollback(List<StockChange> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || changes.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    revert(changes);
+                }
+            }
+        });
+    }
+
+    /**
+     * If the undo cannot be logged it is kept anyway: the next flush writes it, and only a crash before then would
+     * take the units again.
+     */
+    private void revert(List<StockChange> changes) {
+        List<StockChange> reverts = new ArrayList<>(changes.size());
+        try {
+            long position;
+            flushLock.readLock().lock();
+            try {
+                for (StockChange change : changes) {
+                    int slot = stockSlots.slotOf(change.getBookId());
+                    long version = stockSlots.give(slot, -change.getUnits());
+                    reverts.add(new StockChange(change.getBookId(), -change.getUnits(), version));
+                    dirtySlots.add(slot);
+                }
+                position = changeLog.append(reverts);
+            } finally {
+                flushLock.readLock().unlock();
+            }
+            changeLog.awaitDurable(position);
+        } catch (IOException e) {
+            Log.error("There was an error logging the stock given back by a rolled back transaction: {}",
+                    e.getMessage());
+        }
+    }
+
+}
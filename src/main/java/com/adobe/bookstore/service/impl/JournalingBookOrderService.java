@@ -0,0 +1,367 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.OrderDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.DO.OrderPageDO;
+import com.adobe.bookstore.journal.JournaledOrder;
+import com.adobe.bookstore.journal.OrderJournal;
+import com.adobe.bookstore.model.OrderDeadLetter;
+import com.adobe.bookstore.model.OrderStatus;
+import com.adobe.bookstore.repository.BookOrderHeaderRepository;
+import com.adobe.bookstore.repository.OrderDeadLetterRepository;
+import com.adobe.bookstore.service.IBookOrderService;
+import com.adobe.bookstore.utils.Log;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Acknowledges new orders once they are on disk in the {@link OrderJournal} instead of once they are committed to
+ * the database, and stores them in {@code book_order} and {@code order_item} in the background, in batches.
+ * Enabled with {@code bookstore.orders.journal.enabled}. Everything but order creation is delegated to
+ * {@link BookOrderService}.
+ * <p>
+ * On startup, before any order is accepted, the orders left in the journal by the previous run are stored unless
+ * they already are, so replaying the same journal twice has no effect. Segments are deleted once every order in
+ * them is stored.
+ * <p>
+ * If a batch cannot be stored, its orders are stored one by one. An order still failing after
+ * {@code bookstore.orders.journal.max-attempts} tries is moved to {@code order_dead_letter}, so it does not hold back
+ * the orders journaled after it.
+ * <p>
+ * Orders acknowledged but not stored yet are already returned by {@link #getOrder(String)}, and show up in the
+ * other reads once they are stored, usually a few milliseconds later.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "bookstore.orders.journal.enabled", havingValue = "true")
+public class JournalingBookOrderService implements IBookOrderService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private BookOrderService bookOrderService;
+    private BookOrderHeaderRepository bookOrderHeaderRepository;
+    private OrderDeadLetterRepository orderDeadLetterRepository;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+
+    private Path directory;
+    private int segmentSize;
+    private int batchSize;
+    private long retryIntervalMillis;
+    private int maxAttempts;
+    private Counter deadLetterCounter;
+
+    private OrderJournal orderJournal;
+    private Thread projector;
+    private volatile boolean stopping;
+    /** Orders on disk waiting to be stored, with the segment they are in. */
+    private BlockingQueue<DurableOrders> durableOrders = new LinkedBlockingQueue<>();
+    /** Orders acknowledged and not stored yet. */
+    private Map<String, JournaledOrder> pendingOrders = new ConcurrentHashMap<>();
+
+    public JournalingBookOrderService(BookOrderService bookOrderService,
+                                      BookOrderHeaderRepository bookOrderHeaderRepository,
+                                      OrderDeadLetterRepository orderDeadLetterRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${bookstore.orders.journal.dir:journal}") Path directory,
+                                      @Value("${bookstore.orders.journal.segment-size:64MB}") DataSize segmentSize,
+                                      @Value("${bookstore.orders.journal.batch-size:500}") int batchSize,
+                                      @Value("${bookstore.orders.journal.retry-interval-ms:1000}")
+                                      long retryIntervalMillis,
+                                      @Value("${bookstore.orders.journal.max-attempts:3}") int maxAttempts) {
+        this.bookOrderService = bookOrderService;
+        this.bookOrderHeaderRepository = bookOrderHeaderRepository;
+        this.orderDeadLetterRepository = orderDeadLetterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.batchSize = batchSize;
+        this.retryIntervalMillis = retryIntervalMillis;
+        this.maxAttempts = maxAttempts;
+
+        Gauge.builder("bookstore.orders.journal.pending", pendingOrders, Map::size)
+                .description("Orders acknowledged from the journal and not stored in the database yet")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("bookstore.orders.journal.dead-letters")
+                .description("Journaled orders that could not be stored and were moved to order_dead_letter")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        long start = System.nanoTime();
+        long replayed = replay(directory);
+        OrderJournal.deleteAll(directory);
+        Log.info("{} orders replayed from the journal in {} ms.", replayed, (System.nanoTime() - start) / 1_000_000);
+
+        orderJournal = new OrderJournal(directory, segmentSize,
+                (segment, orders) -> durableOrders.add(new DurableOrders(segment, orders)));
+        projector = new Thread(this::storeDurableOrders, "order-journal-projector");
+        projector.start();
+    }
+
+    /**
+     * Stores the orders of every segment in the directory that are not stored yet. An order that cannot be stored is
+     * moved to {@code order_dead_letter} right away, as the journal is deleted once replayed.
+     *
+     * @return the number of orders read from the journal.
+     */
+    public long replay(Path journalDirectory) throws IOException {
+        List<JournaledOrder> batch = new ArrayList<>();
+        long orders = OrderJournal.read(journalDirectory, order -> {
+            batch.add(order);
+            if (batch.size() == batchSize) {
+                storeOrDeadLetter(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            storeOrDeadLetter(batch);
+        }
+        return orders;
+    }
+
+    /**
+     * Stores what is already in the journal before returning, so nothing acknowledged is left only in memory.
+     * Orders that cannot be stored stay in the journal and are replayed on the next startup.
+     */
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        orderJournal.close();
+        stopping = true;
+        projector.join(TimeUnit.SECONDS.toMillis(30));
+        if (projector.isAlive()) {
+            projector.interrupt();
+            Log.error("{} journaled orders could not be stored before shutting down.", pendingOrders.size());
+        }
+    }
+
+    @Override
+    public String createOrder(List<OrderItemDO> order) {
+        JournaledOrder journaledOrder = new JournaledOrder(UUID.randomUUID().toString(), Instant.now(),
+                BookOrderService.mergeLines(order));
+
+        // Added before it can be stored, so it is never removed before being added
+        pendingOrders.put(journaledOrder.getOrderId(), journaledOrder);
+        try {
+            orderJournal.append(journaledOrder);
+        } catch (IOException e) {
+            pendingOrders.remove(journaledOrder.getOrderId());
+            throw new UncheckedIOException(e);
+        }
+
+        return journaledOrder.getOrderId();
+    }
+
+    @Override
+    public Map<String, List<OrderItemDO>> getOrders() {
+        return bookOrderService.getOrders();
+    }
+
+    @Override
+    public Map<String, Long> getUnitsSoldByBookId() {
+        return bookOrderService.getUnitsSoldByBookId();
+    }
+
+    @Override
+    public String getOrdersVersion() {
+        return bookOrderService.getOrdersVersion();
+    }
+
+    @Override
+    public Optional<OrderDO> getOrder(String orderId) {
+        JournaledOrder pending = pendingOrders.get(orderId);
+        if (pending != null) {
+            return Optional.of(OrderDO.builder()
+                    .orderId(pending.getOrderId())
+                    .createdAt(pending.getCreatedAt())
+                    .status(OrderStatus.CREATED)
+                    .items(pending.getItems().stream()
+                            .sorted(Comparator.comparing(OrderItemDO::getBookId))
+                            .toList())
+                    .build());
+        }
+        return bookOrderService.getOrder(orderId);
+    }
+
+    @Override
+    public OrderPageDO getOrdersPage(String afterOrderId, int limit) {
+        return bookOrderService.getOrdersPage(afterOrderId, limit);
+    }
+
+    @Override
+    public void streamOrders(BiConsumer<String, List<OrderItemDO>> orderConsumer) {
+        bookOrderService.streamOrders(orderConsumer);
+    }
+
+    /**
+     * Runs on the projector thread until the journal is closed and every order on disk has been stored.
+     */
+    private void storeDurableOrders() {
+        List<DurableOrders> taken = new ArrayList<>();
+        while (!stopping || !durableOrders.isEmpty()) {
+            try {
+                DurableOrders first = durableOrders.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                taken.add(first);
+                int orders = first.orders.size();
+                while (orders < batchSize && !durableOrders.isEmpty()) {
+                    DurableOrders next = durableOrders.poll();
+                    taken.add(next);
+                    orders += next.orders.size();
+                }
+
+                List<JournaledOrder> batch = taken.stream().flatMap(durable -> durable.orders.stream()).toList();
+                if (!storeRetrying(batch)) {
+                    return;
+                }
+                batch.forEach(order -> pendingOrders.remove(order.getOrderId()));
+                // Orders come in journal order, so every segment before the last one taken is fully stored
+                orderJournal.deleteSegmentsBefore(taken.get(taken.size() - 1).segment);
+                taken.clear();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                Log.error("There was an error deleting the stored journal segments: {}", e.getMessage());
+                taken.clear();
+            }
+        }
+    }
+
+    /**
+     * Stores the batch, or else its orders one by one, so only the orders that cannot be stored are held back.
+     *
+     * @return {@code false} if the orders could not be stored and the application is stopping.
+     */
+    private boolean storeRetrying(List<JournaledOrder> batch) throws InterruptedException {
+        try {
+            store(batch);
+            return true;
+        } catch (Exception e) {
+            Log.error("There was an error storing {} journaled orders, storing them one by one: {}", batch.size(),
+                    e.getMessage());
+        }
+
+        for (JournaledOrder order : batch) {
+            if (!storeRetrying(order)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retries the order until it is stored or, after {@link #maxAttempts} tries, moved to {@code order_dead_letter}.
+     * If neither works, the database is most likely down, so it keeps retrying rather than dropping the order.
+     *
+     * @return {@code false} if the order could not be stored and the application is stopping.
+     */
+    private boolean storeRetrying(JournaledOrder order) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                store(List.of(order));
+                return true;
+            } catch (Exception e) {
+                Log.error("There was an error storing journaled order {}: {}", order.getOrderId(), e.getMessage());
+                if (attempt >= maxAttempts && deadLetter(order, e)) {
+                    return true;
+                }
+            }
+            if (stopping) {
+                return false;
+            }
+            Thread.sleep(retryIntervalMillis);
+        }
+    }
+
+    private void storeOrDeadLetter(List<JournaledOrder> batch) {
+        try {
+            store(batch);
+        } catch (Exception batchError) {
+            for (JournaledOrder order : batch) {
+                try {
+                    store(List.of(order));
+                } catch (Exception e) {
+                    if (!deadLetter(order, e)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the order is now in {@code order_dead_letter}.
+     */
+    private boolean deadLetter(JournaledOrder order, Exception cause) {
+        try {
+            orderDeadLetterRepository.save(OrderDeadLetter.builder()
+                    .orderId(order.getOrderId())
+                    .createdAt(order.getCreatedAt())
+                    .items(objectMapper.writeValueAsString(order.getItems()))
+                    .lastError(truncate(cause.getMessage()))
+                    .failedAt(Instant.now())
+                    .build());
+        } catch (JsonProcessingException | RuntimeException e) {
+            Log.error("There was an error moving journaled order {} to the dead letters: {}", order.getOrderId(),
+                    e.getMessage());
+            return false;
+        }
+        deadLetterCounter.increment();
+        Log.error("Journaled order {} could not be stored and was moved to the dead letters: {}", order.getOrderId(),
+                order.getItems());
+        return true;
+    }
+
+    private String truncate(String message) {
+        return message == null || message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Stores the orders not stored yet in a single transaction.
+     */
+    private void store(List<JournaledOrder> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> stored = new HashSet<>();
+            bookOrderHeaderRepository.findAllById(batch.stream().map(JournaledOrder::getOrderId).toList())
+                    .forEach(bookOrder -> stored.add(bookOrder.getId()));
+
+            batch.stream()
+                    .filter(order -> !stored.contains(order.getOrderId()))
+                    .forEach(order -> bookOrderService.saveOrder(order.getOrderId(), order.getCreatedAt(),
+                            order.getItems()));
+        });
+    }
+
+    private record DurableOrders(long segment, List<JournaledOrder> orders) {
+    }
+
+}
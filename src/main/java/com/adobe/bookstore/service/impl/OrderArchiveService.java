@@ -0,0 +1,134 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.repository.OrderArchiveRepository;
+import com.adobe.bookstore.service.IOrderArchiveService;
+import com.adobe.bookstore.utils.Log;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@code book_order} and {@code order_item} bounded by moving the old orders to {@code book_order_archive}
+ * and {@code order_item_archive} in the background.
+ * <p>
+ * Each batch is a short transaction of its own, followed by a pause, so the job never holds locks or a connection
+ * for long and order creation keeps most of the database while it runs. The job runs on a thread of its own rather
+ * than on Spring's scheduler, whose single thread also drives the stock events, the stock update retries and the
+ * in-memory stock flush: a run sleeps between its batches and would hold all of them back.
+ */
+@Service
+public class OrderArchiveService implements IOrderArchiveService {
+
+    private OrderArchiveRepository orderArchiveRepository;
+    private TransactionTemplate transactionTemplate;
+
+    private boolean enabled;
+    private Duration maxAge;
+    private int batchSize;
+    private long pauseMillis;
+    private int maxBatches;
+
+    private Counter archivedCounter;
+    private ScheduledExecutorService scheduler;
+
+    public OrderArchiveService(OrderArchiveRepository orderArchiveRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${bookstore.orders.archive.enabled:true}") boolean enabled,
+                               @Value("${bookstore.orders.archive.max-age:90d}") Duration maxAge,
+                               @Value("${bookstore.orders.archive.batch-size:500}") int batchSize,
+                               @Value("${bookstore.orders.archive.pause-ms:50}") long pauseMillis,
+                               @Value("${bookstore.orders.archive.max-batches:100}") int maxBatches,
+                               @Value("${bookstore.orders.archive.interval-ms:60000}") long intervalMs) {
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatches = maxBatches;
+
+        this.archivedCounter = Counter.builder("bookstore.orders.archived")
+                .description("Orders moved to the archive tables")
+                .register(meterRegistry);
+
+        if (enabled) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("order-archiver-"));
+            this.scheduler.scheduleWithFixedDelay(this::archiveOnSchedule, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            // Interrupts the pause between batches, which ends the run
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void archiveOnSchedule() {
+        try {
+            long archived = archiveOldOrders();
+            if (archived > 0) {
+                Log.info("{} orders archived.", archived);
+            }
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+        }
+    }
+
+    @Override
+    public long archiveOldOrders() {
+        // The same cutoff for every batch, so a run always ends even if orders keep getting old while it runs
+        Instant cutoff = Instant.now().minus(maxAge);
+        long archived = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            if (batch > 0 && !pause()) {
+                break;
+            }
+
+            int orders = transactionTemplate.execute(status -> {
+                List<String> orderIds = orderArchiveRepository.findOrderIdsCreatedBefore(cutoff, batchSize);
+                if (orderIds.isEmpty()) {
+                    return 0;
+                }
+                return orderArchiveRepository.moveToArchive(orderIds, Instant.now());
+            });
+
+            archived += orders;
+            archivedCounter.increment(orders);
+            if (orders < batchSize) {
+                break;
+            }
+        }
+
+        return archived;
+    }
+
+    /**
+     * @return {@code false} if the thread was interrupted, meaning the run has to stop.
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
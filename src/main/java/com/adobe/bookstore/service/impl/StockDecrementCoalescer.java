@@ -0,0 +1,262 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.event.StockChangedEvent;
+import com.adobe.bookstore.exception.NotEnoughStockException;
+import com.adobe.bookstore.repository.BookStockRepository;
+import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.OrderItems;
+import com.adobe.bookstore.utils.Uuids;
+import com.adobe.bookstore.utils.VirtualThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Groups the stock decrements requested for the same book and applies them every tick with a single conditional
+ * {@code UPDATE}, instead of one transaction per order fighting for the same row lock.
+ * <p>
+ * A decrement is only acknowledged once the transaction that applies it has committed, so a crash can lose pending
+ * requests, whose callers get an error, but never an acknowledged one.
+ */
+@Component
+public class StockDecrementCoalescer {
+
+    private final BookStockRepository bookStockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long timeoutMs;
+
+    private final ConcurrentHashMap<String, PendingDecrements> pendingByBookId = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService flushExecutor;
+
+    private final Counter requestCounter;
+    private final Counter flushCounter;
+
+    public StockDecrementCoalescer(BookStockRepository bookStockRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${bookstore.stock.coalescing.enabled:false}") boolean enabled,
+                                   @Value("${bookstore.stock.coalescing.tick-ms:2}") long tickMs,
+                                   @Value("${bookstore.stock.coalescing.flush-threads:4}") int flushThreads,
+                                   @Value("${bookstore.stock.coalescing.timeout-ms:5000}") long timeoutMs,
+                                   @Value("${bookstore.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bookStockRepository = bookStockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+
+        this.requestCounter = Counter.builder("bookstore.stock.coalescing.requests")
+                .description("Stock decrements requested through the coalescer")
+                .register(meterRegistry);
+        this.flushCounter = Counter.builder("bookstore.stock.coalescing.flushes")
+                .description("Transactions used to apply the coalesced decrements")
+                .register(meterRegistry);
+        Gauge.builder("bookstore.stock.coalescing.pending-books", pendingByBookId, Map::size)
+                .description("Books with decrements waiting for a flush")
+                .register(meterRegistry);
+
+        if (enabled) {
+            this.ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("stock-coalescer-"));
+            this.flushExecutor = Executors.newFixedThreadPool(flushThreads,
+                    VirtualThreads.threadFactory("stock-coalescer-flush-", virtualThreads));
+            this.ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.ticker = null;
+            this.flushExecutor = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes the units of every line of the order from the stock. If any line cannot be served, the lines already
+     * taken are given back.
+     *
+     * @throws NotEnoughStockException if at least one book does not exist or does not have the required quantity.
+     */
+    public void reserve(List<OrderItemDO> order) {
+        Map<String, Integer> quantitiesByBookId = OrderItems.mergeQuantitiesByBookId(order);
+        Map<String, CompletableFuture<Boolean>> results = new LinkedHashMap<>();
+        quantitiesByBookId.forEach((bookId, quantity) -> results.put(bookId, decrement(bookId, quantity)));
+
+        List<OrderItemDO> reserved = new ArrayList<>();
+        String rejectedBookId = null;
+        RuntimeException failure = null;
+
+        for (Map.Entry<String, CompletableFuture<Boolean>> result : results.entrySet()) {
+            String bookId = result.getKey();
+            int quantity = quantitiesByBookId.get(bookId);
+            try {
+                if (result.getValue().get(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    reserved.add(OrderItemDO.builder().bookId(bookId).quantity(quantity).build());
+                } else if (rejectedBookId == null) {
+                    rejectedBookId = bookId;
+                }
+            } catch (TimeoutException e) {
+                // The decrement may still be applied later; if so, its units are given back
+                result.getValue().thenAccept(applied -> {
+                    if (applied) {
+                        release(List.of(OrderItemDO.builder().bookId(bookId).quantity(quantity).build()));
+                    }
+                });
+                failure = new IllegalStateException("Timed out reserving stock for book with ID " + bookId + ".");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new IllegalStateException("Interrupted reserving stock for book with ID " + bookId + ".");
+            } catch (ExecutionException e) {
+                failure = new IllegalStateException("Error reserving stock for book with ID " + bookId + ".",
+                        e.getCause());
+            }
+        }
+
+        if (rejectedBookId == null && failure == null) {
+            return;
+        }
+
+        if (!reserved.isEmpty()) {
+            release(reserved);
+        }
+        throw failure != null ? failure : new NotEnoughStockException(rejectedBookId);
+    }
+
+    private CompletableFuture<Boolean> decrement(String bookId, int quantity) {
+        if (!Uuids.isUuid(bookId)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        PendingDecrement request = new PendingDecrement(quantity);
+        // Added under the lock of the entry, so a flush cannot remove it in between
+        pendingByBookId.compute(bookId, (id, pending) -> {
+            PendingDecrements decrements = pending != null ? pending : new PendingDecrements();
+            decrements.requests.add(request);
+            return decrements;
+        });
+        requestCounter.increment();
+        return request.result;
+    }
+
+    private void tick() {
+        pendingByBookId.forEach((bookId, pending) -> {
+            // At most one flush per book is in flight, the next tick picks up whatever arrived meanwhile
+            if (!pending.requests.isEmpty() && pending.flushing.compareAndSet(false, true)) {
+                flushExecutor.execute(() -> flush(bookId, pending));
+            }
+        });
+    }
+
+    private void flush(String bookId, PendingDecrements pending) {
+        List<PendingDecrement> batch = new ArrayList<>();
+        try {
+            for (PendingDecrement request = pending.requests.poll(); request != null; request = pending.requests.poll()) {
+                batch.add(request);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            flushCounter.increment();
+            boolean[] admitted = transactionTemplate.execute(status -> apply(bookId, batch));
+
+            // Acknowledged only now that the transaction has committed
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(admitted[i]);
+            }
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+            batch.forEach(request -> request.result.completeExceptionally(e));
+        } finally {
+            // Books are only kept while they have requests, so the ticks do not walk every book ever ordered
+            pendingByBookId.computeIfPresent(bookId, (id, current) ->
+                    current == pending && current.requests.isEmpty() ? null : current);
+            pending.flushing.set(false);
+        }
+    }
+
+    private boolean[] apply(String bookId, List<PendingDecrement> batch) {
+        boolean[] admitted = new boolean[batch.size()];
+        // Summed as a long, as requests of different orders can add up to more than an int
+        long total = batch.stream().mapToLong(request -> request.quantity).sum();
+
+        if (total <= Integer.MAX_VALUE && bookStockRepository.decrementQuantity(bookId, (int) total) == 1) {
+            Arrays.fill(admitted, true);
+        } else {
+            // Not everything fits: admit requests in arrival order while there are units left
+            Integer available = bookStockRepository.findQuantityForUpdate(bookId);
+            int remaining = available == null ? 0 : available;
+            int admittedTotal = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                int quantity = batch.get(i).quantity;
+                if (quantity <= remaining) {
+                    admitted[i] = true;
+                    remaining -= quantity;
+                    admittedTotal += quantity;
+                }
+            }
+            if (admittedTotal > 0) {
+                bookStockRepository.decrementQuantity(bookId, admittedTotal);
+            }
+        }
+
+        eventPublisher.publishEvent(new StockChangedEvent(List.of(bookId)));
+        return admitted;
+    }
+
+    private void release(List<OrderItemDO> items) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                items.forEach(item -> bookStockRepository.incrementQuantity(item.getBookId(), item.getQuantity()));
+                eventPublisher.publishEvent(new StockChangedEvent(items.stream().map(OrderItemDO::getBookId).toList()));
+            });
+        } catch (Exception e) {
+            Log.error("Reserved stock could not be released. Items that must be given back: {}", items);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        ticker.shutdown();
+        ticker.awaitTermination(1, TimeUnit.SECONDS);
+        pendingByBookId.forEach((bookId, pending) -> {
+            if (pending.flushing.compareAndSet(false, true)) {
+                flushExecutor.execute(() -> flush(bookId, pending));
+            }
+        });
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static final class PendingDecrements {
+        private final Queue<PendingDecrement> requests = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushing = new AtomicBoolean();
+    }
+
+    private static final class PendingDecrement {
+        private final int quantity;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingDecrement(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.adobe.bookstore.service.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded buffer of the events waiting to be sent to one subscriber. When it is full, the buffered events are
+ * dropped and the subscriber is flagged to get a snapshot instead, so a slow subscriber never makes the producer
+ * wait nor grows the memory used.
+ */
+public class StockEventBuffer<T> {
+
+    private final ArrayBlockingQueue<T> events;
+    private final AtomicBoolean snapshotRequired = new AtomicBoolean(true);
+
+    public StockEventBuffer(int capacity) {
+        this.events = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @return {@code false} if the buffer was full and the subscriber has to get a snapshot.
+     */
+    public boolean offer(T event) {
+        if (events.offer(event)) {
+            return true;
+        }
+        snapshotRequired.set(true);
+        events.clear();
+        return false;
+    }
+
+    /**
+     * Tells whether a snapshot has to be sent before the next events, clearing the flag. The buffered events are
+     * dropped, as the snapshot supersedes them.
+     */
+    public boolean takeSnapshotRequest() {
+        if (!snapshotRequired.getAndSet(false)) {
+            return false;
+        }
+        events.clear();
+        return true;
+    }
+
+    public T poll() {
+        return events.poll();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty() && !snapshotRequired.get();
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.StockDeltaDO;
+import com.adobe.bookstore.event.StockChangedEvent;
+import com.adobe.bookstore.exception.TooManySubscribersException;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IStockEventService;
+import com.adobe.bookstore.utils.VirtualThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the stock changes to Server-Sent Events subscribers.
+ * <p>
+ * Committed changes only mark their books as changed. Every tick, the current stock of the changed books is read
+ * with a single query and a delta per book is put in the buffer of every interested subscriber, so a burst of
+ * changes to the same book is sent once. Buffers are bounded: a subscriber that does not keep up loses its pending
+ * deltas and gets a snapshot instead (see {@link StockEventBuffer}). The snapshot of the subscribers that follow every
+ * book is streamed from the stock service in {@code snapshot} events of up to {@value #SNAPSHOT_CHUNK_SIZE} books, so
+ * the catalog is never held in memory. Events are written by a small pool of sender
+ * threads, and subscribers hold no thread while they wait, so the number of subscribers is only limited by
+ * {@code bookstore.stock.events.max-subscribers} and the connections accepted by the server.
+ * <p>
+ * Deltas carry the version of the stock. A delta read before a snapshot may arrive after it, so clients must
+ * ignore the deltas with a version lower than the one they already have.
+ */
+@Service
+public class StockEventService implements IStockEventService {
+
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String STOCK_EVENT = "stock";
+    static final int SNAPSHOT_CHUNK_SIZE = 500;
+
+    private final IBookStockService bookStockService;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final ExecutorService senderExecutor;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<String> changedBookIds = ConcurrentHashMap.newKeySet();
+    private final Counter overflowCounter;
+
+    public StockEventService(IBookStockService bookStockService,
+                             MeterRegistry meterRegistry,
+                             @Value("${bookstore.stock.events.buffer-size:256}") int bufferSize,
+                             @Value("${bookstore.stock.events.max-subscribers:10000}") int maxSubscribers,
+                             @Value("${bookstore.stock.events.timeout:30m}") Duration timeout,
+                             @Value("${bookstore.stock.events.sender-threads:4}") int senderThreads,
+                             @Value("${bookstore.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bookStockService = bookStockService;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeout.toMillis();
+        this.senderExecutor = Executors.newFixedThreadPool(senderThreads,
+                VirtualThreads.threadFactory("stock-events-", virtualThreads));
+
+        Gauge.builder("bookstore.stock.events.subscribers", subscribers, Set::size)
+                .description("Open stock event streams")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("bookstore.stock.events.overflows")
+                .description("Times a subscriber fell behind and its pending deltas were replaced by a snapshot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(Collection<String> bookIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new TooManySubscribersException(maxSubscribers);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, bookIds.isEmpty() ? null : Set.copyOf(bookIds),
+                new StockEventBuffer<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        subscribers.add(subscriber);
+        // The buffer starts asking for a snapshot
+        scheduleSend(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            changedBookIds.addAll(event.getBookIds());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.stock.events.tick-ms:100}")
+    public void publishChanges() {
+        if (changedBookIds.isEmpty()) {
+            return;
+        }
+
+        List<String> bookIds = new ArrayList<>();
+        Iterator<String> iterator = changedBookIds.iterator();
+        while (iterator.hasNext()) {
+            bookIds.add(iterator.next());
+            iterator.remove();
+        }
+
+        Collection<BookStock> changedStock = bookStockService.getStockByIds(bookIds).values();
+        for (Subscriber subscriber : subscribers) {
+            boolean offered = false;
+            for (BookStock bookStock : changedStock) {
+                if (subscriber.follows(bookStock.getId())) {
+                    if (!subscriber.buffer.offer(toDelta(bookStock))) {
+                        overflowCounter.increment();
+                    }
+                    offered = true;
+                }
+            }
+            if (offered) {
+                scheduleSend(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senderExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void scheduleSend(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senderExecutor.execute(() -> send(subscriber));
+        }
+    }
+
+    /**
+     * Only one sender at a time writes to a subscriber. Events buffered while it finishes are picked up by
+     * scheduling it again.
+     */
+    private void send(Subscriber subscriber) {
+        try {
+            if (subscriber.buffer.takeSnapshotRequest()) {
+                sendSnapshot(subscriber);
+            }
+            StockDeltaDO delta;
+            while ((delta = subscriber.buffer.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event().name(STOCK_EVENT).data(delta));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the stream already completed
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+
+        if (!subscriber.buffer.isEmpty()) {
+            scheduleSend(subscriber);
+        }
+    }
+
+    private void sendSnapshot(Subscriber subscriber) throws IOException {
+        if (subscriber.bookIds != null) {
+            List<StockDeltaDO> snapshot = bookStockService.getStockByIds(subscriber.bookIds).values().stream()
+                    .map(this::toDelta)
+                    .toList();
+            subscriber.emitter.send(SseEmitter.event().name(SNAPSHOT_EVENT).data(snapshot));
+            return;
+        }
+
+        List<StockDeltaDO> chunk = new ArrayList<>(SNAPSHOT_CHUNK_SIZE);
+        AtomicBoolean sent = new AtomicBoolean();
+        try {
+            bookStockService.streamAllStock(bookStock -> {
+                chunk.add(toDelta(bookStock));
+                if (chunk.size() == SNAPSHOT_CHUNK_SIZE) {
+                    sendSnapshotChunk(subscriber.emitter, chunk);
+                    sent.set(true);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // An empty catalog still gets its snapshot
+        if (!chunk.isEmpty() || !sent.get()) {
+            sendSnapshotChunk(subscriber.emitter, chunk);
+        }
+    }
+
+    /**
+     * Sends a copy of the chunk and clears it. The emitter keeps the data of the events sent before the response is
+     * ready, so the chunk itself cannot be reused.
+     */
+    private void sendSnapshotChunk(SseEmitter emitter, List<StockDeltaDO> chunk) {
+        try {
+            emitter.send(SseEmitter.event().name(SNAPSHOT_EVENT).data(List.copyOf(chunk)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.clear();
+    }
+
+    private StockDeltaDO toDelta(BookStock bookStock) {
+        return StockDeltaDO.builder()
+                .bookId(bookStock.getId())
+                .quantity(bookStock.getQuantity())
+                .version(bookStock.getVersion())
+                .build();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        /** {@code null} to follow every book. */
+        private final Set<String> bookIds;
+        private final StockEventBuffer<StockDeltaDO> buffer;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Set<String> bookIds, StockEventBuffer<StockDeltaDO> buffer) {
+            this.emitter = emitter;
+            this.bookIds = bookIds;
+            this.buffer = buffer;
+        }
+
+        private boolean follows(String bookId) {
+            return bookIds == null || bookIds.contains(bookId);
+        }
+    }
+
+}
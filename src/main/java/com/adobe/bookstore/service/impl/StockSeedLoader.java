@@ -0,0 +1,56 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.repository.StockSnapshotRepository;
+import com.adobe.bookstore.utils.Log;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads the catalog from the CSV file in {@code bookstore.stock.seed-file}, in the format of the stock export, with
+ * a single {@code CSVREAD} statement instead of one {@code INSERT} per book. It runs once the schema exists and
+ * before the web server starts, so no request sees a partially loaded catalog.
+ * <p>
+ * With {@code bookstore.stock.seed-only-if-empty}, as in the {@code prod} profile whose database outlives restarts,
+ * the file is only loaded into an empty table, so restarting does not overwrite the stock sold since.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "bookstore.stock.seed-file")
+public class StockSeedLoader {
+
+    private StockSnapshotRepository stockSnapshotRepository;
+    private Path seedFile;
+    private boolean onlyIfEmpty;
+
+    public StockSeedLoader(StockSnapshotRepository stockSnapshotRepository,
+                           @Value("${bookstore.stock.seed-file}") Path seedFile,
+                           @Value("${bookstore.stock.seed-only-if-empty:false}") boolean onlyIfEmpty) {
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.seedFile = seedFile;
+        this.onlyIfEmpty = onlyIfEmpty;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.isReadable(seedFile)) {
+            throw new IllegalStateException("The stock seed file " + seedFile + " cannot be read.");
+        }
+
+        boolean empty = stockSnapshotRepository.isEmpty();
+        if (onlyIfEmpty && !empty) {
+            Log.info("Stock seed skipped, the catalog is already loaded.");
+            return;
+        }
+
+        long start = System.nanoTime();
+        int rows = stockSnapshotRepository.loadCsvFile(seedFile.toAbsolutePath().toString(), empty);
+        Log.info("Stock seeded with {} books in {} ms.", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.StockImportResultDO;
+import com.adobe.bookstore.event.StockChangedEvent;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.StockSnapshotRepository;
+import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IStockSnapshotService;
+import com.adobe.bookstore.utils.Csv;
+import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.Uuids;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports and imports the stock as CSV without holding the whole catalog in memory: the export writes the books
+ * while the stock service hands them over, and the import reads the lines in batches of
+ * {@code bookstore.stock.snapshot.batch-size}, each one written with a single JDBC batch in its own transaction. A
+ * failed import keeps the batches already committed, and as writes only set values, importing the same file again
+ * completes it.
+ * <p>
+ * The export reads the stock engine in use, so it sees the stock kept in memory before it is written back. The
+ * import writes {@code book_stock} directly, so it is refused while the engine does not accept such writes.
+ */
+@Service
+public class StockSnapshotService implements IStockSnapshotService {
+
+    static final String HEADER = "id,name,quantity";
+
+    private StockSnapshotRepository stockSnapshotRepository;
+    private IBookStockService bookStockService;
+    private TransactionTemplate transactionTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private int batchSize;
+
+    public StockSnapshotService(StockSnapshotRepository stockSnapshotRepository,
+                                IBookStockService bookStockService,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${bookstore.stock.snapshot.batch-size:1000}") int batchSize) {
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.bookStockService = bookStockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public long exportStock(OutputStream outputStream) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long[] written = {0};
+        writer.write(HEADER);
+        writer.newLine();
+        try {
+            bookStockService.streamAllStock(book -> {
+                try {
+                    writer.write(Csv.formatLine(book.getId(), book.getName(), book.getQuantity()));
+                    writer.newLine();
+                    written[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+
+        Log.info("Stock exported, {} books.", written[0]);
+        return written[0];
+    }
+
+    @Override
+    public StockImportResultDO importStock(InputStream inputStream, boolean delta) throws IOException {
+        if (!bookStockService.acceptsExternalWrites()) {
+            throw new IllegalStateException("The stock cannot be imported while it is kept in memory.");
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null || !header.strip().equals(HEADER)) {
+            throw new IllegalArgumentException("The first line must be the header " + HEADER + ".");
+        }
+
+        long read = 0;
+        long changed = 0;
+        long invalid = 0;
+        List<BookStock> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            read++;
+
+            BookStock book = parse(line);
+            if (book == null) {
+                invalid++;
+                continue;
+            }
+
+            batch.add(book);
+            if (batch.size() == batchSize) {
+                changed += apply(batch, delta);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            changed += apply(batch, delta);
+        }
+
+        Log.info("Stock imported, {} books changed.", changed);
+        return StockImportResultDO.builder()
+                .read(read)
+                .changed(changed)
+                .invalid(invalid)
+                .build();
+    }
+
+    /**
+     * Writes a batch, letting the caches and subscribers know about the books that changed once it commits.
+     *
+     * @return the number of books that changed.
+     */
+    private int apply(List<BookStock> batch, boolean delta) {
+        return transactionTemplate.execute(status -> {
+            int[] counts = delta
+                    ? stockSnapshotRepository.updateChangedQuantities(batch)
+                    : stockSnapshotRepository.upsertAll(batch);
+
+            List<String> changedBookIds = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    changedBookIds.add(batch.get(i).getId());
+                }
+            }
+            if (!changedBookIds.isEmpty()) {
+                eventPublisher.publishEvent(new StockChangedEvent(changedBookIds));
+            }
+            return changedBookIds.size();
+        });
+    }
+
+    /**
+     * @return {@code null} if the line does not have a UUID, a name and a non-negative quantity.
+     */
+    private BookStock parse(String line) {
+        try {
+            List<String> fields = Csv.parseLine(line);
+            if (fields.size() != 3 || !Uuids.isUuid(fields.get(0))) {
+                return null;
+            }
+            int quantity = Integer.parseInt(fields.get(2).strip());
+            if (quantity < 0) {
+                return null;
+            }
+            return BookStock.builder()
+                    .id(fields.get(0))
+                    .name(fields.get(1))
+                    .quantity(quantity)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
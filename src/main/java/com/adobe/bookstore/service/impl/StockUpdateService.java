@@ -0,0 +1,201 @@
+package com.adobe.bookstore.service.impl;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.model.StockUpdateRetry;
+import com.adobe.bookstore.repository.StockUpdateRetryRepository;
+import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IStockUpdateService;
+import com.adobe.bookstore.utils.Log;
+import com.adobe.bookstore.utils.VirtualThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies stock updates on a dedicated, bounded pool. When the queue is full the caller runs the update itself,
+ * which slows down producers instead of piling up work. Updates that fail, that are still queued when the
+ * application stops or that are submitted while it stops, are stored in the {@code stock_update_retry} table and
+ * replayed periodically.
+ */
+@Service
+public class StockUpdateService implements IStockUpdateService {
+
+    private static final int RETRY_BATCH_SIZE = 100;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private IBookStockService bookStockService;
+    private StockUpdateRetryRepository stockUpdateRetryRepository;
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor executor;
+
+    private Timer lagTimer;
+    private Timer durationTimer;
+    private Counter failureCounter;
+    private AtomicLong pendingRetries = new AtomicLong();
+
+    public StockUpdateService(IBookStockService bookStockService,
+                              StockUpdateRetryRepository stockUpdateRetryRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${bookstore.stock.updates.threads:2}") int threads,
+                              @Value("${bookstore.stock.updates.queue-capacity:1000}") int queueCapacity,
+                              @Value("${bookstore.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bookStockService = bookStockService;
+        this.stockUpdateRetryRepository = stockUpdateRetryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), VirtualThreads.threadFactory("stock-update-", virtualThreads),
+                this::rejectRelease);
+
+        Gauge.builder("bookstore.stock.updates.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Stock updates waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("bookstore.stock.updates.retry.pending", pendingRetries, AtomicLong::get)
+                .description("Failed stock updates waiting to be replayed")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("bookstore.stock.updates.lag")
+                .description("Time from submitting a stock update until it starts running")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("bookstore.stock.updates.duration")
+                .description("Time to apply a stock update once it starts running")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("bookstore.stock.updates.failures")
+                .description("Stock updates that failed, replays included")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void releaseStockAsync(List<OrderItemDO> order) {
+        executor.execute(new ReleaseTask(order, System.nanoTime()));
+    }
+
+    @Scheduled(initialDelayString = "${bookstore.stock.updates.retry-interval-ms:5000}",
+            fixedDelayString = "${bookstore.stock.updates.retry-interval-ms:5000}")
+    public void retryFailedUpdates() {
+        List<StockUpdateRetry> retries = stockUpdateRetryRepository.findAllByOrderByIdAsc(
+                PageRequest.of(0, RETRY_BATCH_SIZE));
+
+        for (StockUpdateRetry retry : retries) {
+            try {
+                // With the JPA stock, applying the update and removing it from the table in one transaction
+                // applies it exactly once. The in-memory stock is changed outside the transaction, so there it is
+                // applied again if the delete rolls back.
+                transactionTemplate.executeWithoutResult(status -> {
+                    bookStockService.releaseStock(List.of(OrderItemDO.builder()
+                            .bookId(retry.getBookId())
+                            .quantity(retry.getQuantity())
+                            .build()));
+                    stockUpdateRetryRepository.deleteById(retry.getId());
+                });
+                Log.info("Stock update replayed successfully for book with ID {}.", retry.getBookId());
+            } catch (Exception e) {
+                failureCounter.increment();
+                Log.error(e.getMessage());
+                recordFailedAttempt(retry, e);
+            }
+        }
+
+        pendingRetries.set(stockUpdateRetryRepository.count());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow().forEach(task -> storeForRetry(((ReleaseTask) task).order, null));
+        }
+    }
+
+    /**
+     * Runs the update in the caller while the pool is saturated. Once the pool is shut down,
+     * {@link ThreadPoolExecutor.CallerRunsPolicy} would discard it, so it is stored for retry instead.
+     */
+    private void rejectRelease(Runnable task, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            storeForRetry(((ReleaseTask) task).order, null);
+        } else {
+            task.run();
+        }
+    }
+
+    private void release(ReleaseTask task) {
+        long startedAt = System.nanoTime();
+        lagTimer.record(startedAt - task.submittedAt, TimeUnit.NANOSECONDS);
+        try {
+            bookStockService.releaseStock(task.order);
+            Log.info("Reserved stock released.");
+        } catch (Exception e) {
+            failureCounter.increment();
+            Log.error(e.getMessage());
+            storeForRetry(task.order, e);
+        } finally {
+            durationTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void storeForRetry(List<OrderItemDO> order, Exception cause) {
+        List<StockUpdateRetry> retries = order.stream()
+                .map(orderItem -> StockUpdateRetry.builder()
+                        .bookId(orderItem.getBookId())
+                        .quantity(orderItem.getQuantity())
+                        .attempts(cause == null ? 0 : 1)
+                        .lastError(cause == null ? null : truncate(cause.getMessage()))
+                        .createdAt(Instant.now())
+                        .build())
+                .toList();
+
+        try {
+            stockUpdateRetryRepository.saveAll(retries);
+            pendingRetries.addAndGet(retries.size());
+        } catch (Exception e) {
+            Log.error("The stock update could not be stored for retry. Items that must be given back: {}", order);
+        }
+    }
+
+    private void recordFailedAttempt(StockUpdateRetry retry, Exception cause) {
+        try {
+            retry.setAttempts(retry.getAttempts() + 1);
+            retry.setLastError(truncate(cause.getMessage()));
+            stockUpdateRetryRepository.save(retry);
+        } catch (Exception e) {
+            Log.error(e.getMessage());
+        }
+    }
+
+    private String truncate(String message) {
+        return message == null || message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private final class ReleaseTask implements Runnable {
+
+        private final List<OrderItemDO> order;
+        private final long submittedAt;
+
+        private ReleaseTask(List<OrderItemDO> order, long submittedAt) {
+            this.order = order;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            release(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.adobe.bookstore.utils;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary format for orders, an alternative to JSON for clients that send or read many of them.
+ * <p>
+ * IDs are written as the 16 bytes of their UUID, most significant first, and counts and quantities as unsigned
+ * varints (7 bits per byte, least significant group first). An order is its number of lines followed by a book ID
+ * and a quantity per line, and a list of orders is the number of orders followed by an order ID and an order each.
+ * Only IDs in the canonical lowercase UUID form can be written, so that reading them back gives the same string.
+ */
+public class BinaryOrders {
+
+    public static final String MEDIA_TYPE = "application/x-bookstore-order";
+
+    private static final int UUID_SIZE = 16;
+    /** Smallest line: a UUID and a single byte quantity. */
+    private static final int MIN_LINE_SIZE = UUID_SIZE + 1;
+
+    private BinaryOrders() {
+    }
+
+    /**
+     * Reads the lines of an order straight from the buffer.
+     *
+     * @throws IllegalArgumentException if the buffer does not hold exactly one well-formed order.
+     */
+    public static List<OrderItemDO> readOrder(ByteBuffer buffer) {
+        try {
+            List<OrderItemDO> order = readLines(buffer);
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("The order has trailing bytes.");
+            }
+            return order;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The order is truncated.");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if a book ID is not a UUID or a quantity is negative.
+     */
+    public static byte[] writeOrder(List<OrderItemDO> order) {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + order.size() * (UUID_SIZE + 5));
+        writeLines(buffer, order);
+        return toBytes(buffer);
+    }
+
+    /**
+     * @throws IllegalArgumentException if an ID is not a UUID or a quantity is negative.
+     */
+    public static byte[] writeOrders(Map<String, List<OrderItemDO>> orders) {
+        int size = 5;
+        for (List<OrderItemDO> order : orders.values()) {
+            size += UUID_SIZE + 5 + order.size() * (UUID_SIZE + 5);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        writeVarint(buffer, orders.size());
+        orders.forEach((orderId, order) -> {
+            writeUuid(buffer, orderId);
+            writeLines(buffer, order);
+        });
+        return toBytes(buffer);
+    }
+
+    /**
+     * Reads a list written by {@link #writeOrders(Map)}, for clients of the format.
+     *
+     * @throws IllegalArgumentException if the buffer does not hold a well-formed list of orders.
+     */
+    public static Map<String, List<OrderItemDO>> readOrders(ByteBuffer buffer) {
+        try {
+            int count = readVarint(buffer);
+            Map<String, List<OrderItemDO>> orders = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                orders.put(readUuid(buffer), readLines(buffer));
+            }
+            return orders;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The orders are truncated.");
+        }
+    }
+
+    private static List<OrderItemDO> readLines(ByteBuffer buffer) {
+        int lines = readVarint(buffer);
+        // Checked before allocating, so a forged count cannot take the memory
+        if (lines > buffer.remaining() / MIN_LINE_SIZE) {
+            throw new IllegalArgumentException("The order has more lines than bytes to read them.");
+        }
+
+        List<OrderItemDO> order = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            order.add(OrderItemDO.builder().bookId(readUuid(buffer)).quantity(readVarint(buffer)).build());
+        }
+        return order;
+    }
+
+    private static void writeLines(ByteBuffer buffer, List<OrderItemDO> order) {
+        writeVarint(buffer, order.size());
+        for (OrderItemDO orderItem : order) {
+            writeUuid(buffer, orderItem.getBookId());
+            if (orderItem.getQuantity() == null || orderItem.getQuantity() < 0) {
+                throw new IllegalArgumentException("The quantity of book " + orderItem.getBookId() +
+                        " cannot be written.");
+            }
+            writeVarint(buffer, orderItem.getQuantity());
+        }
+    }
+
+    private static String readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    private static void writeUuid(ByteBuffer buffer, String id) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            uuid = null;
+        }
+        if (uuid == null || !uuid.toString().equals(id)) {
+            throw new IllegalArgumentException("The ID " + id + " is not a lowercase UUID.");
+        }
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value does not fit in a non-negative int.
+     */
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0 || (shift == 28 && (b & 0x70) != 0)) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("A count or quantity is out of range.");
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.adobe.bookstore.utils;
+
+public class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Builds a strong entity tag from a value that changes every time the representation does.
+     */
+    public static String of(Object version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Checks an {@code If-None-Match} header against the current entity tag. As the header asks for the weak
+     * comparison, {@code W/} prefixes are ignored.
+     *
+     * @return {@code true} if the client already has the current representation.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -3,6 +3,10 @@ package com.adobe.bookstore.utils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Application log. Messages with parameters use <code>{}</code> placeholders, which are only formatted if the level
+ * is enabled, and the fixed-arity overloads avoid allocating a varargs array on every call.
+ */
 public class Log {
 
     private static final Logger logger = LogManager.getLogger(Log.class);
@@ -11,8 +15,24 @@ public class Log {
         logger.info(message);
     }
 
+    public static void info(String message, Object p0) {
+        logger.info(message, p0);
+    }
+
+    public static void info(String message, Object p0, Object p1) {
+        logger.info(message, p0, p1);
+    }
+
     public static void error(String message) {
         logger.error(message);
     }
 
+    public static void error(String message, Object p0) {
+        logger.error(message, p0);
+    }
+
+    public static void error(String message, Object p0, Object p1) {
+        logger.error(message, p0, p1);
+    }
+
 }
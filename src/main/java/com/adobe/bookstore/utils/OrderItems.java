@@ -0,0 +1,53 @@
+package com.adobe.bookstore.utils;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class OrderItems {
+
+    private OrderItems() {
+    }
+
+    /**
+     * Adds up the quantities of the lines for the same book. The result is sorted by book ID, so concurrent orders
+     * sharing books always touch the rows in the same order.
+     *
+     * @throws IllegalArgumentException if a line is missing, has no book ID, has no quantity or one that is not
+     *                                  positive, or if the lines for a book add up to more than
+     *                                  {@link Integer#MAX_VALUE}.
+     */
+    public static Map<String, Integer> mergeQuantitiesByBookId(List<OrderItemDO> order) {
+        Map<String, Integer> quantitiesByBookId = new TreeMap<>();
+
+        for (OrderItemDO orderItem : order) {
+            if (orderItem == null || orderItem.getBookId() == null) {
+                throw new IllegalArgumentException("Missing item or book ID.");
+            }
+            Integer quantity = orderItem.getQuantity();
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for book with ID " + orderItem.getBookId() + ".");
+            }
+            quantitiesByBookId.merge(orderItem.getBookId(), quantity, OrderItems::addQuantities);
+        }
+
+        return quantitiesByBookId;
+    }
+
+    /**
+     * Adds two quantities of the same book.
+     *
+     * @throws IllegalArgumentException if the sum does not fit in an int, instead of wrapping to a negative quantity.
+     */
+    public static Integer addQuantities(Integer first, Integer second) {
+        try {
+            return Math.addExact(first, second);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("The quantities of a book add up to more than " + Integer.MAX_VALUE +
+                    ".");
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.adobe.bookstore.utils;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Checks on the IDs of books and orders, which are stored as UUIDs. An ID that is not a UUID cannot exist, so
+ * lookups skip it instead of sending it to the database, where it could not be converted.
+ */
+public class Uuids {
+
+    private static final int LENGTH = 36;
+
+    private Uuids() {
+    }
+
+    /**
+     * @return whether the ID is a UUID in the canonical lowercase {@code 8-4-4-4-12} form, the only one IDs are read
+     * back in.
+     */
+    public static boolean isUuid(String id) {
+        if (id == null || id.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = id.charAt(i);
+            boolean valid = (i == 8 || i == 13 || i == 18 || i == 23)
+                    ? c == '-'
+                    : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static List<String> onlyUuids(Collection<String> ids) {
+        return ids.stream().filter(Uuids::isUuid).toList();
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.adobe.bookstore.utils;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual thread support for a build that still targets Java 17. The Java 21 APIs are looked up by reflection, so
+ * they are only required when virtual threads are actually enabled.
+ */
+public class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Creates a factory of virtual threads named {@code prefix} plus a counter when {@code virtual} is set, or of
+     * platform threads otherwise.
+     *
+     * @throws IllegalStateException if virtual threads are requested on a JVM older than Java 21.
+     */
+    public static ThreadFactory threadFactory(String prefix, boolean virtual) {
+        if (!virtual) {
+            return new CustomizableThreadFactory(prefix);
+        }
+        checkSupported();
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads could not be created.", e);
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory threadFactory = threadFactory(prefix, true);
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor",
+                    ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads could not be created.", e);
+        }
+    }
+
+    private static void checkSupported() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer, but the application is " +
+                    "running on Java " + Runtime.version().feature() + ".");
+        }
+    }
+
+}
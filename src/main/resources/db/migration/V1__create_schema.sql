@@ -0,0 +1,54 @@
+-- Schema of the entities, as Hibernate creates it with ddl-auto=create. Later changes go in new migrations.
+CREATE TABLE book_stock (
+    id UUID NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE book_order (
+    id UUID NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_book_order_created_at ON book_order (created_at);
+
+CREATE TABLE order_item (
+    book_id UUID NOT NULL,
+    order_id UUID NOT NULL,
+    quantity INTEGER NOT NULL,
+    PRIMARY KEY (book_id, order_id),
+    UNIQUE (order_id, book_id)
+);
+
+CREATE INDEX idx_order_item_order_id ON order_item (order_id);
+
+CREATE TABLE book_order_archive (
+    id UUID NOT NULL,
+    archived_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_item_archive (
+    book_id UUID NOT NULL,
+    order_id UUID NOT NULL,
+    quantity INTEGER NOT NULL,
+    PRIMARY KEY (book_id, order_id)
+);
+
+CREATE INDEX idx_order_item_archive_order_id ON order_item_archive (order_id);
+
+CREATE TABLE stock_update_retry (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    attempts INTEGER NOT NULL,
+    book_id UUID NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_error VARCHAR(1000),
+    quantity INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,13 @@
+-- Units sold of every book, filled from the orders stored so far. Later orders add to it as they are stored.
+CREATE TABLE book_units_sold (
+    book_id UUID NOT NULL,
+    units BIGINT NOT NULL,
+    PRIMARY KEY (book_id)
+);
+
+INSERT INTO book_units_sold (book_id, units)
+SELECT book_id, SUM(quantity) FROM (
+    SELECT book_id, quantity FROM order_item
+    UNION ALL
+    SELECT book_id, quantity FROM order_item_archive
+) GROUP BY book_id;
@@ -0,0 +1,9 @@
+-- Journaled orders that kept failing to be stored, with their lines as JSON, so they can be looked into and replayed.
+CREATE TABLE order_dead_letter (
+    order_id UUID NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    failed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    items VARCHAR(1000000) NOT NULL,
+    last_error VARCHAR(1000),
+    PRIMARY KEY (order_id)
+);
@@ -1,81 +1,81 @@
-INSERT INTO book_stock VALUES ('ae1666d6-6100-4ef0-9037-b45dd0d5bb0e', 'adipisicing culpa Lorem laboris adipisicing', 0);
-INSERT INTO book_stock VALUES ('22d580fc-d02e-4f70-9980-f9693c18f6e0', 'dolore aliqua sint ipsum laboris', 5);
-INSERT INTO book_stock VALUES ('d02b58ae-8731-451c-9acb-1941adf88501', 'ullamco do voluptate cillum amet', 4);
-INSERT INTO book_stock VALUES ('8d80c009-b3be-4d9d-95ba-cec1e7a2d52b', 'Lorem sint adipisicing consectetur anim', 1);
-INSERT INTO book_stock VALUES ('12494472-c905-4ac0-a133-5ebb3b4751e4', 'excepteur eiusmod cupidatat in amet', 0);
-INSERT INTO book_stock VALUES ('302bbd26-2d64-40f1-9f53-dd3a6e858e05', 'do esse amet dolor Lorem', 0);
-INSERT INTO book_stock VALUES ('b6e8c865-2221-4435-9a65-d30ca0a63701', 'ad laborum pariatur consequat commodo', 5);
-INSERT INTO book_stock VALUES ('7bcffbdf-2fcc-4a63-9a16-e9439575a473', 'Lorem do reprehenderit aliqua esse', 1);
-INSERT INTO book_stock VALUES ('172d3d74-99c4-43cd-a7c3-d6df4017402d', 'in aliqua est duis excepteur', 1);
-INSERT INTO book_stock VALUES ('58716995-b335-4bb0-89c1-3503bc003118', 'nulla qui proident consectetur occaecat', 5);
-INSERT INTO book_stock VALUES ('e415e3af-e87e-47e6-9bf2-f08c72e2f281', 'Lorem esse nostrud irure tempor', 4);
-INSERT INTO book_stock VALUES ('a5242079-0f51-4fd5-9066-bde39f569587', 'nisi ex est elit magna', 3);
-INSERT INTO book_stock VALUES ('a1aa23bc-cee9-449e-afde-7c64a32f04f1', 'labore occaecat consequat incididunt officia', 1);
-INSERT INTO book_stock VALUES ('eff2f24e-9ca2-4b8d-a5ae-3aba16c219f5', 'non ea consequat veniam fugiat', 3);
-INSERT INTO book_stock VALUES ('623d6650-5d98-457d-aacc-deba222f5cde', 'occaecat laborum officia ad ipsum', 5);
-INSERT INTO book_stock VALUES ('93136a2b-9e9d-4fb4-957b-19444a4ae293', 'non labore commodo culpa commodo', 4);
-INSERT INTO book_stock VALUES ('863b8f96-c254-473b-973f-87c63bb3ca42', 'veniam ut consectetur non ipsum', 4);
-INSERT INTO book_stock VALUES ('05d9a752-ddc3-4336-a82d-325ae561960b', 'do nostrud proident sunt proident', 0);
-INSERT INTO book_stock VALUES ('9ae5ff9e-4e2c-489c-b5bd-c3b2fe70dbde', 'est ut voluptate laboris cupidatat', 4);
-INSERT INTO book_stock VALUES ('ec60435b-ffcf-4ac3-97a4-f5f9113601b0', 'qui commodo tempor aliqua incididunt', 1);
-INSERT INTO book_stock VALUES ('577ece52-b66c-44f2-baeb-47c35cd05afc', 'aliquip et ad quis fugiat', 5);
-INSERT INTO book_stock VALUES ('9f55ac40-fd1a-438a-988b-5b06c4feb93d', 'ullamco qui aute excepteur id', 3);
-INSERT INTO book_stock VALUES ('d0cb049e-8c91-4303-91cb-98072482f689', 'Lorem excepteur commodo incididunt sint', 4);
-INSERT INTO book_stock VALUES ('f540de5c-6e18-444a-b135-605e2303f352', 'voluptate laborum elit dolor ex', 0);
-INSERT INTO book_stock VALUES ('58ea0a10-81a5-4ec6-b5dc-8067ab9db18b', 'sit est adipisicing esse amet', 0);
-INSERT INTO book_stock VALUES ('d81cc891-8cee-4412-a271-264f57cba326', 'cupidatat magna occaecat dolore magna', 1);
-INSERT INTO book_stock VALUES ('8dcb1109-7e38-49d4-ba3f-5caa9e6f83ce', 'aliqua enim enim exercitation veniam', 0);
-INSERT INTO book_stock VALUES ('ab36bcb5-9fb6-4ea4-86b0-068eaaf34fd5', 'ipsum proident adipisicing aute pariatur', 5);
-INSERT INTO book_stock VALUES ('593ebe81-19f2-46fc-b340-aa76d8a9f987', 'adipisicing excepteur esse adipisicing quis', 3);
-INSERT INTO book_stock VALUES ('22627251-75ea-441f-b58d-09d8b470f661', 'in et cillum sint cupidatat', 4);
-INSERT INTO book_stock VALUES ('79658a46-3089-4ebc-8d02-4a24d01de66c', 'laboris cillum excepteur do nisi', 0);
-INSERT INTO book_stock VALUES ('a1ff3cf9-3c42-4364-bd12-f0e9632d3bb6', 'irure commodo ad minim amet', 4);
-INSERT INTO book_stock VALUES ('2b998229-b44a-468f-bd49-e5b4cb4c6ec2', 'irure sit adipisicing nisi est', 0);
-INSERT INTO book_stock VALUES ('eb0ad1e1-9ca4-4a98-aae7-b534829f445c', 'sit officia tempor laborum aliquip', 5);
-INSERT INTO book_stock VALUES ('b0fad70f-0c21-4c11-9c11-15053967da55', 'culpa reprehenderit eu reprehenderit dolor', 0);
-INSERT INTO book_stock VALUES ('6ad79328-7849-45a5-a67e-98757fcf1d6d', 'deserunt veniam sint cillum laborum', 0);
-INSERT INTO book_stock VALUES ('f46b0701-a20d-4f08-8444-66e4b22884a0', 'aliqua duis labore deserunt reprehenderit', 1);
-INSERT INTO book_stock VALUES ('3546e7c7-498b-43c0-bf9e-4ab95e2d44fb', 'commodo amet nisi cillum id', 1);
-INSERT INTO book_stock VALUES ('63a0b8ad-8d90-459c-9106-1e161ef668ab', 'nostrud nisi est velit cupidatat', 5);
-INSERT INTO book_stock VALUES ('5de03ba5-b2f1-45ce-98ff-42586cc344ec', 'mollit labore esse culpa excepteur', 0);
-INSERT INTO book_stock VALUES ('3f3087bc-a9e2-47a2-9a33-98ea003aaf3d', 'tempor occaecat qui ullamco nisi', 3);
-INSERT INTO book_stock VALUES ('776cedd2-a707-439b-8d58-01b1d488e2c0', 'dolor nisi fugiat dolore dolore', 4);
-INSERT INTO book_stock VALUES ('20e3b5e2-10ec-4ec1-97cb-9e4c692fc196', 'ad eu duis nisi ullamco', 5);
-INSERT INTO book_stock VALUES ('67bbfb06-d174-4a6b-85c1-3a67784801eb', 'sunt veniam reprehenderit quis nisi', 5);
-INSERT INTO book_stock VALUES ('78ca7e05-e9a0-4118-ad76-20a234d3f6b9', 'ex dolor voluptate velit aute', 3);
-INSERT INTO book_stock VALUES ('9755d862-6ad3-408f-b785-2d28e4717bbd', 'consequat esse Lorem sint elit', 0);
-INSERT INTO book_stock VALUES ('93adf3be-831f-4fb2-9599-2067494fb3d3', 'cillum labore nostrud ipsum Lorem', 0);
-INSERT INTO book_stock VALUES ('e8760db9-da11-410c-810d-53cbaf86fd0a', 'duis minim exercitation cupidatat eiusmod', 0);
-INSERT INTO book_stock VALUES ('7eee4c87-4557-434b-8ecf-73ca10f1a367', 'ea laboris elit mollit labore', 5);
-INSERT INTO book_stock VALUES ('44713759-12d6-4679-9c0d-4ddd47679e35', 'incididunt enim officia anim commodo', 5);
-INSERT INTO book_stock VALUES ('e0a06cda-55e5-4c92-897f-159d3b0696f4', 'excepteur incididunt enim adipisicing ad', 2);
-INSERT INTO book_stock VALUES ('2ab76066-167c-407b-be84-89825812e5ed', 'culpa nulla officia sunt ea', 2);
-INSERT INTO book_stock VALUES ('2bcef893-ca8c-4cdc-9f78-f66c58062837', 'id et pariatur ea exercitation', 0);
-INSERT INTO book_stock VALUES ('b3061912-eb57-4321-8fee-13f4aaf636af', 'ad dolor fugiat exercitation eu', 4);
-INSERT INTO book_stock VALUES ('18192373-7811-48d0-9ec9-850c584954d1', 'ullamco aliqua aute deserunt Lorem', 4);
-INSERT INTO book_stock VALUES ('e6eab887-14ee-47f3-9f9e-3f88ae9646eb', 'sunt duis ex quis qui', 0);
-INSERT INTO book_stock VALUES ('50a01f5a-8d6f-4adc-abfb-fd280358abf9', 'sint magna eu ipsum non', 1);
-INSERT INTO book_stock VALUES ('39fbb5f1-0066-426f-8d13-fd712e12f429', 'incididunt et qui culpa sit', 5);
-INSERT INTO book_stock VALUES ('04267f5e-9e0e-407f-9917-57655eb426db', 'adipisicing exercitation amet sit sint', 2);
-INSERT INTO book_stock VALUES ('60a3cfa7-4352-48dd-9352-571c6e634673', 'velit qui id reprehenderit incididunt', 1);
-INSERT INTO book_stock VALUES ('80d9f5e3-e959-4365-b75f-7ca90e90057f', 'ex officia nostrud enim incididunt', 5);
-INSERT INTO book_stock VALUES ('b264b5c1-96d4-4b96-967a-214858c996ea', 'consectetur ut ullamco eiusmod ut', 1);
-INSERT INTO book_stock VALUES ('6f5e37cb-924e-40b6-aeac-436cccefb413', 'commodo minim laborum voluptate aute', 2);
-INSERT INTO book_stock VALUES ('4b5f6f06-fcf8-4c75-98ce-98202ab3082a', 'dolore adipisicing duis reprehenderit id', 4);
-INSERT INTO book_stock VALUES ('6fcf1723-e8a4-4e4a-b84b-f29d1f7393e6', 'esse ad aliqua ipsum excepteur', 5);
-INSERT INTO book_stock VALUES ('55dd2a56-317d-437c-a46d-65f1e414edaf', 'mollit labore sit magna esse', 4);
-INSERT INTO book_stock VALUES ('f42061be-8148-4014-a5e0-7b5a751386b0', 'reprehenderit amet elit veniam tempor', 0);
-INSERT INTO book_stock VALUES ('e25ef467-7efc-40b4-9e6e-65a5c23be6d9', 'aliquip adipisicing irure dolore tempor', 2);
-INSERT INTO book_stock VALUES ('c47ff8ac-ffd4-4e47-abf0-e55edc1dc489', 'excepteur duis ea culpa in', 0);
-INSERT INTO book_stock VALUES ('fedb4d23-2008-4200-b38a-e38813a4d673', 'elit ut ullamco commodo minim', 5);
-INSERT INTO book_stock VALUES ('3b13588c-1cad-41c7-bd82-2ae48ee2eb95', 'adipisicing sit sit eu laborum', 1);
-INSERT INTO book_stock VALUES ('7ecc8de0-7c3b-4c51-b106-441400c08df3', 'deserunt nostrud non quis deserunt', 0);
-INSERT INTO book_stock VALUES ('37a65ea3-72e0-4e7d-8862-e79008ed6060', 'reprehenderit sint dolor in sunt', 3);
-INSERT INTO book_stock VALUES ('4effd8c9-fe56-4397-9daa-9e08cd10b4ce', 'est adipisicing dolore id veniam', 2);
-INSERT INTO book_stock VALUES ('8e90cd18-2f3c-450e-846f-c635f7ce7aed', 'sunt dolor aliquip do do', 4);
-INSERT INTO book_stock VALUES ('d8774843-e203-4464-8677-701e859190e1', 'excepteur Lorem sint reprehenderit ea', 1);
-INSERT INTO book_stock VALUES ('14e05a52-eec7-4ff4-af1b-d6fd1cb90207', 'irure aute aliquip occaecat anim', 3);
-INSERT INTO book_stock VALUES ('f09387f4-0ec5-4ff4-bc64-3b4bf6108aa1', 'enim in commodo consectetur non', 4);
-INSERT INTO book_stock VALUES ('92259b63-2440-4782-9855-25d359d75590', 'do laboris Lorem irure mollit', 1);
-INSERT INTO book_stock VALUES ('7916a830-0e9b-4aab-8982-f55d76c6a156', 'et eu magna id excepteur', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('ae1666d6-6100-4ef0-9037-b45dd0d5bb0e', 'adipisicing culpa Lorem laboris adipisicing', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('22d580fc-d02e-4f70-9980-f9693c18f6e0', 'dolore aliqua sint ipsum laboris', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('d02b58ae-8731-451c-9acb-1941adf88501', 'ullamco do voluptate cillum amet', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('8d80c009-b3be-4d9d-95ba-cec1e7a2d52b', 'Lorem sint adipisicing consectetur anim', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('12494472-c905-4ac0-a133-5ebb3b4751e4', 'excepteur eiusmod cupidatat in amet', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('302bbd26-2d64-40f1-9f53-dd3a6e858e05', 'do esse amet dolor Lorem', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('b6e8c865-2221-4435-9a65-d30ca0a63701', 'ad laborum pariatur consequat commodo', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('7bcffbdf-2fcc-4a63-9a16-e9439575a473', 'Lorem do reprehenderit aliqua esse', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('172d3d74-99c4-43cd-a7c3-d6df4017402d', 'in aliqua est duis excepteur', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('58716995-b335-4bb0-89c1-3503bc003118', 'nulla qui proident consectetur occaecat', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('e415e3af-e87e-47e6-9bf2-f08c72e2f281', 'Lorem esse nostrud irure tempor', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('a5242079-0f51-4fd5-9066-bde39f569587', 'nisi ex est elit magna', 3);
+INSERT INTO book_stock (id, name, quantity) VALUES ('a1aa23bc-cee9-449e-afde-7c64a32f04f1', 'labore occaecat consequat incididunt officia', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('eff2f24e-9ca2-4b8d-a5ae-3aba16c219f5', 'non ea consequat veniam fugiat', 3);
+INSERT INTO book_stock (id, name, quantity) VALUES ('623d6650-5d98-457d-aacc-deba222f5cde', 'occaecat laborum officia ad ipsum', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('93136a2b-9e9d-4fb4-957b-19444a4ae293', 'non labore commodo culpa commodo', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('863b8f96-c254-473b-973f-87c63bb3ca42', 'veniam ut consectetur non ipsum', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('05d9a752-ddc3-4336-a82d-325ae561960b', 'do nostrud proident sunt proident', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('9ae5ff9e-4e2c-489c-b5bd-c3b2fe70dbde', 'est ut voluptate laboris cupidatat', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('ec60435b-ffcf-4ac3-97a4-f5f9113601b0', 'qui commodo tempor aliqua incididunt', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('577ece52-b66c-44f2-baeb-47c35cd05afc', 'aliquip et ad quis fugiat', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('9f55ac40-fd1a-438a-988b-5b06c4feb93d', 'ullamco qui aute excepteur id', 3);
+INSERT INTO book_stock (id, name, quantity) VALUES ('d0cb049e-8c91-4303-91cb-98072482f689', 'Lorem excepteur commodo incididunt sint', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('f540de5c-6e18-444a-b135-605e2303f352', 'voluptate laborum elit dolor ex', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('58ea0a10-81a5-4ec6-b5dc-8067ab9db18b', 'sit est adipisicing esse amet', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('d81cc891-8cee-4412-a271-264f57cba326', 'cupidatat magna occaecat dolore magna', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('8dcb1109-7e38-49d4-ba3f-5caa9e6f83ce', 'aliqua enim enim exercitation veniam', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('ab36bcb5-9fb6-4ea4-86b0-068eaaf34fd5', 'ipsum proident adipisicing aute pariatur', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('593ebe81-19f2-46fc-b340-aa76d8a9f987', 'adipisicing excepteur esse adipisicing quis', 3);
+INSERT INTO book_stock (id, name, quantity) VALUES ('22627251-75ea-441f-b58d-09d8b470f661', 'in et cillum sint cupidatat', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('79658a46-3089-4ebc-8d02-4a24d01de66c', 'laboris cillum excepteur do nisi', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('a1ff3cf9-3c42-4364-bd12-f0e9632d3bb6', 'irure commodo ad minim amet', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('2b998229-b44a-468f-bd49-e5b4cb4c6ec2', 'irure sit adipisicing nisi est', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('eb0ad1e1-9ca4-4a98-aae7-b534829f445c', 'sit officia tempor laborum aliquip', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('b0fad70f-0c21-4c11-9c11-15053967da55', 'culpa reprehenderit eu reprehenderit dolor', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('6ad79328-7849-45a5-a67e-98757fcf1d6d', 'deserunt veniam sint cillum laborum', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('f46b0701-a20d-4f08-8444-66e4b22884a0', 'aliqua duis labore deserunt reprehenderit', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('3546e7c7-498b-43c0-bf9e-4ab95e2d44fb', 'commodo amet nisi cillum id', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('63a0b8ad-8d90-459c-9106-1e161ef668ab', 'nostrud nisi est velit cupidatat', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('5de03ba5-b2f1-45ce-98ff-42586cc344ec', 'mollit labore esse culpa excepteur', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('3f3087bc-a9e2-47a2-9a33-98ea003aaf3d', 'tempor occaecat qui ullamco nisi', 3);
+INSERT INTO book_stock (id, name, quantity) VALUES ('776cedd2-a707-439b-8d58-01b1d488e2c0', 'dolor nisi fugiat dolore dolore', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('20e3b5e2-10ec-4ec1-97cb-9e4c692fc196', 'ad eu duis nisi ullamco', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('67bbfb06-d174-4a6b-85c1-3a67784801eb', 'sunt veniam reprehenderit quis nisi', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('78ca7e05-e9a0-4118-ad76-20a234d3f6b9', 'ex dolor voluptate velit aute', 3);
+INSERT INTO book_stock (id, name, quantity) VALUES ('9755d862-6ad3-408f-b785-2d28e4717bbd', 'consequat esse Lorem sint elit', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('93adf3be-831f-4fb2-9599-2067494fb3d3', 'cillum labore nostrud ipsum Lorem', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('e8760db9-da11-410c-810d-53cbaf86fd0a', 'duis minim exercitation cupidatat eiusmod', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('7eee4c87-4557-434b-8ecf-73ca10f1a367', 'ea laboris elit mollit labore', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('44713759-12d6-4679-9c0d-4ddd47679e35', 'incididunt enim officia anim commodo', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('e0a06cda-55e5-4c92-897f-159d3b0696f4', 'excepteur incididunt enim adipisicing ad', 2);
+INSERT INTO book_stock (id, name, quantity) VALUES ('2ab76066-167c-407b-be84-89825812e5ed', 'culpa nulla officia sunt ea', 2);
+INSERT INTO book_stock (id, name, quantity) VALUES ('2bcef893-ca8c-4cdc-9f78-f66c58062837', 'id et pariatur ea exercitation', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('b3061912-eb57-4321-8fee-13f4aaf636af', 'ad dolor fugiat exercitation eu', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('18192373-7811-48d0-9ec9-850c584954d1', 'ullamco aliqua aute deserunt Lorem', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('e6eab887-14ee-47f3-9f9e-3f88ae9646eb', 'sunt duis ex quis qui', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('50a01f5a-8d6f-4adc-abfb-fd280358abf9', 'sint magna eu ipsum non', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('39fbb5f1-0066-426f-8d13-fd712e12f429', 'incididunt et qui culpa sit', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('04267f5e-9e0e-407f-9917-57655eb426db', 'adipisicing exercitation amet sit sint', 2);
+INSERT INTO book_stock (id, name, quantity) VALUES ('60a3cfa7-4352-48dd-9352-571c6e634673', 'velit qui id reprehenderit incididunt', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('80d9f5e3-e959-4365-b75f-7ca90e90057f', 'ex officia nostrud enim incididunt', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('b264b5c1-96d4-4b96-967a-214858c996ea', 'consectetur ut ullamco eiusmod ut', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('6f5e37cb-924e-40b6-aeac-436cccefb413', 'commodo minim laborum voluptate aute', 2);
+INSERT INTO book_stock (id, name, quantity) VALUES ('4b5f6f06-fcf8-4c75-98ce-98202ab3082a', 'dolore adipisicing duis reprehenderit id', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('6fcf1723-e8a4-4e4a-b84b-f29d1f7393e6', 'esse ad aliqua ipsum excepteur', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('55dd2a56-317d-437c-a46d-65f1e414edaf', 'mollit labore sit magna esse', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('f42061be-8148-4014-a5e0-7b5a751386b0', 'reprehenderit amet elit veniam tempor', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('e25ef467-7efc-40b4-9e6e-65a5c23be6d9', 'aliquip adipisicing irure dolore tempor', 2);
+INSERT INTO book_stock (id, name, quantity) VALUES ('c47ff8ac-ffd4-4e47-abf0-e55edc1dc489', 'excepteur duis ea culpa in', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('fedb4d23-2008-4200-b38a-e38813a4d673', 'elit ut ullamco commodo minim', 5);
+INSERT INTO book_stock (id, name, quantity) VALUES ('3b13588c-1cad-41c7-bd82-2ae48ee2eb95', 'adipisicing sit sit eu laborum', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('7ecc8de0-7c3b-4c51-b106-441400c08df3', 'deserunt nostrud non quis deserunt', 0);
+INSERT INTO book_stock (id, name, quantity) VALUES ('37a65ea3-72e0-4e7d-8862-e79008ed6060', 'reprehenderit sint dolor in sunt', 3);
+INSERT INTO book_stock (id, name, quantity) VALUES ('4effd8c9-fe56-4397-9daa-9e08cd10b4ce', 'est adipisicing dolore id veniam', 2);
+INSERT INTO book_stock (id, name, quantity) VALUES ('8e90cd18-2f3c-450e-846f-c635f7ce7aed', 'sunt dolor aliquip do do', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('d8774843-e203-4464-8677-701e859190e1', 'excepteur Lorem sint reprehenderit ea', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('14e05a52-eec7-4ff4-af1b-d6fd1cb90207', 'irure aute aliquip occaecat anim', 3);
+INSERT INTO book_stock (id, name, quantity) VALUES ('f09387f4-0ec5-4ff4-bc64-3b4bf6108aa1', 'enim in commodo consectetur non', 4);
+INSERT INTO book_stock (id, name, quantity) VALUES ('92259b63-2440-4782-9855-25d359d75590', 'do laboris Lorem irure mollit', 1);
+INSERT INTO book_stock (id, name, quantity) VALUES ('7916a830-0e9b-4aab-8982-f55d76c6a156', 'et eu magna id excepteur', 4);
 
@@ -0,0 +1,28 @@
+package com.adobe.bookstore.DO;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OrderItemDOTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testDeserialize_shouldReadTheOrderSentToCreateOrder_whenCalled() throws Exception {
+        //Given
+        String json = "[{\"bookId\":\"12345-67890\",\"quantity\":2}]";
+
+        //When
+        List<OrderItemDO> order = objectMapper.readValue(json, new TypeReference<>() {});
+
+        //Then
+        assertEquals(List.of(OrderItemDO.builder().bookId("12345-67890").quantity(2).build()), order);
+        assertEquals(json, objectMapper.writeValueAsString(order));
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.adobe.bookstore;
+
+import com.adobe.bookstore.repository.StockSnapshotRepository;
+import com.adobe.bookstore.service.impl.StockSeedLoader;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.RollingRandomAccessFileAppender;
+import org.apache.logging.log4j.core.async.AsyncLoggerConfig;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "bookstore.db.dir=./target/prod-db-${random.uuid}")
+@ActiveProfiles("prod")
+class ProdProfileTests {
+
+    private static final String BOOK_ID = "5eed0000-0000-4000-8000-000000000001";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Value("${spring.jpa.show-sql}")
+    private boolean showSql;
+
+    @Value("${logging.config}")
+    private String loggingConfig;
+
+    /**
+     * Logging is only configured by the first application context of the test run, so the configuration of the
+     * profile is loaded here on its own.
+     */
+    @Test
+    void shouldLogAsynchronouslyToRollingFileWithoutEchoingSql() {
+        System.setProperty("bookstore.log.dir", "target/logs");
+        LoggerContext loggerContext = new LoggerContext("prod");
+        try {
+            ConfigurationSource source = ConfigurationSource.fromResource(
+                    loggingConfig.substring(ResourceLoader.CLASSPATH_URL_PREFIX.length()), getClass().getClassLoader());
+            Configuration configuration = ConfigurationFactory.getInstance().getConfiguration(loggerContext, source);
+            loggerContext.start(configuration);
+            LoggerConfig appLogger = configuration.getLoggerConfig("com.adobe.bookstore");
+
+            assertThat(appLogger).isInstanceOf(AsyncLoggerConfig.class);
+            assertThat(appLogger.getAppenders().values()).singleElement()
+                    .isInstanceOf(RollingRandomAccessFileAppender.class);
+            assertThat(showSql).isFalse();
+        } finally {
+            loggerContext.stop();
+            System.clearProperty("bookstore.log.dir");
+        }
+    }
+
+    @Test
+    void shouldMigrateFileDatabaseAndValidateEntitiesAgainstIt() {
+        HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+
+        assertThat(hikariDataSource.getJdbcUrl()).startsWith("jdbc:h2:file:").contains("QUERY_CACHE_SIZE=64");
+        assertThat(hikariDataSource.getMaximumPoolSize()).isEqualTo(16);
+        assertThat(jdbcTemplate.queryForList("SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\"",
+                String.class)).contains("1");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_stock", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldOnlySeedStockIntoEmptyCatalog(@TempDir Path directory) throws IOException {
+        Path seedFile = Files.writeString(directory.resolve("catalog.csv"), "id,name,quantity\n" + BOOK_ID +
+                ",Dune,3\n");
+        StockSeedLoader stockSeedLoader = new StockSeedLoader(stockSnapshotRepository, seedFile, true);
+        try {
+            stockSeedLoader.load();
+            jdbcTemplate.update("UPDATE book_stock SET quantity = 1 WHERE id = ?", BOOK_ID);
+            stockSeedLoader.load();
+
+            assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM book_stock WHERE id = ?", Integer.class,
+                    BOOK_ID)).isEqualTo(1);
+        } finally {
+            jdbcTemplate.update("DELETE FROM book_stock WHERE id = ?", BOOK_ID);
+        }
+    }
+
+}
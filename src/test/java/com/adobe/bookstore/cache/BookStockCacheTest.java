@@ -0,0 +1,106 @@
+package com.adobe.bookstore.cache;
+
+import com.adobe.bookstore.event.StockChangedEvent;
+import com.adobe.bookstore.model.BookStock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookStockCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookStockCache sut;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new BookStockCache(100, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    public void testGet_shouldLoadOnlyOnce_whenBookIsCached() {
+        //Given
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Optional<BookStock>> loader = bookId -> {
+            loads.incrementAndGet();
+            return Optional.of(BookStock.builder().id(bookId).name("Hello").quantity(5).build());
+        };
+
+        //When
+        sut.get("12345-67890", loader);
+        Optional<BookStock> result = sut.get("12345-67890", loader);
+
+        //Then
+        assertEquals(1, loads.get());
+        assertEquals(5, result.orElseThrow().getQuantity());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "bookStock").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "bookStock").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testGet_shouldNotCacheMissingBooks_whenCalled() {
+        //Given
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Optional<BookStock>> loader = bookId -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        };
+
+        //When
+        sut.get("12345-67890", loader);
+        Optional<BookStock> result = sut.get("12345-67890", loader);
+
+        //Then
+        assertTrue(result.isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testOnStockChanged_shouldReloadChangedBooks_whenCalled() {
+        //Given
+        AtomicInteger quantity = new AtomicInteger(5);
+        Function<String, Optional<BookStock>> loader = bookId ->
+                Optional.of(BookStock.builder().id(bookId).name("Hello").quantity(quantity.get()).build());
+        sut.get("12345-67890", loader);
+
+        //When
+        quantity.set(3);
+        sut.onStockChanged(new StockChangedEvent(List.of("12345-67890")));
+        Optional<BookStock> result = sut.get("12345-67890", loader);
+
+        //Then
+        assertEquals(3, result.orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testGetAll_shouldLoadOnlyMissingBooksInOneCall_whenSomeAreCached() {
+        //Given
+        List<Collection<String>> loads = new ArrayList<>();
+        Function<Collection<String>, Map<String, BookStock>> loader = bookIds -> {
+            loads.add(bookIds);
+            Map<String, BookStock> found = new HashMap<>();
+            bookIds.stream().filter(bookId -> !bookId.equals("missing"))
+                    .forEach(bookId -> found.put(bookId, BookStock.builder().id(bookId).name("Hello").quantity(5).build()));
+            return found;
+        };
+        sut.getAll(List.of("book-1"), loader);
+
+        //When
+        Map<String, BookStock> result = sut.getAll(List.of("book-1", "book-2", "missing"), loader);
+
+        //Then
+        assertEquals(Set.of("book-1", "book-2"), result.keySet());
+        assertEquals(2, loads.size());
+        assertEquals(Set.of("book-2", "missing"), Set.copyOf(loads.get(1)));
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.adobe.bookstore.cache;
+
+import com.adobe.bookstore.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyKeyStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyKeyStore sut;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new IdempotencyKeyStore(100, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    public void testExecute_shouldReturnFirstResponse_whenKeyIsRepeated() {
+        //Given
+        AtomicInteger executions = new AtomicInteger();
+
+        //When
+        ResponseEntity<String> first = sut.execute("key-1", List.of("order"),
+                () -> ResponseEntity.ok("Order " + executions.incrementAndGet()));
+        ResponseEntity<String> second = sut.execute("key-1", List.of("order"),
+                () -> ResponseEntity.ok("Order " + executions.incrementAndGet()));
+
+        //Then
+        assertEquals(1, executions.get());
+        assertEquals("Order 1", first.getBody());
+        assertEquals("Order 1", second.getBody());
+        assertEquals(1.0, meterRegistry.get("bookstore.idempotency.replays").counter().count());
+    }
+
+    @Test
+    public void testExecute_shouldRunAgain_whenPreviousResponseWasNotSuccessful() {
+        //Given
+        AtomicInteger executions = new AtomicInteger();
+
+        //When
+        sut.execute("key-1", "order", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Rejected");
+        });
+        assertThrows(IllegalStateException.class, () -> sut.execute("key-1", "order", () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        ResponseEntity<String> response = sut.execute("key-1", "order", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok("Created");
+        });
+
+        //Then
+        assertEquals(3, executions.get());
+        assertEquals("Created", response.getBody());
+    }
+
+    @Test
+    public void testExecute_shouldThrowException_whenKeyIsUsedForAnotherRequest() {
+        //Given
+        sut.execute("key-1", "order", () -> ResponseEntity.ok("Created"));
+
+        //When //Then
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> sut.execute("key-1", "another order", () -> ResponseEntity.ok("Created")));
+    }
+
+    @Test
+    public void testExecute_shouldWaitForRequestInFlight_whenDuplicateArrivesConcurrently() throws Exception {
+        //Given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            //When
+            Future<ResponseEntity<String>> first = executor.submit(() -> sut.execute("key-1", "order", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                awaitQuietly(release);
+                return ResponseEntity.ok("Created");
+            }));
+            started.await(10, TimeUnit.SECONDS);
+            Future<ResponseEntity<String>> duplicate = executor.submit(() -> sut.execute("key-1", "order", () -> {
+                executions.incrementAndGet();
+                return ResponseEntity.ok("Created twice");
+            }));
+
+            //Then
+            assertThrows(TimeoutException.class, () -> duplicate.get(200, TimeUnit.MILLISECONDS));
+            release.countDown();
+            assertEquals("Created", first.get(10, TimeUnit.SECONDS).getBody());
+            assertEquals("Created", duplicate.get(10, TimeUnit.SECONDS).getBody());
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
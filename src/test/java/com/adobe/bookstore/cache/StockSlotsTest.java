@@ -0,0 +1,107 @@
+package com.adobe.bookstore.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockSlotsTest {
+
+    private StockSlots sut;
+
+    @BeforeEach
+    public void setUp() {
+        sut = new StockSlots();
+    }
+
+    @Test
+    public void testAdd_shouldReturnSameSlot_whenBookIsAddedTwice() {
+        //When
+        int first = sut.add("abcde", "Dune", 5, 0);
+        int second = sut.add("abcde", "Another name", 7, 3);
+
+        //Then
+        assertEquals(first, second);
+        assertEquals(first, sut.slotOf("abcde"));
+        assertEquals(5, sut.getQuantity(first));
+        assertEquals("Dune", sut.getName(first));
+        assertEquals(-1, sut.slotOf("unknown"));
+    }
+
+    @Test
+    public void testAdd_shouldKeepEveryBook_whenSeveralChunksAreNeeded() {
+        //When
+        for (int i = 0; i < 100_000; i++) {
+            sut.add("book-" + i, "Book " + i, i, 0);
+        }
+
+        //Then
+        assertEquals(100_000, sut.size());
+        int slot = sut.slotOf("book-99999");
+        assertEquals("book-99999", sut.getBookId(slot));
+        assertEquals(99_999, sut.getQuantity(slot));
+    }
+
+    @Test
+    public void testTryTake_shouldLeaveStockAndVersionUntouched_whenThereAreNotEnoughUnits() {
+        //Given
+        int slot = sut.add("abcde", "Dune", 5, 2);
+
+        //When
+        boolean taken = sut.tryTake(slot, 6);
+
+        //Then
+        assertFalse(taken);
+        assertEquals(5, sut.getQuantity(slot));
+        assertEquals(2, sut.getVersion(slot));
+    }
+
+    @Test
+    public void testTryTakeAndGive_shouldChangeQuantityAndVersion_whenCalled() {
+        //Given
+        int slot = sut.add("abcde", "Dune", 5, 2);
+
+        //When
+        sut.tryTake(slot, 5);
+        sut.give(slot, 3);
+
+        //Then
+        assertEquals(3, sut.getQuantity(slot));
+        assertEquals(4, sut.getVersion(slot));
+    }
+
+    @Test
+    public void testTryTake_shouldNeverGoBelowZero_whenManyThreadsTakeTheSameBook() throws Exception {
+        //Given
+        int slot = sut.add("abcde", "Dune", 1000, 0);
+        AtomicInteger taken = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        //When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            futures.add(executor.submit(() -> {
+                if (sut.tryTake(slot, 1)) {
+                    taken.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //Then
+        assertEquals(1000, taken.get());
+        assertEquals(0, sut.getQuantity(slot));
+        assertEquals(1000, sut.getVersion(slot));
+    }
+
+}
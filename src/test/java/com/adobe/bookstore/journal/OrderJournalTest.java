@@ -0,0 +1,199 @@
+package com.adobe.bookstore.journal;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testRead_shouldReturnAppendedOrders_whenJournalIsReopened() throws IOException {
+        //Given
+        JournaledOrder order = order("order-1", item("abcde", 2), item("fghij", 1));
+        List<Long> segments = new ArrayList<>();
+        List<JournaledOrder> durable = new ArrayList<>();
+        try (OrderJournal sut = new OrderJournal(directory, SEGMENT_SIZE, (segment, orders) -> {
+            segments.add(segment);
+            durable.addAll(orders);
+        })) {
+            //When
+            sut.append(order);
+        }
+
+        //Then
+        assertEquals(List.of(1L), segments);
+        assertEquals(List.of("order-1"), durable.stream().map(JournaledOrder::getOrderId).toList());
+        List<JournaledOrder> read = readAll();
+        assertEquals(1, read.size());
+        assertEquals("order-1", read.get(0).getOrderId());
+        assertEquals(order.getCreatedAt(), read.get(0).getCreatedAt());
+        assertEquals(order.getItems(), read.get(0).getItems());
+    }
+
+    @Test
+    public void testRead_shouldStopAtTornRecord_whenTailIsCorrupted() throws IOException {
+        //Given
+        try (OrderJournal sut = new OrderJournal(directory, SEGMENT_SIZE, (segment, orders) -> { })) {
+            sut.append(order("order-1", item("abcde", 1)));
+            sut.append(order("order-2", item("abcde", 2)));
+        }
+        Path segment = segments().get(0);
+        int secondRecord = recordLength(segment, 0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Flips a byte of the second order, as a crash in the middle of writing it would
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), secondRecord + 10);
+        }
+
+        //When
+        List<JournaledOrder> read = readAll();
+
+        //Then
+        assertEquals(List.of("order-1"), read.stream().map(JournaledOrder::getOrderId).toList());
+    }
+
+    @Test
+    public void testAppend_shouldKeepEveryOrder_whenAppendedConcurrently() throws Exception {
+        //Given
+        List<JournaledOrder> durable = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //When
+        try (OrderJournal sut = new OrderJournal(directory, SEGMENT_SIZE, (segment, orders) -> durable.addAll(orders))) {
+            List<Future<?>> appends = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                JournaledOrder order = order("order-" + i, item("abcde", 1));
+                appends.add(executor.submit(() -> {
+                    sut.append(order);
+                    return null;
+                }));
+            }
+            for (Future<?> append : appends) {
+                append.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //Then
+        List<String> read = readAll().stream().map(JournaledOrder::getOrderId).toList();
+        assertEquals(400, new HashSet<>(read).size());
+        assertEquals(read, durable.stream().map(JournaledOrder::getOrderId).toList());
+    }
+
+    @Test
+    public void testAppend_shouldStartNewSegment_whenCurrentOneIsFull() throws IOException {
+        //Given
+        Set<Long> segmentsNotified = new TreeSet<>();
+        try (OrderJournal sut = new OrderJournal(directory, 256, (segment, orders) -> segmentsNotified.add(segment))) {
+            //When
+            for (int i = 0; i < 20; i++) {
+                sut.append(order("order-" + i, item("abcde", i + 1)));
+            }
+
+            //Then
+            assertTrue(segments().size() > 1);
+            assertEquals(segments().size(), segmentsNotified.size());
+
+            sut.deleteSegmentsBefore(Long.MAX_VALUE);
+            assertEquals(1, segments().size());
+        }
+        assertFalse(readAll().isEmpty());
+    }
+
+    @Test
+    public void testNewJournal_shouldLeaveExistingSegments_whenDirectoryIsNotEmpty() throws IOException {
+        //Given
+        try (OrderJournal first = new OrderJournal(directory, SEGMENT_SIZE, (segment, orders) -> { })) {
+            first.append(order("order-1", item("abcde", 1)));
+        }
+
+        //When
+        try (OrderJournal second = new OrderJournal(directory, SEGMENT_SIZE, (segment, orders) -> { })) {
+            second.append(order("order-2", item("abcde", 1)));
+        }
+
+        //Then
+        assertEquals(List.of("order-1", "order-2"), readAll().stream().map(JournaledOrder::getOrderId).toList());
+        OrderJournal.deleteAll(directory);
+        assertTrue(segments().isEmpty());
+    }
+
+    @Test
+    public void testAppend_shouldBlankTheOrder_whenItCannotBeForced() throws IOException {
+        //Given
+        AtomicBoolean diskFull = new AtomicBoolean();
+        List<JournaledOrder> durable = new ArrayList<>();
+        try (OrderJournal sut = new OrderJournal(directory, SEGMENT_SIZE, (segment, orders) -> durable.addAll(orders)) {
+            @Override
+            void force(MappedByteBuffer segment, int from, int length) {
+                if (diskFull.get()) {
+                    throw new UncheckedIOException(new IOException("No space left on device"));
+                }
+                super.force(segment, from, length);
+            }
+        }) {
+            sut.append(order("order-1", item("abcde", 1)));
+            diskFull.set(true);
+
+            //When
+            assertThrows(IOException.class, () -> sut.append(order("order-2", item("abcde", 2))));
+
+            //Then
+            assertThrows(IOException.class, () -> sut.append(order("order-3", item("abcde", 3))));
+        }
+        assertEquals(List.of("order-1"), durable.stream().map(JournaledOrder::getOrderId).toList());
+        assertEquals(List.of("order-1"), readAll().stream().map(JournaledOrder::getOrderId).toList());
+    }
+
+    private List<JournaledOrder> readAll() throws IOException {
+        List<JournaledOrder> read = new ArrayList<>();
+        OrderJournal.read(directory, read::add);
+        return read;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private int recordLength(Path segment, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, position);
+            return length.flip().getInt() + 8;
+        }
+    }
+
+    private JournaledOrder order(String orderId, OrderItemDO... items) {
+        return new JournaledOrder(orderId, Instant.parse("2024-05-01T10:15:30.123456789Z"), List.of(items));
+    }
+
+    private OrderItemDO item(String bookId, int quantity) {
+        return OrderItemDO.builder().bookId(bookId).quantity(quantity).build();
+    }
+
+}
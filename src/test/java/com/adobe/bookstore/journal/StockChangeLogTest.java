@@ -0,0 +1,89 @@
+package com.adobe.bookstore.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockChangeLogTest {
+
+    private static final String BOOK_ID = "5c000000-0000-4000-8000-000000000001";
+    private static final String OTHER_BOOK_ID = "5c000000-0000-4000-8000-000000000002";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testRead_shouldReturnAppendedChanges_whenLogIsReopened() throws IOException {
+        //Given
+        try (StockChangeLog sut = new StockChangeLog(directory)) {
+            //When
+            sut.awaitDurable(sut.append(List.of(new StockChange(BOOK_ID, -2, 7),
+                    new StockChange(OTHER_BOOK_ID, 3, 1))));
+        }
+
+        //Then
+        List<StockChange> read = readAll();
+        assertEquals(List.of(BOOK_ID, OTHER_BOOK_ID), read.stream().map(StockChange::getBookId).toList());
+        assertEquals(List.of(-2, 3), read.stream().map(StockChange::getUnits).toList());
+        assertEquals(List.of(7L, 1L), read.stream().map(StockChange::getVersion).toList());
+    }
+
+    @Test
+    public void testRead_shouldStopAtTornRecord_whenTailIsCorrupted() throws IOException {
+        //Given
+        try (StockChangeLog sut = new StockChangeLog(directory)) {
+            sut.awaitDurable(sut.append(List.of(new StockChange(BOOK_ID, -1, 1), new StockChange(BOOK_ID, -1, 2))));
+        }
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            // Flips a byte of the second change, as a crash in the middle of writing it would
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 40);
+        }
+
+        //When
+        List<StockChange> read = readAll();
+
+        //Then
+        assertEquals(List.of(1L), read.stream().map(StockChange::getVersion).toList());
+    }
+
+    @Test
+    public void testDeleteSegmentsUpTo_shouldKeepChangesAppendedAfterRotation_whenCalled() throws IOException {
+        //Given
+        try (StockChangeLog sut = new StockChangeLog(directory)) {
+            sut.awaitDurable(sut.append(List.of(new StockChange(BOOK_ID, -1, 1))));
+            long finished = sut.rotate();
+            sut.awaitDurable(sut.append(List.of(new StockChange(BOOK_ID, -1, 2))));
+
+            //When
+            sut.deleteSegmentsUpTo(finished);
+        }
+
+        //Then
+        assertEquals(1, segments().size());
+        assertEquals(List.of(2L), readAll().stream().map(StockChange::getVersion).toList());
+    }
+
+    private List<StockChange> readAll() throws IOException {
+        List<StockChange> changes = new ArrayList<>();
+        StockChangeLog.read(directory, changes::add);
+        return changes;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.adobe.bookstore.projection;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.repository.OrderArchiveRepository;
+import com.adobe.bookstore.service.IBookOrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "bookstore.orders.archive.enabled=false")
+public class OrderSummaryProjectionTest {
+
+    private static final String BOOK_ID = "50100000-0000-4000-8000-000000000000";
+    private static final String OTHER_BOOK_ID = "50200000-0000-4000-8000-000000000000";
+    private static final String ORDER_ID = "50300000-0000-4000-8000-000000000000";
+
+    @Autowired
+    private OrderSummaryProjection sut;
+
+    @Autowired
+    private IBookOrderService bookOrderService;
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM book_order");
+        jdbcTemplate.update("DELETE FROM order_item_archive");
+        jdbcTemplate.update("DELETE FROM book_order_archive");
+        sut.rebuild();
+    }
+
+    @Test
+    public void testCreateOrder_shouldAddUnitsSoldAndChangeVersion_whenOrderIsStored() {
+        //Given
+        sut.rebuild();
+        String version = sut.getVersion();
+
+        //When
+        bookOrderService.createOrder(List.of(item(BOOK_ID, 2), item(OTHER_BOOK_ID, 1)));
+        bookOrderService.createOrder(List.of(item(BOOK_ID, 3)));
+
+        //Then
+        assertEquals(Map.of(BOOK_ID, 5L, OTHER_BOOK_ID, 1L), sut.getUnitsSoldByBookId());
+        assertEquals(5, sut.getUnitsSold(BOOK_ID));
+        assertEquals(0, sut.getUnitsSold("unknown"));
+        assertEquals(2, sut.getOrderCount());
+        assertNotEquals(version, sut.getVersion());
+    }
+
+    @Test
+    public void testCreateOrder_shouldCountEveryUnit_whenManyOrdersSellABookForTheFirstTime() throws Exception {
+        //Given
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return bookOrderService.createOrder(List.of(item(BOOK_ID, 1)));
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //Then
+        assertEquals(8, sut.getUnitsSold(BOOK_ID));
+    }
+
+    @Test
+    public void testArchive_shouldKeepUnitsSoldAndChangeVersion_whenOrdersAreMoved() {
+        //Given
+        String orderId = bookOrderService.createOrder(List.of(item(BOOK_ID, 2)));
+        String version = sut.getVersion();
+
+        //When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                orderArchiveRepository.moveToArchive(List.of(orderId), Instant.now()));
+
+        //Then
+        assertEquals(2, sut.getUnitsSold(BOOK_ID));
+        assertEquals(0, sut.getOrderCount());
+        assertNotEquals(version, sut.getVersion());
+    }
+
+    @Test
+    public void testRebuild_shouldComputeUnitsSoldFromLiveAndArchivedItems_whenTablesChangedByHand() {
+        //Given
+        jdbcTemplate.update("INSERT INTO order_item (order_id, book_id, quantity) VALUES (?, ?, 4)", ORDER_ID, BOOK_ID);
+        jdbcTemplate.update("INSERT INTO order_item_archive (order_id, book_id, quantity) VALUES (?, ?, 6)", ORDER_ID,
+                OTHER_BOOK_ID);
+        jdbcTemplate.update("INSERT INTO order_item_archive (order_id, book_id, quantity) VALUES (?, ?, 1)", ORDER_ID,
+                BOOK_ID);
+
+        //When
+        sut.rebuild();
+
+        //Then
+        assertEquals(Map.of(BOOK_ID, 5L, OTHER_BOOK_ID, 6L), sut.getUnitsSoldByBookId());
+        assertNotNull(sut.getLastRebuild());
+    }
+
+    private OrderItemDO item(String bookId, int quantity) {
+        return OrderItemDO.builder().bookId(bookId).quantity(quantity).build();
+    }
+
+}
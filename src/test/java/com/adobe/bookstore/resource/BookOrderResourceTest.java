@@ -1,24 +1,43 @@
 package com.adobe.bookstore.resource;
 
+import com.adobe.bookstore.DO.BulkOrderDO;
+import com.adobe.bookstore.DO.BulkOrderResultDO;
+import com.adobe.bookstore.DO.OrderDO;
 import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.DO.OrderPageDO;
+import com.adobe.bookstore.cache.IdempotencyKeyStore;
+import com.adobe.bookstore.exception.NotEnoughStockException;
+import com.adobe.bookstore.metrics.RequestMetrics;
 import com.adobe.bookstore.service.IBookOrderService;
 import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IBulkOrderService;
+import com.adobe.bookstore.service.IStockUpdateService;
+import com.adobe.bookstore.utils.BinaryOrders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -34,13 +53,31 @@ public class BookOrderResourceTest {
     @Mock
     private IBookStockService bookStockService;
 
+    @Mock
+    private IStockUpdateService stockUpdateService;
+
+    @Mock
+    private IBulkOrderService bulkOrderService;
+
+    @Spy
+    private IdempotencyKeyStore idempotencyKeyStore = new IdempotencyKeyStore(100, Duration.ofHours(1),
+            new SimpleMeterRegistry());
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private RequestMetrics requestMetrics = new RequestMetrics(meterRegistry);
+
     @Test
     public void testCreateOrder_shouldReturnBadRequest_whenOrderIsEmpty() {
         //Given
         List<OrderItemDO> order = new ArrayList<>();
 
         //When
-        ResponseEntity<String> response = sut.createOrder(order);
+        ResponseEntity<String> response = sut.createOrder(order, null);
 
         //Then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -54,8 +91,8 @@ public class BookOrderResourceTest {
         order.add(OrderItemDO.builder().bookId("abcde").quantity(5).build());
 
         //When
-        when(bookStockService.existsEnoughQuantityInStock(order)).thenThrow(new RuntimeException());
-        ResponseEntity<String> response = sut.createOrder(order);
+        doThrow(new RuntimeException()).when(bookStockService).reserveStock(order);
+        ResponseEntity<String> response = sut.createOrder(order, null);
 
         //Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -69,13 +106,33 @@ public class BookOrderResourceTest {
         order.add(OrderItemDO.builder().bookId("abcde").quantity(5).build());
 
         //When
-        when(bookStockService.existsEnoughQuantityInStock(order)).thenReturn(false);
-        ResponseEntity<String> response = sut.createOrder(order);
+        doThrow(new NotEnoughStockException("abcde")).when(bookStockService).reserveStock(order);
+        ResponseEntity<String> response = sut.createOrder(order, null);
 
         //Then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("The order has been rejected because at least one item does not have " +
                 "the required quantity available on stock.", response.getBody());
+        verify(bookOrderService, never()).createOrder(order);
+    }
+
+    @Test
+    public void testCreateOrder_shouldReturnBadRequest_whenAnItemHasAnInvalidQuantity() {
+        //Given
+        List<OrderItemDO> order = new ArrayList<>();
+        order.add(OrderItemDO.builder().bookId("abcde").quantity(-5).build());
+
+        //When
+        doThrow(new IllegalArgumentException("Invalid quantity for book with ID abcde."))
+                .when(bookStockService).reserveStock(order);
+        ResponseEntity<String> response = sut.createOrder(order, null);
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The order has been rejected because at least one item has no book ID or an invalid " +
+                "quantity.",
+                response.getBody());
+        verify(bookOrderService, never()).createOrder(order);
     }
 
     @Test
@@ -85,53 +142,197 @@ public class BookOrderResourceTest {
         order.add(OrderItemDO.builder().bookId("abcde").quantity(5).build());
 
         //When
-        when(bookStockService.existsEnoughQuantityInStock(order)).thenReturn(true);
         when(bookOrderService.createOrder(order)).thenThrow(new RuntimeException());
-        ResponseEntity<String> response = sut.createOrder(order);
+        ResponseEntity<String> response = sut.createOrder(order, null);
 
         //Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("An unexpected error occurred creating the Order.", response.getBody());
+        verify(stockUpdateService).releaseStockAsync(order);
     }
 
     @Test
-    public void testCreateOrder_shouldReturnOK_whenErrorUpdatingStock() {
+    public void testCreateOrder_shouldReturnOK_whenCalled() {
         //Given
         String orderId = "123456";
         String bookId = "abcde";
         List<OrderItemDO> order = new ArrayList<>();
-        order.add(OrderItemDO.builder().bookId(bookId).quantity(5).build());
+        order.add(OrderItemDO.builder().bookId(bookId).quantity(1).build());
 
         //When
-        when(bookStockService.existsEnoughQuantityInStock(order)).thenReturn(true);
         when(bookOrderService.createOrder(order)).thenReturn(orderId);
-        doThrow(new RuntimeException("Book with ID " + bookId + " not found. There was an error checking " +
-                "if existed enough stock.")).when(bookStockService).updateStock(order);
-        ResponseEntity<String> response = sut.createOrder(order);
+        ResponseEntity<String> response = sut.createOrder(order, null);
 
         //Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Order created successfully. Order ID: " + orderId, response.getBody());
+        verify(bookStockService).reserveStock(order);
+        verify(stockUpdateService, never()).releaseStockAsync(order);
+    }
+
+    @Test
+    public void testCreateBinaryOrder_shouldCreateOrder_whenBodyIsWellFormed() {
+        //Given
+        String bookId = "ae1666d6-6100-4ef0-9037-b45dd0d5bb0e";
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId(bookId).quantity(3).build());
+        byte[] body = BinaryOrders.writeOrder(order);
+
+        //When
+        when(bookOrderService.createOrder(order)).thenReturn("123456");
+        ResponseEntity<String> response = sut.createBinaryOrder(body, null);
 
-        CompletableFuture.runAsync(() -> {}).join();
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Order created successfully. Order ID: 123456", response.getBody());
+        verify(bookStockService).reserveStock(order);
     }
 
     @Test
-    public void testCreateOrder_shouldReturnOK_whenCalled() {
+    public void testCreateBinaryOrder_shouldReturnBadRequest_whenBodyIsTruncated() {
+        //Given
+        byte[] body = {2, 1, 2, 3};
+
+        //When
+        ResponseEntity<String> response = sut.createBinaryOrder(body, null);
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The order has been rejected because it was malformed.", response.getBody());
+        verify(bookStockService, never()).reserveStock(any());
+    }
+
+    @Test
+    public void testCreateOrder_shouldRecordEveryPhase_whenOrderIsCreated() {
         //Given
-        String orderId = "123456";
-        String bookId = "abcde";
         List<OrderItemDO> order = new ArrayList<>();
-        order.add(OrderItemDO.builder().bookId(bookId).quantity(0).build());
+        order.add(OrderItemDO.builder().bookId("abcde").quantity(1).build());
 
         //When
-        when(bookStockService.existsEnoughQuantityInStock(order)).thenReturn(true);
-        when(bookOrderService.createOrder(order)).thenReturn(orderId);
-        ResponseEntity<String> response = sut.createOrder(order);
+        when(bookOrderService.createOrder(order)).thenReturn("123456");
+        sut.createOrder(order, null);
 
         //Then
+        assertEquals(1, meterRegistry.get("bookstore.orders.create").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("bookstore.orders.create.phase").tag("phase", "stock_check").timer()
+                .count());
+        assertEquals(1, meterRegistry.get("bookstore.orders.create.phase").tag("phase", "order_persist").timer()
+                .count());
+    }
+
+    @Test
+    public void testCreateOrder_shouldRecordClientError_whenNotEnoughStock() {
+        //Given
+        List<OrderItemDO> order = new ArrayList<>();
+        order.add(OrderItemDO.builder().bookId("abcde").quantity(5).build());
+
+        //When
+        doThrow(new NotEnoughStockException("abcde")).when(bookStockService).reserveStock(order);
+        sut.createOrder(order, null);
+
+        //Then
+        assertEquals(1, meterRegistry.get("bookstore.orders.create").tag("outcome", "client_error").timer().count());
+        assertEquals(0, meterRegistry.get("bookstore.orders.create.phase").tag("phase", "order_persist").timer()
+                .count());
+    }
+
+    @Test
+    public void testCreateOrder_shouldReturnSameOrderWithoutCreatingItAgain_whenIdempotencyKeyIsRepeated() {
+        //Given
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId("abcde").quantity(5).build());
+        List<OrderItemDO> retry = List.of(OrderItemDO.builder().bookId("abcde").quantity(5).build());
+
+        //When
+        when(bookOrderService.createOrder(order)).thenReturn("123456");
+        ResponseEntity<String> response = sut.createOrder(order, "key-1");
+        ResponseEntity<String> replay = sut.createOrder(retry, "key-1");
+
+        //Then
+        assertEquals(HttpStatus.OK, replay.getStatusCode());
+        assertEquals(response.getBody(), replay.getBody());
+        verify(bookStockService, times(1)).reserveStock(any());
+        verify(bookOrderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    public void testCreateOrder_shouldCreateOrderAgain_whenFirstRequestWithIdempotencyKeyFailed() {
+        //Given
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId("abcde").quantity(5).build());
+
+        //When
+        doThrow(new NotEnoughStockException("abcde")).doNothing().when(bookStockService).reserveStock(order);
+        when(bookOrderService.createOrder(order)).thenReturn("123456");
+        ResponseEntity<String> rejected = sut.createOrder(order, "key-1");
+        ResponseEntity<String> response = sut.createOrder(order, "key-1");
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals("Order created successfully. Order ID: " + orderId, response.getBody());
+        verify(bookStockService, times(2)).reserveStock(order);
+    }
+
+    @Test
+    public void testCreateOrder_shouldReturnUnprocessableEntity_whenIdempotencyKeyIsUsedForAnotherOrder() {
+        //Given
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId("abcde").quantity(5).build());
+        List<OrderItemDO> otherOrder = List.of(OrderItemDO.builder().bookId("abcde").quantity(6).build());
+
+        //When
+        when(bookOrderService.createOrder(order)).thenReturn("123456");
+        sut.createOrder(order, "key-1");
+        ResponseEntity<String> response = sut.createOrder(otherOrder, "key-1");
+
+        //Then
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        verify(bookStockService, never()).reserveStock(otherOrder);
+    }
+
+    @Test
+    public void testCreateOrders_shouldReturnBadRequest_whenBulkIsEmpty() {
+        //Given
+        List<BulkOrderDO> orders = new ArrayList<>();
+
+        //When
+        ResponseEntity<?> response = sut.createOrders(orders);
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(bulkOrderService, never()).createOrders(any());
+    }
+
+    @Test
+    public void testCreateOrders_shouldReturnResultPerOrder_whenCalled() {
+        //Given
+        List<BulkOrderDO> orders = List.of(
+                BulkOrderDO.builder().reference("first")
+                        .items(List.of(OrderItemDO.builder().bookId("abcde").quantity(5).build())).build(),
+                BulkOrderDO.builder().reference("second")
+                        .items(List.of(OrderItemDO.builder().bookId("fghij").quantity(50).build())).build());
+        List<BulkOrderResultDO> results = List.of(
+                BulkOrderResultDO.builder().reference("first").accepted(true).orderId("12345").build(),
+                BulkOrderResultDO.builder().reference("second").accepted(false).reason("No stock.").build());
+
+        //When
+        when(bulkOrderService.createOrders(orders)).thenReturn(results);
+        ResponseEntity<?> response = sut.createOrders(orders);
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    public void testCreateOrders_shouldReturnInternalServerError_whenUnknownError() {
+        //Given
+        List<BulkOrderDO> orders = List.of(BulkOrderDO.builder().reference("first")
+                .items(List.of(OrderItemDO.builder().bookId("abcde").quantity(5).build())).build());
+
+        //When
+        when(bulkOrderService.createOrders(orders)).thenThrow(new RuntimeException());
+        ResponseEntity<?> response = sut.createOrders(orders);
+
+        //Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("An unexpected error occurred creating the Orders.", response.getBody());
     }
 
     @Test
@@ -144,7 +345,7 @@ public class BookOrderResourceTest {
 
         //When
         when(bookOrderService.getOrders()).thenReturn(bookOrderItemList);
-        ResponseEntity<?> response = sut.getOrders();
+        ResponseEntity<?> response = sut.getOrders(null);
 
         //Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -158,22 +359,178 @@ public class BookOrderResourceTest {
 
         //When
         when(bookOrderService.getOrders()).thenReturn(bookOrderItemList);
-        ResponseEntity<?> response = sut.getOrders();
+        ResponseEntity<?> response = sut.getOrders(null);
 
         //Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(bookOrderItemList, response.getBody());
     }
 
+    @Test
+    public void testGetOrders_shouldReturnNotModified_whenClientHasCurrentVersion() {
+        //When
+        when(bookOrderService.getOrdersVersion()).thenReturn("abc-7");
+        ResponseEntity<?> response = sut.getOrders("\"abc-7\"");
+
+        //Then
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"abc-7\"", response.getHeaders().getETag());
+        verify(bookOrderService, never()).getOrders();
+    }
+
+    @Test
+    public void testGetOrders_shouldReturnOrdersWithETag_whenClientHasOldVersion() {
+        //Given
+        Map<String, List<OrderItemDO>> orders = new HashMap<>();
+
+        //When
+        when(bookOrderService.getOrdersVersion()).thenReturn("abc-8");
+        when(bookOrderService.getOrders()).thenReturn(orders);
+        ResponseEntity<?> response = sut.getOrders("\"abc-7\"");
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc-8\"", response.getHeaders().getETag());
+        assertEquals(orders, response.getBody());
+    }
+
     @Test
     public void testGetOrders_shouldReturnError_whenCalled() {
         //When
         when(bookOrderService.getOrders()).thenThrow(new RuntimeException("There was an error retrieving the orders."));
-        ResponseEntity<?> response = sut.getOrders();
+        ResponseEntity<?> response = sut.getOrders(null);
 
         //Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("There was an error retrieving the orders.", response.getBody());
     }
 
+    @Test
+    public void testGetBinaryOrders_shouldReturnOrdersInBinaryFormat_whenIdsAreUuids() {
+        //Given
+        Map<String, List<OrderItemDO>> orders = Map.of("b5661c93-05a5-41f9-98e4-66fa4360f63d",
+                List.of(OrderItemDO.builder().bookId("ae1666d6-6100-4ef0-9037-b45dd0d5bb0e").quantity(2).build()));
+
+        //When
+        when(bookOrderService.getOrdersVersion()).thenReturn("abc-8");
+        when(bookOrderService.getOrders()).thenReturn(orders);
+        ResponseEntity<?> response = sut.getBinaryOrders(null);
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc-8\"", response.getHeaders().getETag());
+        assertEquals(orders, BinaryOrders.readOrders(ByteBuffer.wrap((byte[]) response.getBody())));
+    }
+
+    @Test
+    public void testGetBinaryOrders_shouldReturnNotAcceptable_whenAnIdIsNotUuid() {
+        //Given
+        Map<String, List<OrderItemDO>> orders = Map.of("12345-67890-abcde",
+                List.of(OrderItemDO.builder().bookId("12345-67890").quantity(5).build()));
+
+        //When
+        when(bookOrderService.getOrders()).thenReturn(orders);
+        ResponseEntity<?> response = sut.getBinaryOrders(null);
+
+        //Then
+        assertEquals(HttpStatus.NOT_ACCEPTABLE, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetUnitsSoldByBookId_shouldReturnUnitsSold_whenCalled() {
+        //Given
+        Map<String, Long> unitsSold = Map.of("abcde", 5L);
+
+        //When
+        when(bookOrderService.getUnitsSoldByBookId()).thenReturn(unitsSold);
+        ResponseEntity<?> response = sut.getUnitsSoldByBookId(null);
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(unitsSold, response.getBody());
+    }
+
+    @Test
+    public void testGetOrder_shouldReturnOrder_whenOrderExists() {
+        //Given
+        OrderDO order = OrderDO.builder().orderId("12345")
+                .items(List.of(OrderItemDO.builder().bookId("abcde").quantity(5).build())).build();
+
+        //When
+        when(bookOrderService.getOrder("12345")).thenReturn(Optional.of(order));
+        ResponseEntity<?> response = sut.getOrder("12345");
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(order, response.getBody());
+    }
+
+    @Test
+    public void testGetOrder_shouldReturnNotFound_whenOrderDoesNotExist() {
+        //When
+        when(bookOrderService.getOrder("12345")).thenReturn(Optional.empty());
+        ResponseEntity<?> response = sut.getOrder("12345");
+
+        //Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldReturnBadRequest_whenLimitIsOutOfRange() {
+        //When
+        ResponseEntity<?> response = sut.getOrdersPage(0, "");
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The limit must be between 1 and 1000.", response.getBody());
+        verifyNoInteractions(bookOrderService);
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldReturnPage_whenCalled() {
+        //Given
+        OrderPageDO page = OrderPageDO.builder().orders(new HashMap<>()).nextCursor("12345").build();
+
+        //When
+        when(bookOrderService.getOrdersPage("", 10)).thenReturn(page);
+        ResponseEntity<?> response = sut.getOrdersPage(10, "");
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldReturnBadRequest_whenCursorIsNotAnOrderId() {
+        //When
+        when(bookOrderService.getOrdersPage("12345", 10))
+                .thenThrow(new IllegalArgumentException("The cursor 12345 is not an order ID."));
+        ResponseEntity<?> response = sut.getOrdersPage(10, "12345");
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The cursor 12345 is not an order ID.", response.getBody());
+    }
+
+    @Test
+    public void testStreamOrders_shouldWriteOrdersAsJsonObject_whenCalled() throws Exception {
+        //Given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //When
+        doAnswer(invocation -> {
+            BiConsumer<String, List<OrderItemDO>> consumer = invocation.getArgument(0);
+            consumer.accept("order-1", List.of(OrderItemDO.builder().bookId("AAA").quantity(1).build()));
+            consumer.accept("order-2", List.of(OrderItemDO.builder().bookId("BBB").quantity(2).build()));
+            return null;
+        }).when(bookOrderService).streamOrders(any());
+        ResponseEntity<StreamingResponseBody> response = sut.streamOrders();
+        response.getBody().writeTo(outputStream);
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"order-1\":[{\"bookId\":\"AAA\",\"quantity\":1}]," +
+                "\"order-2\":[{\"bookId\":\"BBB\",\"quantity\":2}]}", outputStream.toString());
+    }
+
 }
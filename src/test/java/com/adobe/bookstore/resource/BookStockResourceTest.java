@@ -1,43 +1,98 @@
 package com.adobe.bookstore.resource;
 
+import com.adobe.bookstore.DO.BookStockLookupDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.DO.StockImportResultDO;
+import com.adobe.bookstore.exception.TooManySubscribersException;
+import com.adobe.bookstore.metrics.RequestMetrics;
 import com.adobe.bookstore.model.BookStock;
 import com.adobe.bookstore.service.IBookStockService;
+import com.adobe.bookstore.service.IStockEventService;
+import com.adobe.bookstore.service.IStockSnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
 @ExtendWith(MockitoExtension.class)
 class BookStockResourceTest {
 
+    private static final String BOOK_ID = "12345678-90ab-4cde-8f01-234567890abc";
+    private static final String EVENTS_BOOK_ID = "e0000000-0000-4000-8000-000000000001";
+    private static final String OTHER_EVENTS_BOOK_ID = "e0000000-0000-4000-8000-000000000002";
+    private static final String LOOKUP_BOOK_ID = "10000000-0000-4000-8000-000000000001";
+    private static final String OTHER_LOOKUP_BOOK_ID = "10000000-0000-4000-8000-000000000002";
+    private static final String CACHED_BOOK_ID = "abcde123-4500-4000-8000-000000000000";
+    private static final String SNAPSHOT_BOOK_ID = "5a000000-0000-4000-8000-000000000001";
+
     @LocalServerPort
     private int port;
 
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private IBookStockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @InjectMocks
     private BookStockResource sut;
 
     @Mock
     private IBookStockService bookStockService;
 
+    @Mock
+    private IStockEventService stockEventService;
+
+    @Mock
+    private IStockSnapshotService stockSnapshotService;
+
+    @Spy
+    private RequestMetrics requestMetrics = new RequestMetrics(new SimpleMeterRegistry());
+
     @Test
     public void testGetStockById_shouldReturnOk_whenStockExists() {
         //Given
@@ -46,7 +101,7 @@ class BookStockResourceTest {
 
         //When
         when(bookStockService.getStockById(bookId)).thenReturn(Optional.of(bookStock));
-        ResponseEntity<BookStock> response = sut.getStockById(bookId);
+        ResponseEntity<BookStock> response = sut.getStockById(bookId, null);
 
         //Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -60,7 +115,7 @@ class BookStockResourceTest {
 
         //When
         when(bookStockService.getStockById(bookId)).thenReturn(Optional.empty());
-        ResponseEntity<BookStock> response = sut.getStockById(bookId);
+        ResponseEntity<BookStock> response = sut.getStockById(bookId, null);
 
         //Then
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -68,18 +123,250 @@ class BookStockResourceTest {
     }
 
     @Test
-    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) VALUES ('12345-67890', 'some book', 7)")
+    public void testGetStockById_shouldReturnNotModified_whenClientHasCurrentVersion() {
+        //Given
+        String bookId = "abc123";
+
+        //When
+        when(bookStockService.getStockVersion(bookId)).thenReturn(Optional.of(3L));
+        ResponseEntity<BookStock> response = sut.getStockById(bookId, "\"3\"");
+
+        //Then
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        verify(bookStockService, never()).getStockById(bookId);
+    }
+
+    @Test
+    public void testGetStockById_shouldReturnStockWithETag_whenClientHasOldVersion() {
+        //Given
+        String bookId = "abc123";
+        BookStock bookStock = BookStock.builder().id(bookId).name("The Great Gatsby").quantity(9).version(4L).build();
+
+        //When
+        when(bookStockService.getStockVersion(bookId)).thenReturn(Optional.of(4L));
+        when(bookStockService.getStockById(bookId)).thenReturn(Optional.of(bookStock));
+        ResponseEntity<BookStock> response = sut.getStockById(bookId, "\"3\"");
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        assertEquals(bookStock, response.getBody());
+    }
+
+    @Test
+    public void testGetStockByIds_shouldReturnBooksInRequestOrderAndMissingIds_whenCalled() {
+        //Given
+        BookStock first = BookStock.builder().id("abc123").name("The Great Gatsby").quantity(9).build();
+        BookStock second = BookStock.builder().id("def456").name("Ulysses").quantity(2).build();
+
+        //When
+        when(bookStockService.getStockByIds(Set.of("def456", "missing", "abc123")))
+                .thenReturn(Map.of("abc123", first, "def456", second));
+        ResponseEntity<?> response = sut.getStockByIds(List.of("def456", "missing", "abc123", "def456"));
+
+        //Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(BookStockLookupDO.builder().books(List.of(second, first)).missingIds(List.of("missing")).build(),
+                response.getBody());
+    }
+
+    @Test
+    public void testGetStockByIds_shouldReturnBadRequest_whenNoIds() {
+        //When
+        ResponseEntity<?> response = sut.getStockByIds(List.of());
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(bookStockService, never()).getStockByIds(any());
+    }
+
+    @Test
+    public void testSubscribe_shouldReturnServiceUnavailable_whenTooManySubscribers() {
+        //When
+        when(stockEventService.subscribe(Set.of("abc123"))).thenThrow(new TooManySubscribersException(1));
+        ResponseEntity<SseEmitter> response = sut.subscribe(List.of("abc123"));
+
+        //Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) VALUES ('" + EVENTS_BOOK_ID + "', " +
+            "'some book', 7), ('" + OTHER_EVENTS_BOOK_ID + "', 'other book', 3)")
+    @Sql(statements = "DELETE FROM book_stock WHERE id IN ('" + EVENTS_BOOK_ID + "', '" + OTHER_EVENTS_BOOK_ID + "')",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldStreamSnapshotAndThenStockChanges() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port +
+                "/books_stock/events?ids=" + EVENTS_BOOK_ID)).build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .get(10, TimeUnit.SECONDS);
+        Iterator<String> lines = response.body().iterator();
+
+        String snapshot = CompletableFuture.supplyAsync(() -> nextData(lines, "snapshot"))
+                .get(10, TimeUnit.SECONDS);
+        stockService.releaseStock(List.of(OrderItemDO.builder().bookId(OTHER_EVENTS_BOOK_ID).quantity(1).build()));
+        stockService.releaseStock(List.of(OrderItemDO.builder().bookId(EVENTS_BOOK_ID).quantity(2).build()));
+        String delta = CompletableFuture.supplyAsync(() -> nextData(lines, "stock"))
+                .get(10, TimeUnit.SECONDS);
+        response.body().close();
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(snapshot).contains("\"bookId\":\"" + EVENTS_BOOK_ID + "\"", "\"quantity\":7")
+                .doesNotContain(OTHER_EVENTS_BOOK_ID);
+        assertThat(delta).contains("\"bookId\":\"" + EVENTS_BOOK_ID + "\"", "\"quantity\":9");
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) SELECT CAST('f0000000-0000-4000-8000-' || " +
+            "LPAD(CAST(x AS VARCHAR), 12, '0') AS UUID), 'book ' || x, 1 FROM SYSTEM_RANGE(1, 1200)")
+    @Sql(statements = "DELETE FROM book_stock WHERE CAST(id AS VARCHAR) LIKE 'f0000000-0000-4000-8000-%'",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldStreamSnapshotOfEveryBookInChunks() throws Exception {
+        long books = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_stock", Long.class);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/books_stock/events"))
+                .build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .get(10, TimeUnit.SECONDS);
+        Iterator<String> lines = response.body().iterator();
+
+        List<Integer> chunkSizes = CompletableFuture.supplyAsync(() -> {
+            List<Integer> sizes = new ArrayList<>();
+            long received = 0;
+            while (received < books) {
+                int size = nextData(lines, "snapshot").split("\"bookId\"", -1).length - 1;
+                sizes.add(size);
+                received += size;
+            }
+            return sizes;
+        }).get(10, TimeUnit.SECONDS);
+        response.body().close();
+
+        assertThat(chunkSizes).hasSizeGreaterThan(2).allMatch(size -> size <= 500);
+        assertThat(chunkSizes.stream().mapToLong(Integer::longValue).sum()).isEqualTo(books);
+    }
+
+    private static String nextData(Iterator<String> lines, String event) {
+        while (!lines.next().equals("event:" + event)) {
+            // Skip the other events
+        }
+        return lines.next().substring("data:".length());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) VALUES ('" + LOOKUP_BOOK_ID + "', " +
+            "'some book', 7), ('" + OTHER_LOOKUP_BOOK_ID + "', 'other book', 3)")
+    @Sql(statements = "DELETE FROM book_stock WHERE id IN ('" + LOOKUP_BOOK_ID + "', '" + OTHER_LOOKUP_BOOK_ID + "')",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldReturnStockOfSeveralBooks() {
+        var result = restTemplate.getForObject("http://localhost:" + port +
+                "/books_stock/?ids=" + OTHER_LOOKUP_BOOK_ID + ",missing," + LOOKUP_BOOK_ID, BookStockLookupDO.class);
+
+        assertThat(result.getBooks()).extracting(BookStock::getId)
+                .containsExactly(OTHER_LOOKUP_BOOK_ID, LOOKUP_BOOK_ID);
+        assertThat(result.getBooks()).extracting(BookStock::getQuantity).containsExactly(3, 7);
+        assertThat(result.getMissingIds()).containsExactly("missing");
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) VALUES ('" + CACHED_BOOK_ID + "', 'some book', 7)")
+    @Sql(statements = "DELETE FROM book_stock WHERE id = '" + CACHED_BOOK_ID + "'",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldAnswerNotModifiedUntilStockChanges() {
+        String url = "http://localhost:" + port + "/books_stock/" + CACHED_BOOK_ID;
+        ResponseEntity<BookStock> first = restTemplate.getForEntity(url, BookStock.class);
+        String eTag = first.getHeaders().getETag();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        ResponseEntity<BookStock> unchanged = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers),
+                BookStock.class);
+        stockService.releaseStock(List.of(OrderItemDO.builder().bookId(CACHED_BOOK_ID).quantity(1).build()));
+        ResponseEntity<BookStock> changed = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers),
+                BookStock.class);
+
+        assertThat(eTag).isNotNull();
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(changed.getBody().getQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) VALUES ('" + BOOK_ID + "', 'some book', 7)")
     public void shouldReturnCurrentStock() {
-        var result = restTemplate.getForObject("http://localhost:" + port + "/books_stock/12345-67890",
+        var result = restTemplate.getForObject("http://localhost:" + port + "/books_stock/" + BOOK_ID,
                 BookStock.class);
 
         assertThat(result.getQuantity()).isEqualTo(7);
     }
 
+    @Test
+    public void testImportStock_shouldReturnBadRequest_whenCsvIsInvalid() throws Exception {
+        //Given
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+
+        //When
+        when(stockSnapshotService.importStock(body, false)).thenThrow(new IllegalArgumentException("No header."));
+        ResponseEntity<?> response = sut.importStock(body, false);
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("No header.", response.getBody());
+    }
+
+    @Test
+    public void testImportStock_shouldReturnConflict_whenStockIsKeptInMemory() throws Exception {
+        //Given
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+
+        //When
+        when(stockSnapshotService.importStock(body, false))
+                .thenThrow(new IllegalStateException("The stock cannot be imported while it is kept in memory."));
+        ResponseEntity<?> response = sut.importStock(body, false);
+
+        //Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) VALUES ('" + SNAPSHOT_BOOK_ID + "', 'some book', 7)")
+    @Sql(statements = "DELETE FROM book_stock WHERE id = '" + SNAPSHOT_BOOK_ID + "'",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldExportAndImportStockAsCsv() {
+        String url = "http://localhost:" + port + "/books_stock/snapshot";
+        String snapshot = restTemplate.getForObject(url, String.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        ResponseEntity<StockImportResultDO> imported = restTemplate.postForEntity(url + "?delta=true",
+                new HttpEntity<>("id,name,quantity\n" + SNAPSHOT_BOOK_ID + ",some book,9\n", headers),
+                StockImportResultDO.class);
+
+        assertThat(snapshot).contains(SNAPSHOT_BOOK_ID + ",some book,7");
+        assertThat(imported.getBody()).isEqualTo(StockImportResultDO.builder().read(1).changed(1).build());
+        assertThat(stockService.getStockById(SNAPSHOT_BOOK_ID)).get().extracting(BookStock::getQuantity)
+                .isEqualTo(9);
+    }
+
+    @Test
+    public void shouldPublishHotPathMetricsInPrometheusFormat() {
+        restTemplate.getForEntity("http://localhost:" + port + "/books_stock/" + BOOK_ID, BookStock.class);
+
+        String metrics = restTemplate.getForObject("http://localhost:" + port + "/actuator/prometheus",
+                String.class);
+
+        assertThat(metrics).contains("bookstore_stock_get_seconds_bucket{", "bookstore_orders_create_seconds_bucket{",
+                "bookstore_stock_updates_queue_depth", "hikaricp_connections_active");
+    }
+
     @Test
     public void shouldReturnNotFoundForEmptyStock() {
         ResponseEntity<BookStock> response = restTemplate.getForEntity("http://localhost:" + port +
-                "/books_stock/12345-67890", BookStock.class);
+                "/books_stock/" + BOOK_ID, BookStock.class);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
@@ -0,0 +1,72 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Background jobs are delayed so that only the statements of the test are counted
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "bookstore.stock.updates.retry-interval-ms=3600000"})
+public class BookOrderBatchInsertTest {
+
+    @Autowired
+    private IBookOrderService bookOrderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testCreateOrder_shouldUseTheSameNumberOfStatements_whateverTheNumberOfItems() {
+        //When
+        long statementsForOneItem = countStatementsCreatingOrder(1);
+        long statementsForFortyItems = countStatementsCreatingOrder(40);
+
+        //Then
+        assertEquals(statementsForOneItem, statementsForFortyItems);
+    }
+
+    @Test
+    public void testCreateOrder_shouldNotSelectBeforeInserting_whenCalled() {
+        //When
+        statistics.clear();
+        bookOrderService.createOrder(createOrder(10));
+
+        //Then
+        // The order header and its ten items
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(11, statistics.getEntityInsertCount());
+    }
+
+    private long countStatementsCreatingOrder(int items) {
+        statistics.clear();
+        bookOrderService.createOrder(createOrder(items));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<OrderItemDO> createOrder(int items) {
+        List<OrderItemDO> order = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            order.add(OrderItemDO.builder().bookId(UUID.randomUUID().toString()).quantity(1).build());
+        }
+        return order;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.model.OrderStatus;
+import com.adobe.bookstore.repository.BookOrderHeaderRepository;
+import com.adobe.bookstore.repository.BookOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BookOrderLookupTest {
+
+    private static final String BOOK_ID = "abcde000-0000-4000-8000-000000000000";
+    private static final String OTHER_BOOK_ID = "f0000000-0000-4000-8000-000000000000";
+
+    @Autowired
+    private IBookOrderService bookOrderService;
+
+    @Autowired
+    private BookOrderRepository bookOrderRepository;
+
+    @Autowired
+    private BookOrderHeaderRepository bookOrderHeaderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        bookOrderRepository.deleteAll();
+        bookOrderHeaderRepository.deleteAll();
+    }
+
+    @Test
+    public void testGetOrder_shouldReturnOrderWithItsHeader_whenOrderHasBeenCreated() {
+        //Given
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId(OTHER_BOOK_ID).quantity(3).build(),
+                OrderItemDO.builder().bookId(BOOK_ID).quantity(2).build());
+        String orderId = bookOrderService.createOrder(order);
+
+        //When
+        OrderDO result = bookOrderService.getOrder(orderId).orElseThrow();
+
+        //Then
+        assertEquals(orderId, result.getOrderId());
+        assertEquals(OrderStatus.CREATED, result.getStatus());
+        assertNotNull(result.getCreatedAt());
+        assertEquals(List.of(OrderItemDO.builder().bookId(BOOK_ID).quantity(2).build(),
+                OrderItemDO.builder().bookId(OTHER_BOOK_ID).quantity(3).build()), result.getItems());
+    }
+
+    @Test
+    public void testLookups_shouldSeekAnIndex_insteadOfScanningTheTable() {
+        //When
+        String byOrderId = explain("SELECT * FROM order_item WHERE order_id = '" + BOOK_ID + "'");
+        String byBookId = explain("SELECT * FROM order_item WHERE book_id = '" + BOOK_ID + "'");
+        String byCreationTime = explain("SELECT * FROM book_order WHERE created_at > CURRENT_TIMESTAMP");
+
+        //Then
+        assertTrue(byOrderId.contains("IDX_ORDER_ITEM_ORDER_ID"), byOrderId);
+        assertTrue(byBookId.contains("PRIMARY_KEY"), byBookId);
+        assertTrue(byCreationTime.contains("IDX_BOOK_ORDER_CREATED_AT"), byCreationTime);
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + query, String.class).toUpperCase();
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.DO.OrderPageDO;
+import com.adobe.bookstore.projection.OrderSummaryProjection;
+import com.adobe.bookstore.repository.BookOrderHeaderRepository;
+import com.adobe.bookstore.repository.BookOrderRepository;
+import com.adobe.bookstore.repository.OrderArchiveRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = "bookstore.orders.archive.enabled=false")
+public class BookOrderPaginationTest {
+
+    private static final String BOOK_ID = "b00ca000-0000-4000-8000-000000000000";
+    private static final String OTHER_BOOK_ID = "b00cb000-0000-4000-8000-000000000000";
+
+    @Autowired
+    private IBookOrderService bookOrderService;
+
+    @Autowired
+    private BookOrderRepository bookOrderRepository;
+
+    @Autowired
+    private BookOrderHeaderRepository bookOrderHeaderRepository;
+
+    @Autowired
+    private OrderSummaryProjection orderSummaryProjection;
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        bookOrderRepository.deleteAll();
+        bookOrderHeaderRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM order_item_archive");
+        jdbcTemplate.update("DELETE FROM book_order_archive");
+        orderSummaryProjection.rebuild();
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldWalkEveryOrderOnce_whenFollowingTheCursor() {
+        //Given
+        List<String> orderIds = createOrders(5);
+
+        //When
+        List<String> readOrderIds = new ArrayList<>();
+        OrderPageDO page = bookOrderService.getOrdersPage("", 2);
+        readOrderIds.addAll(page.getOrders().keySet());
+        while (page.getNextCursor() != null) {
+            page = bookOrderService.getOrdersPage(page.getNextCursor(), 2);
+            readOrderIds.addAll(page.getOrders().keySet());
+        }
+
+        //Then
+        assertEquals(orderIds.stream().sorted().toList(), readOrderIds);
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldWalkArchivedOrdersAfterRecentOnes_whenFollowingTheCursor() {
+        //Given
+        List<String> orderIds = createOrders(5);
+        List<String> archivedOrderIds = List.of(orderIds.get(1), orderIds.get(3));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                orderArchiveRepository.moveToArchive(archivedOrderIds, Instant.now()));
+
+        //When
+        List<String> readOrderIds = new ArrayList<>();
+        OrderPageDO page = bookOrderService.getOrdersPage("", 2);
+        readOrderIds.addAll(page.getOrders().keySet());
+        while (page.getNextCursor() != null) {
+            page = bookOrderService.getOrdersPage(page.getNextCursor(), 2);
+            readOrderIds.addAll(page.getOrders().keySet());
+        }
+
+        //Then
+        List<String> recentOrderIds = orderIds.stream().filter(orderId -> !archivedOrderIds.contains(orderId))
+                .sorted().toList();
+        assertEquals(Stream.concat(recentOrderIds.stream(), archivedOrderIds.stream().sorted()).toList(),
+                readOrderIds);
+        assertEquals(readOrderIds, new ArrayList<>(bookOrderService.getOrders().keySet()));
+        assertEquals(List.of(OrderItemDO.builder().bookId(BOOK_ID).quantity(2).build(),
+                OrderItemDO.builder().bookId(OTHER_BOOK_ID).quantity(1).build()),
+                bookOrderService.getOrders().get(orderIds.get(1)));
+    }
+
+    @Test
+    public void testStreamOrders_shouldReturnTheSameOrdersAsGetOrders_whenCalled() {
+        //Given
+        // Other tests sharing the context delete their orders from the database only
+        orderSummaryProjection.rebuild();
+        createOrders(5);
+
+        //When
+        Map<String, List<OrderItemDO>> streamedOrders = new LinkedHashMap<>();
+        bookOrderService.streamOrders(streamedOrders::put);
+
+        //Then
+        assertEquals(bookOrderService.getOrders(), streamedOrders);
+    }
+
+    @Test
+    public void testGetUnitsSoldByBookId_shouldAddUpCommittedOrders_whenCalled() {
+        //Given
+        orderSummaryProjection.rebuild();
+
+        //When
+        createOrders(5);
+
+        //Then
+        assertEquals(Map.of(BOOK_ID, 15L, OTHER_BOOK_ID, 5L), bookOrderService.getUnitsSoldByBookId());
+    }
+
+    private List<String> createOrders(int count) {
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orderIds.add(bookOrderService.createOrder(List.of(
+                    OrderItemDO.builder().bookId(BOOK_ID).quantity(i + 1).build(),
+                    OrderItemDO.builder().bookId(OTHER_BOOK_ID).quantity(1).build())));
+        }
+        return orderIds;
+    }
+
+}
@@ -1,21 +1,37 @@
 package com.adobe.bookstore.service;
 
+import com.adobe.bookstore.DO.OrderDO;
 import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.DO.OrderPageDO;
+import com.adobe.bookstore.model.ArchivedBookOrderItem;
+import com.adobe.bookstore.model.BookOrderHeader;
 import com.adobe.bookstore.model.BookOrderItem;
+import com.adobe.bookstore.model.OrderStatus;
+import com.adobe.bookstore.projection.OrderSummaryProjection;
+import com.adobe.bookstore.repository.ArchivedBookOrderHeaderRepository;
+import com.adobe.bookstore.repository.ArchivedBookOrderItemRepository;
+import com.adobe.bookstore.repository.BookOrderHeaderRepository;
+import com.adobe.bookstore.repository.BookOrderItemRow;
 import com.adobe.bookstore.repository.BookOrderRepository;
 import com.adobe.bookstore.service.impl.BookOrderService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,12 +40,32 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class BookOrderServiceTest {
 
+    private static final String ORDER_ID = "0c5e1f3a-7d2b-4e8f-9a61-3b4c5d6e7f80";
+    private static final String ORDER_A = "a0000000-0000-4000-8000-000000000001";
+    private static final String ORDER_B = "b0000000-0000-4000-8000-000000000002";
+    private static final String ORDER_C = "c0000000-0000-4000-8000-000000000003";
+
     @InjectMocks
     private BookOrderService sut;
 
     @Mock
     private BookOrderRepository bookOrderRepository;
 
+    @Mock
+    private BookOrderHeaderRepository bookOrderHeaderRepository;
+
+    @Mock
+    private ArchivedBookOrderHeaderRepository archivedBookOrderHeaderRepository;
+
+    @Mock
+    private ArchivedBookOrderItemRepository archivedBookOrderItemRepository;
+
+    @Mock
+    private OrderSummaryProjection orderSummaryProjection;
+
+    @Captor
+    private ArgumentCaptor<List<BookOrderItem>> itemsCaptor;
+
     @Test
     public void testCreateOrder_shouldSaveAllItems_whenCalled() {
         //Given
@@ -41,20 +77,45 @@ public class BookOrderServiceTest {
         String orderId = sut.createOrder(order);
 
         //Then
-        ArgumentCaptor<BookOrderItem> captor = ArgumentCaptor.forClass(BookOrderItem.class);
-        verify(bookOrderRepository, times(2)).save(captor.capture());
+        ArgumentCaptor<BookOrderHeader> orderCaptor = ArgumentCaptor.forClass(BookOrderHeader.class);
+        verify(bookOrderRepository, times(1)).persistOrder(orderCaptor.capture(), itemsCaptor.capture());
+        verify(bookOrderRepository, never()).save(any());
+        assertEquals(orderId, orderCaptor.getValue().getId());
+        assertEquals(OrderStatus.CREATED, orderCaptor.getValue().getStatus());
+        assertNotNull(orderCaptor.getValue().getCreatedAt());
 
-        List<BookOrderItem> savedItems = captor.getAllValues();
+        List<BookOrderItem> savedItems = itemsCaptor.getValue();
+        assertEquals(2, savedItems.size());
         assertTrue(savedItems.stream().anyMatch(item -> "abcde".equals(item.getBookId())
                 && item.getOrderId().equals(orderId) && item.getQuantity().equals(8)));
         assertTrue(savedItems.stream().anyMatch(item -> "12345".equals(item.getBookId())
                 && item.getOrderId().equals(orderId) && item.getQuantity().equals(4)));
+
+        verify(orderSummaryProjection).apply(order);
+    }
+
+    @Test
+    public void testCreateOrder_shouldMergeRepeatedBooks_whenCalled() {
+        //Given
+        List<OrderItemDO> order = new ArrayList<>();
+        order.add(OrderItemDO.builder().bookId("abcde").quantity(8).build());
+        order.add(OrderItemDO.builder().bookId("abcde").quantity(4).build());
+
+        //When
+        sut.createOrder(order);
+
+        //Then
+        verify(bookOrderRepository).persistOrder(any(), itemsCaptor.capture());
+
+        List<BookOrderItem> savedItems = itemsCaptor.getValue();
+        assertEquals(1, savedItems.size());
+        assertEquals(12, savedItems.get(0).getQuantity());
     }
 
     @Test
     public void testGetOrders_shouldThrowException_whenErrorRetrievingOrders() {
         //When
-        when(bookOrderRepository.findAll()).thenThrow(new RuntimeException("There was an error retrieving the orders."));
+        when(bookOrderRepository.streamAllWithArchived()).thenThrow(new RuntimeException("There was an error retrieving the orders."));
         RuntimeException thrownException = assertThrows(RuntimeException.class, () -> sut.getOrders());
 
         //Then
@@ -64,10 +125,8 @@ public class BookOrderServiceTest {
     @Test
     public void testGetOrders_shouldReturnAnEmptyMap_whenNoOrdersHaveBeenDone() {
         //Given
-        List<BookOrderItem> expectedOrderItemsList = new ArrayList<>();
-
         //When
-        when(bookOrderRepository.findAll()).thenReturn(expectedOrderItemsList);
+        when(bookOrderRepository.streamAllWithArchived()).thenReturn(Stream.empty());
         Map<String, List<OrderItemDO>> result = sut.getOrders(); // Replace with your actual method
 
         //Then
@@ -81,13 +140,163 @@ public class BookOrderServiceTest {
         Map<String, List<OrderItemDO>> expectedOrderMap = createMapFromOrderItemsList(expectedOrderItemsList);
 
         //When
-        when(bookOrderRepository.findAll()).thenReturn(expectedOrderItemsList);
+        when(bookOrderRepository.streamAllWithArchived()).thenReturn(expectedOrderItemsList.stream()
+                .map(item -> row(item.getOrderId(), item.getBookId(), item.getQuantity())));
         Map<String, List<OrderItemDO>> result = sut.getOrders(); // Replace with your actual method
 
         //Then
         assertEquals(expectedOrderMap, result);
     }
 
+    @Test
+    public void testGetOrder_shouldReturnOrderWithItems_whenOrderExists() {
+        //Given
+        Instant createdAt = Instant.parse("2024-01-01T10:00:00Z");
+        BookOrderHeader bookOrder = BookOrderHeader.builder().id(ORDER_ID).createdAt(createdAt)
+                .status(OrderStatus.CREATED).build();
+        List<BookOrderItem> items = List.of(
+                BookOrderItem.builder().orderId(ORDER_ID).bookId("abcde").quantity(2).build(),
+                BookOrderItem.builder().orderId(ORDER_ID).bookId("fghij").quantity(3).build());
+
+        //When
+        when(bookOrderHeaderRepository.findById(ORDER_ID)).thenReturn(Optional.of(bookOrder));
+        when(bookOrderRepository.findByOrderIdOrderByBookIdAsc(ORDER_ID)).thenReturn(items);
+        Optional<OrderDO> result = sut.getOrder(ORDER_ID);
+
+        //Then
+        assertTrue(result.isPresent());
+        assertEquals(ORDER_ID, result.get().getOrderId());
+        assertEquals(createdAt, result.get().getCreatedAt());
+        assertEquals(OrderStatus.CREATED, result.get().getStatus());
+        assertEquals(List.of(OrderItemDO.builder().bookId("abcde").quantity(2).build(),
+                OrderItemDO.builder().bookId("fghij").quantity(3).build()), result.get().getItems());
+    }
+
+    @Test
+    public void testGetOrder_shouldReturnEmpty_whenOrderDoesNotExist() {
+        //When
+        when(bookOrderHeaderRepository.findById(ORDER_ID)).thenReturn(Optional.empty());
+        when(archivedBookOrderHeaderRepository.findById(ORDER_ID)).thenReturn(Optional.empty());
+        Optional<OrderDO> result = sut.getOrder(ORDER_ID);
+
+        //Then
+        assertTrue(result.isEmpty());
+        verify(bookOrderRepository, never()).findByOrderIdOrderByBookIdAsc(any());
+        verify(archivedBookOrderItemRepository, never()).findByOrderIdOrderByBookIdAsc(any());
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldReturnNextCursor_whenThereAreMoreOrders() {
+        //Given
+        List<BookOrderItem> pageItems = List.of(
+                BookOrderItem.builder().orderId(ORDER_A).bookId("AAA").quantity(1).build(),
+                BookOrderItem.builder().orderId(ORDER_B).bookId("BBB").quantity(2).build());
+
+        //When
+        when(bookOrderRepository.findOrderIds(PageRequest.of(0, 3)))
+                .thenReturn(new ArrayList<>(List.of(ORDER_A, ORDER_B, ORDER_C)));
+        when(bookOrderRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(List.of(ORDER_A, ORDER_B)))
+                .thenReturn(pageItems);
+        OrderPageDO result = sut.getOrdersPage("", 2);
+
+        //Then
+        assertEquals(ORDER_B, result.getNextCursor());
+        assertEquals(List.of(ORDER_A, ORDER_B), new ArrayList<>(result.getOrders().keySet()));
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldNotReturnNextCursor_whenLastPage() {
+        //When
+        when(bookOrderRepository.findOrderIdsAfter(ORDER_B, PageRequest.of(0, 3))).thenReturn(List.of(ORDER_C));
+        when(bookOrderRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(List.of(ORDER_C))).thenReturn(
+                List.of(BookOrderItem.builder().orderId(ORDER_C).bookId("CCC").quantity(1).build()));
+        OrderPageDO result = sut.getOrdersPage(ORDER_B, 2);
+
+        //Then
+        assertNull(result.getNextCursor());
+        assertEquals(1, result.getOrders().size());
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldGoOnWithArchivedOrders_whenRecentOrdersAreUsedUp() {
+        //When
+        when(bookOrderRepository.findOrderIdsAfter(ORDER_A, PageRequest.of(0, 3))).thenReturn(List.of(ORDER_B));
+        when(archivedBookOrderItemRepository.findOrderIds(PageRequest.of(0, 2))).thenReturn(List.of(ORDER_A, ORDER_C));
+        when(bookOrderRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(List.of(ORDER_B))).thenReturn(
+                List.of(BookOrderItem.builder().orderId(ORDER_B).bookId("BBB").quantity(2).build()));
+        when(archivedBookOrderItemRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(List.of(ORDER_A))).thenReturn(
+                List.of(ArchivedBookOrderItem.builder().orderId(ORDER_A).bookId("AAA").quantity(1).build()));
+        OrderPageDO result = sut.getOrdersPage(ORDER_A, 2);
+
+        //Then
+        assertEquals("archived-" + ORDER_A, result.getNextCursor());
+        assertEquals(List.of(ORDER_B, ORDER_A), new ArrayList<>(result.getOrders().keySet()));
+        assertEquals(List.of(OrderItemDO.builder().bookId("AAA").quantity(1).build()),
+                result.getOrders().get(ORDER_A));
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldOnlyReadArchivedOrders_whenCursorIsArchived() {
+        //When
+        when(archivedBookOrderItemRepository.findOrderIdsAfter(ORDER_A, PageRequest.of(0, 3)))
+                .thenReturn(List.of(ORDER_C));
+        when(archivedBookOrderItemRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(List.of(ORDER_C))).thenReturn(
+                List.of(ArchivedBookOrderItem.builder().orderId(ORDER_C).bookId("CCC").quantity(3).build()));
+        OrderPageDO result = sut.getOrdersPage("archived-" + ORDER_A, 2);
+
+        //Then
+        assertNull(result.getNextCursor());
+        assertEquals(List.of(ORDER_C), new ArrayList<>(result.getOrders().keySet()));
+        verifyNoInteractions(bookOrderRepository);
+    }
+
+    @Test
+    public void testGetOrdersPage_shouldThrowException_whenCursorIsNotAnOrderId() {
+        //When
+        IllegalArgumentException thrownException = assertThrows(IllegalArgumentException.class,
+                () -> sut.getOrdersPage("B", 2));
+
+        //Then
+        assertEquals("The cursor B is not an order ID.", thrownException.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> sut.getOrdersPage("archived-", 2));
+        verifyNoInteractions(bookOrderRepository);
+    }
+
+    @Test
+    public void testStreamOrders_shouldGroupConsecutiveItemsByOrder_whenCalled() {
+        //Given
+        Stream<BookOrderItemRow> rows = Stream.of(row("A", "AAA", 1), row("A", "BBB", 2), row("B", "AAA", 3));
+        Map<String, List<OrderItemDO>> streamedOrders = new LinkedHashMap<>();
+
+        //When
+        when(bookOrderRepository.streamAllWithArchived()).thenReturn(rows);
+        sut.streamOrders(streamedOrders::put);
+
+        //Then
+        assertEquals(List.of("A", "B"), new ArrayList<>(streamedOrders.keySet()));
+        assertEquals(2, streamedOrders.get("A").size());
+        assertEquals(OrderItemDO.builder().bookId("AAA").quantity(3).build(), streamedOrders.get("B").get(0));
+    }
+
+    private BookOrderItemRow row(String orderId, String bookId, Integer quantity) {
+        return new BookOrderItemRow() {
+            @Override
+            public String getOrderId() {
+                return orderId;
+            }
+
+            @Override
+            public String getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
     private Map<String, List<OrderItemDO>> createMapFromOrderItemsList(List<BookOrderItem> bookOrderItemList) {
         Map<String, List<OrderItemDO>> bookOrderMap = new HashMap<>();
 
@@ -1,6 +1,8 @@
 package com.adobe.bookstore.service;
 
 import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.event.StockChangedEvent;
+import com.adobe.bookstore.exception.NotEnoughStockException;
 import com.adobe.bookstore.model.BookStock;
 import com.adobe.bookstore.repository.BookStockRepository;
 import com.adobe.bookstore.service.impl.BookStockService;
@@ -11,12 +13,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -24,21 +32,29 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class BookStockServiceTest {
 
+    private static final String BOOK_ID = "12345678-90ab-4cde-8f01-234567890abc";
+    private static final String OTHER_BOOK_ID = "54321098-76ab-4cde-8f01-234567890abc";
+    private static final String MISSING_BOOK_ID = "00000000-0000-4000-8000-000000000000";
+    private static final String UNKNOWN_BOOK_ID = "12340000-0000-4000-8000-000000000000";
+
     @InjectMocks
     private BookStockService sut;
 
     @Mock
     private BookStockRepository bookStockRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Test
     public void testExistsEnoughQuantityInStock_shouldReturnFalse_whenNotEnoughStockForAtLeastOneItem() {
         //Given
         List<OrderItemDO> orderItemList = new ArrayList<>();
-        orderItemList.add(OrderItemDO.builder().bookId("12345-67890").quantity(10).build());
-        BookStock bookStock = BookStock.builder().id("12345-67890").name("Hello").quantity(5).build();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(10).build());
+        BookStock bookStock = BookStock.builder().id(BOOK_ID).name("Hello").quantity(5).build();
 
         //When
-        when(sut.getStockById("12345-67890")).thenReturn(Optional.of(bookStock));
+        when(bookStockRepository.findAllById(anyIterable())).thenReturn(List.of(bookStock));
         boolean result = sut.existsEnoughQuantityInStock(orderItemList);
 
         //Then
@@ -49,61 +65,98 @@ public class BookStockServiceTest {
     public void testExistsEnoughQuantityInStock_shouldReturnTrue_whenEnoughStockForAllItems() {
         //Given
         List<OrderItemDO> orderItemList = new ArrayList<>();
-        orderItemList.add(OrderItemDO.builder().bookId("12345-67890").quantity(1).build());
-        BookStock bookStock = BookStock.builder().id("12345-67890").name("Hello").quantity(5).build();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(1).build());
+        BookStock bookStock = BookStock.builder().id(BOOK_ID).name("Hello").quantity(5).build();
 
         //When
-        when(sut.getStockById("12345-67890")).thenReturn(Optional.of(bookStock));
+        when(bookStockRepository.findAllById(anyIterable())).thenReturn(List.of(bookStock));
         boolean result = sut.existsEnoughQuantityInStock(orderItemList);
 
         //Then
         assertTrue(result);
     }
 
+    @Test
+    public void testFindItemsWithoutEnoughStock_shouldReportShortAndMissingItems_whenCalled() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(1).build());
+        orderItemList.add(OrderItemDO.builder().bookId(OTHER_BOOK_ID).quantity(6).build());
+        orderItemList.add(OrderItemDO.builder().bookId(MISSING_BOOK_ID).quantity(1).build());
+        BookStock bookStock1 = BookStock.builder().id(BOOK_ID).name("Hello").quantity(5).build();
+        BookStock bookStock2 = BookStock.builder().id(OTHER_BOOK_ID).name("book2").quantity(5).build();
+
+        //When
+        when(bookStockRepository.findAllById(anyIterable())).thenReturn(List.of(bookStock1, bookStock2));
+        List<OrderItemDO> result = sut.findItemsWithoutEnoughStock(orderItemList);
+
+        //Then
+        assertEquals(List.of(OrderItemDO.builder().bookId(MISSING_BOOK_ID).quantity(1).build(),
+                OrderItemDO.builder().bookId(OTHER_BOOK_ID).quantity(6).build()), result);
+        verify(bookStockRepository, never()).findById(anyString());
+    }
+
+    @Test
+    public void testFindItemsWithoutEnoughStock_shouldAddUpRepeatedBooks_whenCalled() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(3).build());
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(3).build());
+        BookStock bookStock = BookStock.builder().id(BOOK_ID).name("Hello").quantity(5).build();
+
+        //When
+        when(bookStockRepository.findAllById(anyIterable())).thenReturn(List.of(bookStock));
+        List<OrderItemDO> result = sut.findItemsWithoutEnoughStock(orderItemList);
+
+        //Then
+        assertEquals(List.of(OrderItemDO.builder().bookId(BOOK_ID).quantity(6).build()), result);
+    }
+
     @Test
     public void testUpdateStock_shouldThrowRuntimeException_whenTheBookIdHasNotBeenFound() {
         //Given
         List<OrderItemDO> orderItemList = new ArrayList<>();
-        orderItemList.add(OrderItemDO.builder().bookId("12345-67890").quantity(1).build());
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(1).build());
 
         //When
-        when(bookStockRepository.findById("12345-67890")).thenReturn(Optional.empty());
+        when(bookStockRepository.findById(BOOK_ID)).thenReturn(Optional.empty());
         RuntimeException thrown = assertThrows(RuntimeException.class, () -> sut.updateStock(orderItemList));
 
         //Then
-        assertEquals("Book with ID 12345-67890 not found. " +
+        assertEquals("Book with ID " + BOOK_ID + " not found. " +
                 "There was an error checking if existed enough stock.", thrown.getMessage());
+        verify(eventPublisher).publishEvent(any(StockChangedEvent.class));
     }
 
     @Test
     public void testUpdateStock_shouldThrowRuntimeException_whenNotEnoughStock() {
         //Given
-        BookStock bookStock = BookStock.builder().id("12345-67890").name("Hello").quantity(5).build();
+        BookStock bookStock = BookStock.builder().id(BOOK_ID).name("Hello").quantity(5).build();
         List<OrderItemDO> orderItemList = new ArrayList<>();
-        orderItemList.add(OrderItemDO.builder().bookId("12345-67890").quantity(10).build());
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(10).build());
 
         //When
-        when(bookStockRepository.findById("12345-67890")).thenReturn(Optional.of(bookStock));
+        when(bookStockRepository.findById(BOOK_ID)).thenReturn(Optional.of(bookStock));
         RuntimeException thrown = assertThrows(RuntimeException.class, () -> sut.updateStock(orderItemList));
 
         //Then
-        assertEquals("Not enough stock for book with ID 12345-67890. There was an error checking " +
+        assertEquals("Not enough stock for book with ID " + BOOK_ID + ". There was an error checking " +
                 "if existed enough stock.", thrown.getMessage());
     }
 
     @Test
     public void testUpdateStock_shouldUpdateStock_whenCalled() {
         //Given
-        BookStock bookStock1 = BookStock.builder().id("12345-67890").name("Hello").quantity(10).build();
-        BookStock bookStock2 = BookStock.builder().id("54321-09876").name("book2").quantity(10).build();
+        BookStock bookStock1 = BookStock.builder().id(BOOK_ID).name("Hello").quantity(10).build();
+        BookStock bookStock2 = BookStock.builder().id(OTHER_BOOK_ID).name("book2").quantity(10).build();
 
         List<OrderItemDO> orderItemList = new ArrayList<>();
-        orderItemList.add(OrderItemDO.builder().bookId("12345-67890").quantity(5).build());
-        orderItemList.add(OrderItemDO.builder().bookId("54321-09876").quantity(5).build());
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(5).build());
+        orderItemList.add(OrderItemDO.builder().bookId(OTHER_BOOK_ID).quantity(5).build());
 
         //When
-        when(bookStockRepository.findById("12345-67890")).thenReturn(Optional.of(bookStock1));
-        when(bookStockRepository.findById("54321-09876")).thenReturn(Optional.of(bookStock2));
+        when(bookStockRepository.findById(BOOK_ID)).thenReturn(Optional.of(bookStock1));
+        when(bookStockRepository.findById(OTHER_BOOK_ID)).thenReturn(Optional.of(bookStock2));
 
         sut.updateStock(orderItemList);
 
@@ -113,17 +166,195 @@ public class BookStockServiceTest {
         verify(bookStockRepository, times(2)).save(bookStockCaptor.capture());
         List<BookStock> savedBookStocks = bookStockCaptor.getAllValues();
 
-        assertTrue(savedBookStocks.stream().anyMatch(item -> "12345-67890".equals(item.getId())
+        assertTrue(savedBookStocks.stream().anyMatch(item -> BOOK_ID.equals(item.getId())
                 && item.getQuantity().equals(5)));
-        assertTrue(savedBookStocks.stream().anyMatch(item -> "54321-09876".equals(item.getId())
+        assertTrue(savedBookStocks.stream().anyMatch(item -> OTHER_BOOK_ID.equals(item.getId())
                 && item.getQuantity().equals(5)));
     }
 
+    @Test
+    public void testUpdateStock_shouldReadStockAgain_whenItChangedConcurrently() {
+        //Given
+        BookStock staleStock = BookStock.builder().id(BOOK_ID).name("Hello").quantity(10).version(1L).build();
+        BookStock currentStock = BookStock.builder().id(BOOK_ID).name("Hello").quantity(8).version(2L).build();
+        List<OrderItemDO> orderItemList = List.of(OrderItemDO.builder().bookId(BOOK_ID).quantity(5).build());
+
+        //When
+        when(bookStockRepository.findById(BOOK_ID)).thenReturn(Optional.of(staleStock), Optional.of(currentStock));
+        when(bookStockRepository.save(staleStock))
+                .thenThrow(new ObjectOptimisticLockingFailureException(BookStock.class, BOOK_ID));
+        sut.updateStock(orderItemList);
+
+        //Then
+        verify(bookStockRepository).save(currentStock);
+        assertEquals(3, currentStock.getQuantity());
+    }
+
+    @Test
+    public void testUpdateStock_shouldGiveUp_whenStockKeepsChangingConcurrently() {
+        //Given
+        List<OrderItemDO> orderItemList = List.of(OrderItemDO.builder().bookId(BOOK_ID).quantity(5).build());
+
+        //When
+        when(bookStockRepository.findById(BOOK_ID)).thenAnswer(invocation -> Optional.of(
+                BookStock.builder().id(BOOK_ID).name("Hello").quantity(10).version(1L).build()));
+        when(bookStockRepository.save(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(BookStock.class, BOOK_ID));
+
+        //Then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sut.updateStock(orderItemList));
+        verify(bookStockRepository, times(3)).save(any());
+    }
+
+    @Test
+    public void testGetStockVersion_shouldReadVersionOnly_whenCalled() {
+        //When
+        when(bookStockRepository.findVersionById(BOOK_ID)).thenReturn(Optional.of(4L));
+        Optional<Long> version = sut.getStockVersion(BOOK_ID);
+
+        //Then
+        assertEquals(Optional.of(4L), version);
+        verify(bookStockRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testReserveStock_shouldDecrementEveryItem_whenEnoughStock() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(2).build());
+        orderItemList.add(OrderItemDO.builder().bookId(OTHER_BOOK_ID).quantity(3).build());
+
+        //When
+        when(bookStockRepository.decrementQuantity(anyString(), anyInt())).thenReturn(1);
+        sut.reserveStock(orderItemList);
+
+        //Then
+        verify(bookStockRepository).decrementQuantity(BOOK_ID, 2);
+        verify(bookStockRepository).decrementQuantity(OTHER_BOOK_ID, 3);
+
+        ArgumentCaptor<StockChangedEvent> eventCaptor = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(Set.of(BOOK_ID, OTHER_BOOK_ID), Set.copyOf(eventCaptor.getValue().getBookIds()));
+    }
+
+    @Test
+    public void testReserveStock_shouldMergeRepeatedBooks_whenCalled() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(2).build());
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(3).build());
+
+        //When
+        when(bookStockRepository.decrementQuantity(BOOK_ID, 5)).thenReturn(1);
+        sut.reserveStock(orderItemList);
+
+        //Then
+        verify(bookStockRepository, times(1)).decrementQuantity(anyString(), anyInt());
+    }
+
+    @Test
+    public void testReserveStock_shouldThrowNotEnoughStockException_whenAnItemCannotBeReserved() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(10).build());
+
+        //When
+        when(bookStockRepository.decrementQuantity(BOOK_ID, 10)).thenReturn(0);
+        NotEnoughStockException thrown = assertThrows(NotEnoughStockException.class,
+                () -> sut.reserveStock(orderItemList));
+
+        //Then
+        assertEquals(BOOK_ID, thrown.getBookId());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testReserveStock_shouldThrowIllegalArgumentException_whenQuantityIsNegative() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(-1).build());
+
+        //When
+        assertThrows(IllegalArgumentException.class, () -> sut.reserveStock(orderItemList));
+
+        //Then
+        verify(bookStockRepository, never()).decrementQuantity(anyString(), anyInt());
+    }
+
+    @Test
+    public void testReserveStock_shouldThrowIllegalArgumentException_whenQuantityIsZero() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(0).build());
+
+        //When
+        assertThrows(IllegalArgumentException.class, () -> sut.reserveStock(orderItemList));
+
+        //Then
+        verify(bookStockRepository, never()).decrementQuantity(anyString(), anyInt());
+    }
+
+    @Test
+    public void testReserveStock_shouldThrowIllegalArgumentException_whenBookIdIsNull() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(1).build());
+        orderItemList.add(OrderItemDO.builder().quantity(1).build());
+
+        //When
+        assertThrows(IllegalArgumentException.class, () -> sut.reserveStock(orderItemList));
+
+        //Then
+        verify(bookStockRepository, never()).decrementQuantity(anyString(), anyInt());
+    }
+
+    @Test
+    public void testReserveStock_shouldThrowIllegalArgumentException_whenItemIsNull() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(1).build());
+        orderItemList.add(null);
+
+        //When
+        assertThrows(IllegalArgumentException.class, () -> sut.reserveStock(orderItemList));
+
+        //Then
+        verify(bookStockRepository, never()).decrementQuantity(anyString(), anyInt());
+    }
+
+    @Test
+    public void testReserveStock_shouldThrowIllegalArgumentException_whenLinesForABookOverflow() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(2000000000).build());
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(2000000000).build());
+
+        //When
+        assertThrows(IllegalArgumentException.class, () -> sut.reserveStock(orderItemList));
+
+        //Then
+        verify(bookStockRepository, never()).decrementQuantity(anyString(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testReleaseStock_shouldIncrementEveryItem_whenCalled() {
+        //Given
+        List<OrderItemDO> orderItemList = new ArrayList<>();
+        orderItemList.add(OrderItemDO.builder().bookId(BOOK_ID).quantity(2).build());
+
+        //When
+        sut.releaseStock(orderItemList);
+
+        //Then
+        verify(bookStockRepository).incrementQuantity(BOOK_ID, 2);
+    }
+
     @Test
     public void testGetStockById_shouldReturnEmpty_whenBookDoesNotExist() {
         //When
         when(bookStockRepository.findById(anyString())).thenReturn(Optional.empty());
-        Optional<BookStock> result = sut.getStockById("1234");
+        Optional<BookStock> result = sut.getStockById(UNKNOWN_BOOK_ID);
 
         //Then
         assertTrue(result.isEmpty());
@@ -132,11 +363,11 @@ public class BookStockServiceTest {
     @Test
     public void testGetStockById_shouldReturnBookStock_whenBookExists() {
         //Given
-        BookStock bookStock = BookStock.builder().id("12345-67890").name("some book").quantity(7).build();
+        BookStock bookStock = BookStock.builder().id(BOOK_ID).name("some book").quantity(7).build();
 
         //When
-        when(bookStockRepository.findById("12345-67890")).thenReturn(Optional.of(bookStock));
-        Optional<BookStock> result = sut.getStockById("12345-67890");
+        when(bookStockRepository.findById(BOOK_ID)).thenReturn(Optional.of(bookStock));
+        Optional<BookStock> result = sut.getStockById(BOOK_ID);
 
         //Then
         assertTrue(result.isPresent());
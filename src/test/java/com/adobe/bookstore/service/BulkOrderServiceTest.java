@@ -0,0 +1,129 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.BulkOrderDO;
+import com.adobe.bookstore.DO.BulkOrderResultDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.BookOrderHeaderRepository;
+import com.adobe.bookstore.repository.BookOrderRepository;
+import com.adobe.bookstore.repository.BookStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "bookstore.orders.bulk.chunk-size=2")
+public class BulkOrderServiceTest {
+
+    private static final String BOOK_ID = "b1000000-0000-4000-8000-000000000000";
+    private static final String OTHER_BOOK_ID = "b1000000-0000-4000-8000-000000000001";
+
+    @Autowired
+    private IBulkOrderService sut;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private BookOrderRepository bookOrderRepository;
+
+    @Autowired
+    private BookOrderHeaderRepository bookOrderHeaderRepository;
+
+    private List<BulkOrderResultDO> results = List.of();
+
+    @AfterEach
+    public void cleanUp() {
+        List<String> orderIds = results.stream().map(BulkOrderResultDO::getOrderId).filter(Objects::nonNull).toList();
+        bookOrderRepository.deleteAll(bookOrderRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(orderIds));
+        bookOrderHeaderRepository.deleteAllById(orderIds);
+        bookStockRepository.deleteAllById(List.of(BOOK_ID, OTHER_BOOK_ID));
+    }
+
+    @Test
+    public void testCreateOrders_shouldAcceptOrdersWhileThereIsStock_whenCalled() {
+        //Given
+        createBook(BOOK_ID, 3);
+        createBook(OTHER_BOOK_ID, 10);
+        List<BulkOrderDO> orders = List.of(
+                order("first", item(BOOK_ID, 2), item(OTHER_BOOK_ID, 1)),
+                order("second", item(BOOK_ID, 2)),
+                order("third", item(BOOK_ID, 1)),
+                order("fourth", item(OTHER_BOOK_ID, 4), item(OTHER_BOOK_ID, 5)),
+                order("fifth"),
+                order("sixth", item(OTHER_BOOK_ID, -1)),
+                order("seventh", item("unknown-book", 1)));
+
+        //When
+        results = sut.createOrders(orders);
+
+        //Then
+        assertEquals(orders.size(), results.size());
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals(orders.get(i).getReference(), results.get(i).getReference());
+        }
+        assertAccepted(results.get(0), item(BOOK_ID, 2), item(OTHER_BOOK_ID, 1));
+        assertRejected(results.get(1));
+        assertAccepted(results.get(2), item(BOOK_ID, 1));
+        assertAccepted(results.get(3), item(OTHER_BOOK_ID, 9));
+        assertRejected(results.get(4));
+        assertRejected(results.get(5));
+        assertRejected(results.get(6));
+        assertEquals(0, bookStockRepository.findById(BOOK_ID).orElseThrow().getQuantity());
+        assertEquals(0, bookStockRepository.findById(OTHER_BOOK_ID).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testCreateOrders_shouldRejectOnlyOrdersWithMissingItemsOrBookIds_whenCalled() {
+        //Given
+        createBook(BOOK_ID, 3);
+        List<BulkOrderDO> orders = List.of(
+                order("first", item(BOOK_ID, 1), item(null, 1)),
+                BulkOrderDO.builder().reference("second").items(Arrays.asList(item(BOOK_ID, 1), null)).build(),
+                order("third", item(BOOK_ID, 2)));
+
+        //When
+        results = sut.createOrders(orders);
+
+        //Then
+        assertRejected(results.get(0));
+        assertRejected(results.get(1));
+        assertAccepted(results.get(2), item(BOOK_ID, 2));
+        assertEquals(1, bookStockRepository.findById(BOOK_ID).orElseThrow().getQuantity());
+    }
+
+    private void assertAccepted(BulkOrderResultDO result, OrderItemDO... expectedItems) {
+        assertTrue(result.isAccepted());
+        assertNull(result.getReason());
+        List<OrderItemDO> items = bookOrderRepository.findByOrderIdInOrderByOrderIdAscBookIdAsc(
+                        List.of(result.getOrderId())).stream()
+                .map(bookOrderItem -> item(bookOrderItem.getBookId(), bookOrderItem.getQuantity()))
+                .toList();
+        assertEquals(List.of(expectedItems), items);
+    }
+
+    private void assertRejected(BulkOrderResultDO result) {
+        assertFalse(result.isAccepted());
+        assertNull(result.getOrderId());
+        assertNotNull(result.getReason());
+    }
+
+    private void createBook(String bookId, int quantity) {
+        bookStockRepository.save(BookStock.builder().id(bookId).name("Bulk book").quantity(quantity).build());
+    }
+
+    private BulkOrderDO order(String reference, OrderItemDO... items) {
+        return BulkOrderDO.builder().reference(reference).items(List.of(items)).build();
+    }
+
+    private OrderItemDO item(String bookId, int quantity) {
+        return OrderItemDO.builder().bookId(bookId).quantity(quantity).build();
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.cache.BookStockCache;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.BookStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class CachingBookStockServiceTest {
+
+    private static final String BOOK_ID = "ca000000-0000-4000-8000-000000000000";
+    private static final String OTHER_BOOK_ID = "ca000000-0000-4000-8000-000000000001";
+
+    @Autowired
+    private IBookStockService bookStockService;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private BookStockCache bookStockCache;
+
+    @AfterEach
+    public void cleanUp() {
+        bookStockRepository.deleteAllById(List.of(BOOK_ID, OTHER_BOOK_ID));
+        // Deleting through the repository publishes no event
+        bookStockCache.invalidate(List.of(BOOK_ID, OTHER_BOOK_ID));
+    }
+
+    @Test
+    public void testGetStockById_shouldReturnCommittedQuantity_whenStockChangesAfterBeingCached() {
+        //Given
+        bookStockRepository.save(BookStock.builder().id(BOOK_ID).name("Cached book").quantity(10).build());
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId(BOOK_ID).quantity(3).build());
+        assertEquals(10, bookStockService.getStockById(BOOK_ID).orElseThrow().getQuantity());
+
+        //When
+        bookStockService.reserveStock(order);
+        int afterReserve = bookStockService.getStockById(BOOK_ID).orElseThrow().getQuantity();
+        bookStockService.releaseStock(order);
+        int afterRelease = bookStockService.getStockById(BOOK_ID).orElseThrow().getQuantity();
+        bookStockService.updateStock(order);
+        int afterUpdate = bookStockService.getStockById(BOOK_ID).orElseThrow().getQuantity();
+
+        //Then
+        assertEquals(7, afterReserve);
+        assertEquals(10, afterRelease);
+        assertEquals(7, afterUpdate);
+    }
+
+    @Test
+    public void testGetStockByIds_shouldReturnCommittedQuantities_whenSomeBooksAreCached() {
+        //Given
+        bookStockRepository.save(BookStock.builder().id(BOOK_ID).name("Cached book").quantity(10).build());
+        bookStockRepository.save(BookStock.builder().id(OTHER_BOOK_ID).name("Other book").quantity(4).build());
+        bookStockService.getStockById(BOOK_ID);
+
+        //When
+        bookStockService.reserveStock(List.of(OrderItemDO.builder().bookId(BOOK_ID).quantity(3).build()));
+        Map<String, BookStock> result = bookStockService.getStockByIds(List.of(BOOK_ID, OTHER_BOOK_ID, "missing"));
+
+        //Then
+        assertEquals(Set.of(BOOK_ID, OTHER_BOOK_ID), result.keySet());
+        assertEquals(7, result.get(BOOK_ID).getQuantity());
+        assertEquals(4, result.get(OTHER_BOOK_ID).getQuantity());
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.BulkOrderDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.exception.NotEnoughStockException;
+import com.adobe.bookstore.repository.BookStockRepository;
+import com.adobe.bookstore.repository.StockSnapshotRepository;
+import com.adobe.bookstore.service.impl.InMemoryBookStockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"bookstore.stock.in-memory.flush-ms=3600000",
+        "bookstore.stock.in-memory.log-dir=" + InMemoryBookStockServiceTest.LOG_DIRECTORY})
+@ActiveProfiles(InMemoryBookStockService.PROFILE)
+public class InMemoryBookStockServiceTest {
+
+    static final String LOG_DIRECTORY = "target/stock-log-test";
+
+    @Autowired
+    private IBookStockService bookStockService;
+
+    @Autowired
+    private InMemoryBookStockService inMemoryBookStockService;
+
+    @Autowired
+    private IBulkOrderService bulkOrderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private IStockSnapshotService stockSnapshotService;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM book_order");
+        jdbcTemplate.update("DELETE FROM book_stock WHERE name = 'Memory book'");
+    }
+
+    @Test
+    public void testReserveStock_shouldTakeNoLine_whenOneLineCannotBeServed() {
+        //Given
+        String bookId1 = uniqueBook(5);
+        String bookId2 = uniqueBook(1);
+
+        //When
+        NotEnoughStockException exception = assertThrows(NotEnoughStockException.class,
+                () -> bookStockService.reserveStock(List.of(item(bookId1, 2), item(bookId2, 2))));
+
+        //Then
+        assertEquals(bookId2, exception.getBookId());
+        assertEquals(5, bookStockService.getStockById(bookId1).orElseThrow().getQuantity());
+        assertEquals(1, bookStockService.getStockById(bookId2).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testReserveStock_shouldGiveUnitsBack_whenTransactionRollsBack() {
+        //Given
+        String bookId = uniqueBook(5);
+        long version = bookStockService.getStockVersion(bookId).orElseThrow();
+
+        //When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookStockService.reserveStock(List.of(item(bookId, 2)));
+            status.setRollbackOnly();
+        });
+
+        //Then
+        assertEquals(5, bookStockService.getStockById(bookId).orElseThrow().getQuantity());
+        assertTrue(bookStockService.getStockVersion(bookId).orElseThrow() > version);
+    }
+
+    @Test
+    public void testFlush_shouldWriteChangedStockToDatabase_whenCalled() {
+        //Given
+        String bookId = uniqueBook(5);
+        bookStockService.reserveStock(List.of(item(bookId, 2)));
+        assertEquals(5, quantityInDatabase(bookId));
+
+        //When
+        inMemoryBookStockService.flush();
+
+        //Then
+        assertEquals(3, quantityInDatabase(bookId));
+        assertEquals(bookStockService.getStockVersion(bookId).orElseThrow(),
+                jdbcTemplate.queryForObject("SELECT version FROM book_stock WHERE id = ?", Long.class, bookId));
+    }
+
+    @Test
+    public void testLoad_shouldApplyLoggedChangesAgain_whenStoppedBeforeFlushing(@TempDir Path directory)
+            throws IOException {
+        //Given
+        String bookId = uniqueBook(5);
+        bookStockService.reserveStock(List.of(item(bookId, 3)));
+        bookStockService.releaseStock(List.of(item(bookId, 1)));
+        long version = bookStockService.getStockVersion(bookId).orElseThrow();
+        // What a crash would leave: the table without the changes and the log with them
+        try (Stream<Path> segments = Files.list(Path.of(LOG_DIRECTORY))) {
+            for (Path segment : segments.toList()) {
+                Files.copy(segment, directory.resolve(segment.getFileName()));
+            }
+        }
+        assertEquals(5, quantityInDatabase(bookId));
+
+        //When
+        InMemoryBookStockService restarted = new InMemoryBookStockService(bookStockRepository,
+                stockSnapshotRepository, eventPublisher, new SimpleMeterRegistry(), Optional.empty(), directory);
+        restarted.load();
+
+        //Then
+        assertEquals(3, restarted.getStockById(bookId).orElseThrow().getQuantity());
+        assertEquals(version, restarted.getStockVersion(bookId).orElseThrow());
+        assertEquals(3, quantityInDatabase(bookId));
+        restarted.shutdown();
+    }
+
+    @Test
+    public void testExportStock_shouldWriteStockKeptInMemory_whenNotFlushedYet() throws IOException {
+        //Given
+        String bookId = uniqueBook(5);
+        bookStockService.reserveStock(List.of(item(bookId, 2)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //When
+        stockSnapshotService.exportStock(outputStream);
+
+        //Then
+        assertTrue(outputStream.toString(StandardCharsets.UTF_8).contains(bookId + ",Memory book,3"));
+        assertEquals(5, quantityInDatabase(bookId));
+    }
+
+    @Test
+    public void testImportStock_shouldBeRefused_whenStockIsKeptInMemory() {
+        //Given
+        String bookId = uniqueBook(5);
+        InputStream csv = new ByteArrayInputStream(("id,name,quantity\n" + bookId + ",Memory book,9\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        //When //Then
+        assertThrows(IllegalStateException.class, () -> stockSnapshotService.importStock(csv, false));
+        assertEquals(5, quantityInDatabase(bookId));
+    }
+
+    @Test
+    public void testCreateOrders_shouldReserveInMemory_whenBulkOrdersAreCreated() {
+        //Given
+        String bookId = uniqueBook(3);
+
+        //When
+        bulkOrderService.createOrders(List.of(
+                BulkOrderDO.builder().reference("a").items(List.of(item(bookId, 2))).build(),
+                BulkOrderDO.builder().reference("b").items(List.of(item(bookId, 2))).build()));
+
+        //Then
+        assertEquals(1, bookStockService.getStockById(bookId).orElseThrow().getQuantity());
+        assertEquals(3, quantityInDatabase(bookId));
+    }
+
+    /**
+     * Every test uses its own book, inserted after startup so it is loaded on first use. Books stay in memory after
+     * being deleted from the table.
+     */
+    private String uniqueBook(int quantity) {
+        String bookId = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO book_stock (id, name, quantity) VALUES (?, 'Memory book', ?)", bookId,
+                quantity);
+        return bookId;
+    }
+
+    private int quantityInDatabase(String bookId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM book_stock WHERE id = ?", Integer.class, bookId);
+    }
+
+    private OrderItemDO item(String bookId, int quantity) {
+        return OrderItemDO.builder().bookId(bookId).quantity(quantity).build();
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.journal.JournaledOrder;
+import com.adobe.bookstore.journal.OrderJournal;
+import com.adobe.bookstore.projection.OrderSummaryProjection;
+import com.adobe.bookstore.service.impl.JournalingBookOrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"bookstore.orders.journal.enabled=true",
+        "bookstore.orders.journal.dir=target/journal-test", "bookstore.orders.journal.segment-size=1MB",
+        "bookstore.orders.journal.retry-interval-ms=10"})
+public class JournalingBookOrderServiceTest {
+
+    private static final String BOOK_ID = "abcde000-0000-4000-8000-000000000000";
+    private static final String OTHER_BOOK_ID = "f0000000-0000-4000-8000-000000000000";
+    private static final String REPLAYED_ORDER_ID = "4e000000-0000-4000-8000-000000000001";
+    private static final String OTHER_REPLAYED_ORDER_ID = "4e000000-0000-4000-8000-000000000002";
+    /** Journaled as is, but can never be stored as a book ID. */
+    private static final String INVALID_BOOK_ID = "not-a-uuid";
+
+    @Autowired
+    private IBookOrderService bookOrderService;
+
+    @Autowired
+    private JournalingBookOrderService journalingBookOrderService;
+
+    @Autowired
+    private OrderSummaryProjection orderSummaryProjection;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM book_order");
+        jdbcTemplate.update("DELETE FROM order_dead_letter");
+        orderSummaryProjection.rebuild();
+    }
+
+    @Test
+    public void testCreateOrder_shouldStoreOrderInBackground_whenJournalIsEnabled() throws InterruptedException {
+        //When
+        String orderId = bookOrderService.createOrder(List.of(item(BOOK_ID, 2), item(BOOK_ID, 1),
+                item(OTHER_BOOK_ID, 1)));
+
+        //Then
+        OrderDO order = bookOrderService.getOrder(orderId).orElseThrow();
+        assertEquals(List.of(item(BOOK_ID, 3), item(OTHER_BOOK_ID, 1)), order.getItems());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (countItems(orderId) < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, countItems(orderId));
+        assertEquals(List.of(item(BOOK_ID, 3), item(OTHER_BOOK_ID, 1)), bookOrderService.getOrder(orderId).orElseThrow()
+                .getItems());
+    }
+
+    @Test
+    public void testReplay_shouldStoreEachOrderOnce_whenJournalIsReplayedTwice() throws IOException {
+        //Given
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        try (OrderJournal journal = new OrderJournal(directory, 64 * 1024, (segment, orders) -> { })) {
+            journal.append(new JournaledOrder(REPLAYED_ORDER_ID, createdAt, List.of(item(BOOK_ID, 2))));
+            journal.append(new JournaledOrder(OTHER_REPLAYED_ORDER_ID, createdAt,
+                    List.of(item(BOOK_ID, 1), item(OTHER_BOOK_ID, 4))));
+        }
+
+        //When
+        long firstReplay = journalingBookOrderService.replay(directory);
+        long secondReplay = journalingBookOrderService.replay(directory);
+
+        //Then
+        assertEquals(2, firstReplay);
+        assertEquals(2, secondReplay);
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_order", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item", Integer.class));
+        assertEquals(createdAt, bookOrderService.getOrder(REPLAYED_ORDER_ID).orElseThrow().getCreatedAt());
+        assertEquals(3L, orderSummaryProjection.getUnitsSoldByBookId().get(BOOK_ID));
+    }
+
+    @Test
+    public void testCreateOrder_shouldStoreLaterOrders_whenAnOrderCannotBeStored() throws InterruptedException {
+        //Given
+        String failingOrderId = bookOrderService.createOrder(List.of(item(INVALID_BOOK_ID, 1)));
+
+        //When
+        String orderId = bookOrderService.createOrder(List.of(item(BOOK_ID, 2)));
+
+        //Then
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((countItems(orderId) < 1 || countDeadLetters(failingOrderId) < 1)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, countItems(orderId));
+        assertEquals(1, countDeadLetters(failingOrderId));
+        assertTrue(bookOrderService.getOrder(failingOrderId).isEmpty());
+        assertTrue(jdbcTemplate.queryForObject("SELECT items FROM order_dead_letter WHERE order_id = ?", String.class,
+                failingOrderId).contains(INVALID_BOOK_ID));
+    }
+
+    @Test
+    public void testReplay_shouldStoreOtherOrders_whenAnOrderCannotBeStored() throws IOException {
+        //Given
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        try (OrderJournal journal = new OrderJournal(directory, 64 * 1024, (segment, orders) -> { })) {
+            journal.append(new JournaledOrder(REPLAYED_ORDER_ID, createdAt, List.of(item(INVALID_BOOK_ID, 2))));
+            journal.append(new JournaledOrder(OTHER_REPLAYED_ORDER_ID, createdAt, List.of(item(BOOK_ID, 1))));
+        }
+
+        //When
+        long replayed = journalingBookOrderService.replay(directory);
+
+        //Then
+        assertEquals(2, replayed);
+        assertEquals(1, countItems(OTHER_REPLAYED_ORDER_ID));
+        assertEquals(0, countItems(REPLAYED_ORDER_ID));
+        assertEquals(1, countDeadLetters(REPLAYED_ORDER_ID));
+    }
+
+    private int countDeadLetters(String orderId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_dead_letter WHERE order_id = ?",
+                Integer.class, orderId);
+    }
+
+    private int countItems(String orderId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item WHERE order_id = ?", Integer.class,
+                orderId);
+    }
+
+    private OrderItemDO item(String bookId, int quantity) {
+        return OrderItemDO.builder().bookId(bookId).quantity(quantity).build();
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderDO;
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.projection.OrderSummaryProjection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"bookstore.orders.archive.enabled=false", "bookstore.orders.archive.max-age=30d",
+        "bookstore.orders.archive.batch-size=2", "bookstore.orders.archive.pause-ms=0"})
+public class OrderArchiveServiceTest {
+
+    private static final String BOOK_ID = "abcde000-0000-4000-8000-000000000000";
+    private static final String OTHER_BOOK_ID = "f0000000-0000-4000-8000-000000000000";
+
+    @Autowired
+    private IOrderArchiveService orderArchiveService;
+
+    @Autowired
+    private IBookOrderService bookOrderService;
+
+    @Autowired
+    private OrderSummaryProjection orderSummaryProjection;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM book_order");
+        jdbcTemplate.update("DELETE FROM order_item_archive");
+        jdbcTemplate.update("DELETE FROM book_order_archive");
+        orderSummaryProjection.rebuild();
+    }
+
+    @Test
+    public void testArchiveOldOrders_shouldMoveOnlyOrdersOlderThanMaxAge_whenCalled() {
+        //Given
+        List<String> oldOrderIds = List.of(createOrder(40, BOOK_ID, 2), createOrder(35, BOOK_ID, 1),
+                createOrder(31, OTHER_BOOK_ID, 4));
+        String recentOrderId = createOrder(1, BOOK_ID, 3);
+
+        //When
+        long archived = orderArchiveService.archiveOldOrders();
+
+        //Then
+        assertEquals(3, archived);
+        assertEquals(List.of(recentOrderId), jdbcTemplate.queryForList("SELECT id FROM book_order", String.class));
+        assertEquals(List.of(recentOrderId), jdbcTemplate.queryForList("SELECT DISTINCT order_id FROM order_item",
+                String.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_order_archive", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item_archive", Integer.class));
+        // The archived orders are still listed, after the recent ones
+        assertEquals(Stream.concat(Stream.of(recentOrderId), oldOrderIds.stream().sorted()).toList(),
+                List.copyOf(bookOrderService.getOrders().keySet()));
+    }
+
+    @Test
+    public void testGetOrder_shouldFallBackToArchive_whenOrderHasBeenArchived() {
+        //Given
+        String orderId = createOrder(40, BOOK_ID, 2);
+        orderArchiveService.archiveOldOrders();
+
+        //When
+        OrderDO result = bookOrderService.getOrder(orderId).orElseThrow();
+
+        //Then
+        assertEquals(orderId, result.getOrderId());
+        assertEquals(List.of(OrderItemDO.builder().bookId(BOOK_ID).quantity(2).build()), result.getItems());
+    }
+
+    @Test
+    public void testRebuild_shouldKeepUnitsSoldOfArchivedOrders_whenCalled() {
+        //Given
+        createOrder(40, BOOK_ID, 2);
+        createOrder(40, BOOK_ID, 5);
+        createOrder(1, BOOK_ID, 3);
+        orderArchiveService.archiveOldOrders();
+
+        //When
+        orderSummaryProjection.rebuild();
+
+        //Then
+        assertEquals(10, bookOrderService.getUnitsSoldByBookId().get(BOOK_ID));
+        assertEquals(1, orderSummaryProjection.getOrderCount());
+        assertEquals(3, bookOrderService.getOrders().size());
+    }
+
+    private String createOrder(int daysAgo, String bookId, int quantity) {
+        String orderId = bookOrderService.createOrder(List.of(OrderItemDO.builder()
+                .bookId(bookId)
+                .quantity(quantity)
+                .build()));
+        jdbcTemplate.update("UPDATE book_order SET created_at = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(daysAgo))), orderId);
+        return orderId;
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.exception.NotEnoughStockException;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.BookStockRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "bookstore.stock.coalescing.enabled=true")
+public class StockDecrementCoalescerTest {
+
+    private static final String HOT_BOOK_ID = "c0000000-0000-4000-8000-000000000000";
+    private static final String EMPTY_BOOK_ID = "c0000000-0000-4000-8000-000000000001";
+
+    @Autowired
+    private IBookStockService bookStockService;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void cleanUp() {
+        bookStockRepository.deleteAllById(List.of(HOT_BOOK_ID, EMPTY_BOOK_ID));
+    }
+
+    @Test
+    public void testReserveStock_shouldNeverOversellAndUseFewerTransactions_whenManyOrdersHitTheSameBook()
+            throws Exception {
+        //Given
+        bookStockRepository.save(BookStock.builder().id(HOT_BOOK_ID).name("Hot book").quantity(500).build());
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId(HOT_BOOK_ID).quantity(1).build());
+        double flushesBefore = meterRegistry.get("bookstore.stock.coalescing.flushes").counter().count();
+
+        //When
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    bookStockService.reserveStock(order);
+                    accepted.incrementAndGet();
+                } catch (NotEnoughStockException ignored) {
+                    // Expected once the stock runs out
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //Then
+        double flushes = meterRegistry.get("bookstore.stock.coalescing.flushes").counter().count() - flushesBefore;
+        assertEquals(500, accepted.get());
+        assertEquals(0, bookStockRepository.findById(HOT_BOOK_ID).orElseThrow().getQuantity());
+        assertTrue(flushes < 2000, "Expected fewer transactions than orders but got " + flushes);
+    }
+
+    @Test
+    public void testReserveStock_shouldGiveBackReservedItems_whenAnotherItemCannotBeReserved() {
+        //Given
+        bookStockRepository.save(BookStock.builder().id(HOT_BOOK_ID).name("Hot book").quantity(5).build());
+        bookStockRepository.save(BookStock.builder().id(EMPTY_BOOK_ID).name("Empty book").quantity(0).build());
+        List<OrderItemDO> order = List.of(
+                OrderItemDO.builder().bookId(HOT_BOOK_ID).quantity(2).build(),
+                OrderItemDO.builder().bookId(EMPTY_BOOK_ID).quantity(1).build());
+
+        //When
+        NotEnoughStockException thrown = assertThrows(NotEnoughStockException.class,
+                () -> bookStockService.reserveStock(order));
+
+        //Then
+        assertEquals(EMPTY_BOOK_ID, thrown.getBookId());
+        assertEquals(5, bookStockRepository.findById(HOT_BOOK_ID).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testReserveStock_shouldRejectEveryOrder_whenCoalescedQuantitiesOverflow() throws Exception {
+        //Given
+        bookStockRepository.save(BookStock.builder().id(HOT_BOOK_ID).name("Hot book").quantity(5).build());
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId(HOT_BOOK_ID).quantity(1000000000).build());
+
+        //When
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookStockService.reserveStock(order);
+                    accepted.incrementAndGet();
+                } catch (NotEnoughStockException ignored) {
+                    // Expected, the book only has 5 units
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //Then
+        assertEquals(0, accepted.get());
+        assertEquals(5, bookStockRepository.findById(HOT_BOOK_ID).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testReserveStock_shouldForgetTheBook_whenItsDecrementsHaveBeenFlushed() {
+        //Given
+        bookStockRepository.save(BookStock.builder().id(HOT_BOOK_ID).name("Hot book").quantity(5).build());
+
+        //When
+        bookStockService.reserveStock(List.of(OrderItemDO.builder().bookId(HOT_BOOK_ID).quantity(1).build()));
+
+        //Then
+        Gauge pendingBooks = meterRegistry.get("bookstore.stock.coalescing.pending-books").gauge();
+        long deadline = System.currentTimeMillis() + 1000;
+        while (pendingBooks.value() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, pendingBooks.value());
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.service.impl.StockEventBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockEventBufferTest {
+
+    @Test
+    public void testTakeSnapshotRequest_shouldAskForSnapshotOnlyOnce_whenBufferIsNew() {
+        //Given
+        StockEventBuffer<String> sut = new StockEventBuffer<>(2);
+
+        //When //Then
+        assertTrue(sut.takeSnapshotRequest());
+        assertFalse(sut.takeSnapshotRequest());
+        assertTrue(sut.isEmpty());
+    }
+
+    @Test
+    public void testPoll_shouldReturnEventsInOrder_whenBufferIsNotFull() {
+        //Given
+        StockEventBuffer<String> sut = new StockEventBuffer<>(2);
+        sut.takeSnapshotRequest();
+
+        //When
+        boolean first = sut.offer("a");
+        boolean second = sut.offer("b");
+
+        //Then
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals("a", sut.poll());
+        assertEquals("b", sut.poll());
+        assertNull(sut.poll());
+    }
+
+    @Test
+    public void testOffer_shouldDropEventsAndAskForSnapshot_whenBufferIsFull() {
+        //Given
+        StockEventBuffer<String> sut = new StockEventBuffer<>(2);
+        sut.takeSnapshotRequest();
+        sut.offer("a");
+        sut.offer("b");
+
+        //When
+        boolean offered = sut.offer("c");
+
+        //Then
+        assertFalse(offered);
+        assertFalse(sut.isEmpty());
+        assertTrue(sut.takeSnapshotRequest());
+        assertNull(sut.poll());
+    }
+
+}
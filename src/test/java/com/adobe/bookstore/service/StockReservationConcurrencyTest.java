@@ -0,0 +1,134 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.exception.NotEnoughStockException;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.BookStockRepository;
+import com.adobe.bookstore.utils.Log;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class StockReservationConcurrencyTest {
+
+    private static final String HOT_BOOK_ID = "407b0000-0000-4000-8000-000000000000";
+    private static final int INITIAL_STOCK = 1000;
+    private static final int ORDERS = 4000;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private IBookStockService bookStockService;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        bookStockRepository.deleteById(HOT_BOOK_ID);
+    }
+
+    @Test
+    public void testReserveStock_shouldNeverOversell_whenManyOrdersHitTheSameBook() throws Exception {
+        //Given
+        createHotBook();
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId(HOT_BOOK_ID).quantity(1).build());
+
+        //When
+        AtomicInteger accepted = new AtomicInteger();
+        long elapsed = fireOrders(order, orderToPlace -> {
+            try {
+                bookStockService.reserveStock(orderToPlace);
+                accepted.incrementAndGet();
+            } catch (NotEnoughStockException ignored) {
+                // Expected once the stock runs out
+            }
+        });
+
+        //Then
+        assertEquals(INITIAL_STOCK, accepted.get());
+        assertEquals(0, bookStockRepository.findById(HOT_BOOK_ID).orElseThrow().getQuantity());
+        Log.info("Atomic reservation: " + ordersPerSecond(elapsed) + " orders/sec, " + accepted.get()
+                + " accepted for a stock of " + INITIAL_STOCK + ".");
+    }
+
+    @Test
+    public void testReserveStock_shouldLeaveStockUntouched_whenLinesForABookOverflow() {
+        //Given
+        createHotBook();
+        OrderItemDO line = OrderItemDO.builder().bookId(HOT_BOOK_ID).quantity(2000000000).build();
+
+        //When
+        assertThrows(IllegalArgumentException.class, () -> bookStockService.reserveStock(List.of(line, line)));
+
+        //Then
+        assertEquals(INITIAL_STOCK, bookStockRepository.findById(HOT_BOOK_ID).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testCheckThenUpdate_shouldBeMeasuredAgainstAtomicReservation() throws Exception {
+        //Given
+        createHotBook();
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId(HOT_BOOK_ID).quantity(1).build());
+
+        //When
+        AtomicInteger accepted = new AtomicInteger();
+        long elapsed = fireOrders(order, orderToPlace -> {
+            try {
+                if (bookStockService.existsEnoughQuantityInStock(orderToPlace)) {
+                    bookStockService.updateStock(orderToPlace);
+                    accepted.incrementAndGet();
+                }
+            } catch (RuntimeException ignored) {
+                // The previous flow only logged these errors
+            }
+        });
+
+        //Then
+        int remaining = bookStockRepository.findById(HOT_BOOK_ID).orElseThrow().getQuantity();
+        assertTrue(remaining >= 0);
+        Log.info("Check then update: " + ordersPerSecond(elapsed) + " orders/sec, " + accepted.get()
+                + " accepted for a stock of " + INITIAL_STOCK + ", " + (accepted.get() - (INITIAL_STOCK - remaining))
+                + " oversold.");
+    }
+
+    private void createHotBook() {
+        bookStockRepository.save(BookStock.builder().id(HOT_BOOK_ID).name("Hot book").quantity(INITIAL_STOCK).build());
+    }
+
+    private long fireOrders(List<OrderItemDO> order, Consumer<List<OrderItemDO>> placeOrder) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(ORDERS);
+            for (int i = 0; i < ORDERS; i++) {
+                futures.add(executor.submit(() -> placeOrder.accept(order)));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long ordersPerSecond(long elapsedNanos) {
+        return ORDERS * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+    }
+
+}
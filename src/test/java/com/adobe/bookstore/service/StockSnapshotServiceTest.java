@@ -0,0 +1,165 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.StockImportResultDO;
+import com.adobe.bookstore.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class StockSnapshotServiceTest {
+
+    private static final String BOOK_ID = "5ab00000-0000-4000-8000-000000000001";
+    private static final String OTHER_BOOK_ID = "5ab00000-0000-4000-8000-000000000002";
+    private static final String NEW_BOOK_ID = "5ab00000-0000-4000-8000-000000000003";
+    private static final String INVALID_BOOK_ID = "5ab00000-0000-4000-8000-000000000004";
+
+    @Autowired
+    private IStockSnapshotService stockSnapshotService;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM book_stock WHERE CAST(id AS VARCHAR) LIKE '5ab00000-%'");
+    }
+
+    @Test
+    public void testExportStock_shouldWriteEveryBookAsCsv_whenCalled() throws IOException {
+        //Given
+        jdbcTemplate.update("INSERT INTO book_stock (id, name, quantity) VALUES (?, 'Dune, \"Messiah\"', 3)", BOOK_ID);
+        long books = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_stock", Long.class);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //When
+        long written = stockSnapshotService.exportStock(outputStream);
+
+        //Then
+        String csv = outputStream.toString(StandardCharsets.UTF_8);
+        assertEquals(books, written);
+        assertTrue(csv.startsWith("id,name,quantity" + System.lineSeparator()));
+        assertTrue(csv.contains(BOOK_ID + ",\"Dune, \"\"Messiah\"\"\",3"));
+    }
+
+    @Test
+    public void testImportStock_shouldInsertNewBooksAndUpdateChangedOnes_whenNotDelta() throws IOException {
+        //Given
+        jdbcTemplate.update("INSERT INTO book_stock (id, name, quantity) VALUES ('" + BOOK_ID + "', 'Dune', 3), " +
+                "('" + OTHER_BOOK_ID + "', 'Emma', 4)");
+
+        //When
+        StockImportResultDO result = stockSnapshotService.importStock(csv("""
+                id,name,quantity
+                %s,Dune,3
+                %s,Emma,5
+                %s,"Dune, Messiah",1
+                %s,Ulysses,-1
+                """.formatted(BOOK_ID, OTHER_BOOK_ID, NEW_BOOK_ID, INVALID_BOOK_ID)), false);
+
+        //Then
+        assertEquals(StockImportResultDO.builder().read(4).changed(2).invalid(1).build(), result);
+        assertEquals(Map.of("quantity", 3, "version", 0L), stock(BOOK_ID));
+        assertEquals(Map.of("quantity", 5, "version", 1L), stock(OTHER_BOOK_ID));
+        assertEquals(Map.of("quantity", 1, "version", 0L), stock(NEW_BOOK_ID));
+    }
+
+    @Test
+    public void testImportStock_shouldOnlyWriteChangedQuantitiesOfExistingBooks_whenDelta() throws IOException {
+        //Given
+        jdbcTemplate.update("INSERT INTO book_stock (id, name, quantity) VALUES ('" + BOOK_ID + "', 'Dune', 3), " +
+                "('" + OTHER_BOOK_ID + "', 'Emma', 4)");
+
+        //When
+        StockImportResultDO result = stockSnapshotService.importStock(csv("""
+                id,name,quantity
+                %s,Dune,3
+                %s,Another name,7
+                %s,Ulysses,1
+                """.formatted(BOOK_ID, OTHER_BOOK_ID, NEW_BOOK_ID)), true);
+
+        //Then
+        assertEquals(StockImportResultDO.builder().read(3).changed(1).invalid(0).build(), result);
+        assertEquals(Map.of("quantity", 3, "version", 0L), stock(BOOK_ID));
+        assertEquals(Map.of("quantity", 7, "version", 1L), stock(OTHER_BOOK_ID));
+        assertEquals("Emma", jdbcTemplate.queryForObject("SELECT name FROM book_stock WHERE id = ?", String.class,
+                OTHER_BOOK_ID));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_stock WHERE id = ?", Integer.class,
+                NEW_BOOK_ID));
+    }
+
+    @Test
+    public void testImportStock_shouldThrowIllegalArgumentException_whenHeaderIsMissing() {
+        //When //Then
+        assertThrows(IllegalArgumentException.class,
+                () -> stockSnapshotService.importStock(csv(BOOK_ID + ",Dune,3\n"), false));
+    }
+
+    @Test
+    public void testLoadCsvFile_shouldInsertEveryBookWithOneStatement_whenCalled(@TempDir Path directory)
+            throws IOException {
+        //Given
+        Path file = directory.resolve("catalog.csv");
+        Files.writeString(file, "id,name,quantity\n" + BOOK_ID + ",\"Dune, Messiah\",3\n" + OTHER_BOOK_ID +
+                ",Emma,4\n");
+
+        //When
+        int rows = stockSnapshotRepository.loadCsvFile(file.toString(), true);
+
+        //Then
+        assertEquals(2, rows);
+        assertEquals(Map.of("quantity", 3, "version", 0L), stock(BOOK_ID));
+        assertEquals("Dune, Messiah", jdbcTemplate.queryForObject("SELECT name FROM book_stock WHERE id = ?",
+                String.class, BOOK_ID));
+    }
+
+    @Test
+    public void testLoadCsvFile_shouldBumpTheVersionOfChangedBooksOnly_whenTableIsNotEmpty(@TempDir Path directory)
+            throws IOException {
+        //Given
+        jdbcTemplate.update("INSERT INTO book_stock (id, name, quantity) VALUES (?, 'Dune', 3), (?, 'Emma', 4)",
+                BOOK_ID, OTHER_BOOK_ID);
+        Path file = directory.resolve("catalog.csv");
+        Files.writeString(file, "id,name,quantity\n" + BOOK_ID + ",Dune,5\n" + OTHER_BOOK_ID + ",Emma,4\n" +
+                NEW_BOOK_ID + ",Ulysses,1\n");
+
+        //When
+        int rows = stockSnapshotRepository.loadCsvFile(file.toString(), false);
+
+        //Then
+        assertEquals(2, rows);
+        assertEquals(Map.of("quantity", 5, "version", 1L), stock(BOOK_ID));
+        assertEquals(Map.of("quantity", 4, "version", 0L), stock(OTHER_BOOK_ID));
+        assertEquals(Map.of("quantity", 1, "version", 0L), stock(NEW_BOOK_ID));
+    }
+
+    private InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, Object> stock(String bookId) {
+        return jdbcTemplate.queryForMap("SELECT quantity, version FROM book_stock WHERE id = ?", bookId)
+                .entrySet().stream()
+                .collect(Collectors.toMap(entry -> entry.getKey().toLowerCase(),
+                        Map.Entry::getValue));
+    }
+
+}
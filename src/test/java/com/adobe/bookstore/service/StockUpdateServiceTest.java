@@ -0,0 +1,147 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import com.adobe.bookstore.model.StockUpdateRetry;
+import com.adobe.bookstore.repository.StockUpdateRetryRepository;
+import com.adobe.bookstore.service.impl.StockUpdateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockUpdateServiceTest {
+
+    @Mock
+    private IBookStockService bookStockService;
+
+    @Mock
+    private StockUpdateRetryRepository stockUpdateRetryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<StockUpdateRetry>> retriesCaptor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockUpdateService sut;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new StockUpdateService(bookStockService, stockUpdateRetryRepository, transactionManager,
+                meterRegistry, 1, 10, false);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        sut.shutdown();
+    }
+
+    @Test
+    public void testReleaseStockAsync_shouldReleaseStockInTheBackground_whenCalled() {
+        //Given
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId("12345-67890").quantity(2).build());
+
+        //When
+        sut.releaseStockAsync(order);
+
+        //Then
+        verify(bookStockService, timeout(1000)).releaseStock(order);
+        verify(stockUpdateRetryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testReleaseStockAsync_shouldStoreTheUpdateForRetry_whenReleaseFails() {
+        //Given
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId("12345-67890").quantity(2).build());
+
+        //When
+        doThrow(new RuntimeException("Database unavailable.")).when(bookStockService).releaseStock(order);
+        sut.releaseStockAsync(order);
+
+        //Then
+        verify(stockUpdateRetryRepository, timeout(1000)).saveAll(retriesCaptor.capture());
+
+        StockUpdateRetry retry = retriesCaptor.getValue().get(0);
+        assertEquals("12345-67890", retry.getBookId());
+        assertEquals(2, retry.getQuantity());
+        assertEquals("Database unavailable.", retry.getLastError());
+        assertEquals(1.0, meterRegistry.get("bookstore.stock.updates.failures").counter().count());
+    }
+
+    @Test
+    public void testReleaseStockAsync_shouldStoreTheUpdateForRetry_whenCalledAfterShutdown() throws Exception {
+        //Given
+        List<OrderItemDO> order = List.of(OrderItemDO.builder().bookId("12345-67890").quantity(2).build());
+        sut.shutdown();
+
+        //When
+        sut.releaseStockAsync(order);
+
+        //Then
+        verify(bookStockService, never()).releaseStock(any());
+        verify(stockUpdateRetryRepository).saveAll(retriesCaptor.capture());
+
+        StockUpdateRetry retry = retriesCaptor.getValue().get(0);
+        assertEquals("12345-67890", retry.getBookId());
+        assertEquals(2, retry.getQuantity());
+        assertEquals(0, retry.getAttempts());
+    }
+
+    @Test
+    public void testRetryFailedUpdates_shouldReplayAndDeleteTheUpdate_whenItSucceeds() {
+        //Given
+        StockUpdateRetry retry = createRetry();
+
+        //When
+        when(stockUpdateRetryRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of(retry));
+        sut.retryFailedUpdates();
+
+        //Then
+        verify(bookStockService).releaseStock(List.of(OrderItemDO.builder().bookId("12345-67890").quantity(2).build()));
+        verify(stockUpdateRetryRepository).deleteById(7L);
+    }
+
+    @Test
+    public void testRetryFailedUpdates_shouldKeepTheUpdate_whenItFailsAgain() {
+        //Given
+        StockUpdateRetry retry = createRetry();
+
+        //When
+        when(stockUpdateRetryRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of(retry));
+        doThrow(new RuntimeException("Still unavailable.")).when(bookStockService).releaseStock(any());
+        sut.retryFailedUpdates();
+
+        //Then
+        verify(stockUpdateRetryRepository, never()).deleteById(any());
+        verify(stockUpdateRetryRepository).save(retry);
+        assertEquals(2, retry.getAttempts());
+        assertEquals("Still unavailable.", retry.getLastError());
+    }
+
+    private StockUpdateRetry createRetry() {
+        return StockUpdateRetry.builder()
+                .id(7L)
+                .bookId("12345-67890")
+                .quantity(2)
+                .attempts(1)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+}
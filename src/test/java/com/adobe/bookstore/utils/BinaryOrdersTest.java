@@ -0,0 +1,82 @@
+package com.adobe.bookstore.utils;
+
+import com.adobe.bookstore.DO.OrderItemDO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryOrdersTest {
+
+    private static final String BOOK_ID = "ae1666d6-6100-4ef0-9037-b45dd0d5bb0e";
+    private static final String OTHER_BOOK_ID = "22d580fc-d02e-4f70-9980-f9693c18f6e0";
+
+    @Test
+    public void testReadOrder_shouldReturnSameLines_whenOrderWasWritten() {
+        //Given
+        List<OrderItemDO> order = List.of(item(BOOK_ID, 1), item(OTHER_BOOK_ID, 300), item(BOOK_ID, Integer.MAX_VALUE));
+
+        //When
+        byte[] bytes = BinaryOrders.writeOrder(order);
+
+        //Then
+        // Count, then a UUID and a 1, 2 and 5 byte varint per line
+        assertEquals(1 + 16 * 3 + 1 + 2 + 5, bytes.length);
+        assertEquals(order, BinaryOrders.readOrder(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void testReadOrders_shouldReturnSameOrders_whenOrdersWereWritten() {
+        //Given
+        Map<String, List<OrderItemDO>> orders = new LinkedHashMap<>();
+        orders.put("b5661c93-05a5-41f9-98e4-66fa4360f63d", List.of(item(BOOK_ID, 2)));
+        orders.put("0b0f7a64-8c2e-4a4f-9d4b-6a1f3e0e2c11", List.of(item(BOOK_ID, 1), item(OTHER_BOOK_ID, 4)));
+
+        //When
+        byte[] bytes = BinaryOrders.writeOrders(orders);
+
+        //Then
+        assertEquals(orders, BinaryOrders.readOrders(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void testReadOrder_shouldThrowIllegalArgumentException_whenBytesAreMalformed() {
+        //Given
+        byte[] order = BinaryOrders.writeOrder(List.of(item(BOOK_ID, 1)));
+        byte[] truncated = Arrays.copyOf(order, order.length - 1);
+        byte[] trailing = Arrays.copyOf(order, order.length + 1);
+        byte[] forgedCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        byte[] overflowingQuantity = Arrays.copyOf(order, order.length + 4);
+        overflowingQuantity[17] = (byte) 0xFF;
+        overflowingQuantity[18] = (byte) 0xFF;
+        overflowingQuantity[19] = (byte) 0xFF;
+        overflowingQuantity[20] = (byte) 0xFF;
+        overflowingQuantity[21] = 0x0F;
+
+        //When //Then
+        assertThrows(IllegalArgumentException.class, () -> BinaryOrders.readOrder(ByteBuffer.wrap(truncated)));
+        assertThrows(IllegalArgumentException.class, () -> BinaryOrders.readOrder(ByteBuffer.wrap(trailing)));
+        assertThrows(IllegalArgumentException.class, () -> BinaryOrders.readOrder(ByteBuffer.wrap(forgedCount)));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryOrders.readOrder(ByteBuffer.wrap(overflowingQuantity)));
+    }
+
+    @Test
+    public void testWriteOrder_shouldThrowIllegalArgumentException_whenBookIdIsNotLowercaseUuid() {
+        //When //Then
+        assertThrows(IllegalArgumentException.class, () -> BinaryOrders.writeOrder(List.of(item("abcde", 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryOrders.writeOrder(List.of(item(BOOK_ID.toUpperCase(), 1))));
+        assertThrows(IllegalArgumentException.class, () -> BinaryOrders.writeOrder(List.of(item(BOOK_ID, -1))));
+    }
+
+    private OrderItemDO item(String bookId, int quantity) {
+        return OrderItemDO.builder().bookId(bookId).quantity(quantity).build();
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.adobe.bookstore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvTest {
+
+    @Test
+    public void testFormatLine_shouldQuoteOnlyFieldsWithCommasOrQuotes_whenCalled() {
+        //When
+        String line = Csv.formatLine("abc", "Dune, \"Messiah\"", 3);
+
+        //Then
+        assertEquals("abc,\"Dune, \"\"Messiah\"\"\",3", line);
+    }
+
+    @Test
+    public void testParseLine_shouldReturnOriginalFields_whenLineWasFormatted() {
+        //When
+        List<String> fields = Csv.parseLine(Csv.formatLine("abc", "Dune, \"Messiah\"", "", 3));
+
+        //Then
+        assertEquals(List.of("abc", "Dune, \"Messiah\"", "", "3"), fields);
+    }
+
+    @Test
+    public void testParseLine_shouldThrowIllegalArgumentException_whenQuoteIsNotClosed() {
+        //When //Then
+        assertThrows(IllegalArgumentException.class, () -> Csv.parseLine("abc,\"Dune,3"));
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.adobe.bookstore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ETagsTest {
+
+    @Test
+    public void testMatches_shouldMatchAnyTagOfTheList_whenTagsAreStrongOrWeak() {
+        //Given
+        String eTag = ETags.of(5L);
+
+        //When //Then
+        assertEquals("\"5\"", eTag);
+        assertTrue(ETags.matches("\"5\"", eTag));
+        assertTrue(ETags.matches("W/\"5\"", eTag));
+        assertTrue(ETags.matches("\"3\", \"5\"", eTag));
+        assertTrue(ETags.matches("*", eTag));
+    }
+
+    @Test
+    public void testMatches_shouldNotMatch_whenTagIsDifferentOrMissing() {
+        //Given
+        String eTag = ETags.of(5L);
+
+        //When //Then
+        assertFalse(ETags.matches("\"4\"", eTag));
+        assertFalse(ETags.matches("5", eTag));
+        assertFalse(ETags.matches(null, eTag));
+    }
+
+}
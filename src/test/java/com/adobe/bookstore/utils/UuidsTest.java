@@ -0,0 +1,44 @@
+package com.adobe.bookstore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidsTest {
+
+    @Test
+    public void testIsUuid_shouldAcceptCanonicalForm_whenLowercase() {
+        //When //Then
+        assertTrue(Uuids.isUuid(UUID.randomUUID().toString()));
+        assertTrue(Uuids.isUuid("22d580fc-d02e-4f70-9980-f9693c18f6e0"));
+    }
+
+    @Test
+    public void testIsUuid_shouldReject_whenNotCanonicalLowercaseUuid() {
+        //When //Then
+        assertFalse(Uuids.isUuid(null));
+        assertFalse(Uuids.isUuid(""));
+        assertFalse(Uuids.isUuid("12345-67890"));
+        assertFalse(Uuids.isUuid("22D580FC-D02E-4F70-9980-F9693C18F6E0"));
+        assertFalse(Uuids.isUuid("22d580fcd02e4f709980f9693c18f6e0"));
+        assertFalse(Uuids.isUuid("22d580fc-d02e-4f70-9980-f9693c18f6e0 "));
+        assertFalse(Uuids.isUuid("22d580fc-d02e-4f70-9980-f9693c18f6eg"));
+    }
+
+    @Test
+    public void testOnlyUuids_shouldKeepUuidsInOrder_whenCalled() {
+        //Given
+        String first = "22d580fc-d02e-4f70-9980-f9693c18f6e0";
+        String second = "0c5e1f3a-7d2b-4e8f-9a61-3b4c5d6e7f80";
+
+        //When
+        List<String> result = Uuids.onlyUuids(List.of(first, "missing", second));
+
+        //Then
+        assertEquals(List.of(first, second), result);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.adobe.bookstore.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void testThreadFactory_shouldCreatePlatformThreads_whenVirtualThreadsAreDisabled() {
+        //When
+        ThreadFactory threadFactory = VirtualThreads.threadFactory("worker-", false);
+        Thread thread = threadFactory.newThread(() -> {});
+
+        //Then
+        assertTrue(thread.getName().startsWith("worker-"));
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    public void testThreadFactory_shouldFailFast_whenVirtualThreadsAreNotSupported() {
+        //When
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> VirtualThreads.threadFactory("worker-", true));
+
+        //Then
+        assertTrue(thrown.getMessage().startsWith("Virtual threads require Java 21 or newer"));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    public void testNewThreadPerTaskExecutor_shouldRunTasksOnVirtualThreads_whenSupported() throws Exception {
+        //When
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("worker-");
+        String threadDescription = executor.submit(() -> Thread.currentThread().toString()).get(1, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        //Then
+        assertTrue(threadDescription.startsWith("VirtualThread"));
+    }
+
+}